@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
+import com.jmathanim.benchmarks.BenchmarkScene;
+import com.jmathanim.benchmarks.BenchmarkShapes;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.Scene2DSkija;
+import io.github.humbleui.skija.Path;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Benchmarks of the Skija renderer using a raster surface, so they run in headless machines without GPU. This class is
+ * in the renderer package to access {@link SkijaUtils}.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SkijaBenchmark {
+
+    @State(Scope.Thread)
+    public static class PathConversion {
+
+        @Param({"100", "10000"})
+        public int numPoints;
+
+        private SkijaHandler handler;
+        private JMPath path;
+
+        @Setup
+        public void setup() {
+            BenchmarkScene scene = BenchmarkScene.create();
+            handler = new SkijaSwingHandler(scene.getConfig(), new AtomicBoolean(true));
+            handler.initialize();
+            path = Shape.circle(numPoints).getPath();
+        }
+
+        @TearDown
+        public void tearDown() {
+            handler.finish();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RasterFrame {
+
+        @Param({"100", "1000"})
+        public int numShapes;
+
+        private JMathAnimScene scene;
+        private Shape[] shapes;
+
+        @Setup
+        public void setup() {
+            scene = new Scene2DSkija() {
+                @Override
+                public void runSketch() {
+                }
+            };
+            BenchmarkScene.configureHeadless(scene.getConfig());
+            scene.getRenderer();
+            shapes = BenchmarkShapes.addShapes(scene, numShapes);
+        }
+
+        @TearDown
+        public void tearDown() {
+            scene.getRenderer().finish(scene.getFrameCount());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StaticFrame {
+
+        @Param({"1000"})
+        public int numShapes;
+
+        @Param({"true", "false"})
+        public boolean cacheStaticObjects;
+
+        private JMathAnimScene scene;
+
+        @Setup
+        public void setup() {
+            scene = new Scene2DSkija() {
+                @Override
+                public void runSketch() {
+                }
+            };
+            BenchmarkScene.configureHeadless(scene.getConfig());
+            scene.getConfig().setCacheStaticObjects(cacheStaticObjects);
+            scene.getRenderer();
+            //Shapes are grouped in a single static object, like a grid or a formula
+            Shape[] shapes = BenchmarkShapes.addShapes(scene, numShapes);
+            scene.remove(shapes);
+            scene.add(MultiShapeObject.make(shapes));
+        }
+
+        @TearDown
+        public void tearDown() {
+            scene.getRenderer().finish(scene.getFrameCount());
+        }
+    }
+
+    @Benchmark
+    public int convertJMPathToSkijaPath(PathConversion state) {
+        try (Path path = state.handler.skijaUtils.convertJMPathToSkijaPath(state.path)) {
+            return path.getPointsCount();
+        }
+    }
+
+    @Benchmark
+    public Path cachedSkijaPath(PathConversion state) {
+        return state.handler.skijaUtils.getSkijaPath(state.path);
+    }
+
+    @Benchmark
+    public JMathAnimScene rasterFrame(RasterFrame state) {
+        BenchmarkShapes.moveShapes(state.shapes);
+        state.scene.advanceFrame();
+        return state.scene;
+    }
+
+    @Benchmark
+    public JMathAnimScene staticFrame(StaticFrame state) {
+        state.scene.advanceFrame();
+        return state.scene;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.Enum.LogLevel;
+import com.jmathanim.jmathanim.DummyScene;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
+
+/**
+ * A scene with a {@link com.jmathanim.Renderers.DummyRenderer}, used by benchmarks that need a scene, its cameras or
+ * its dependency graph. No window is opened and no file is written, so it can be used in a headless machine.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class BenchmarkScene extends DummyScene {
+
+    /**
+     * Creates a new scene, with its renderer already initialized so that objects can be added
+     *
+     * @return The scene
+     */
+    public static BenchmarkScene create() {
+        BenchmarkScene scene = new BenchmarkScene();
+        configureHeadless(scene.getConfig());
+        scene.getRenderer();
+        return scene;
+    }
+
+    /**
+     * Disables preview window, movie and png output, and fps limit, and reduces logging to warnings
+     *
+     * @param config Config class
+     */
+    public static void configureHeadless(JMathAnimConfig config) {
+        JMathAnimScene.logger.setLevel(LogLevel.WARN);
+        config.setShowPreviewWindow(false);
+        config.setCreateMovie(false);
+        config.setSaveToPNG(false);
+        config.setLimitFPS(false);
+    }
+
+    @Override
+    public void runSketch() {
+    }
+}
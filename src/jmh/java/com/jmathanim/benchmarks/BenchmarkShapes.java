@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.Styling.JMColor;
+import com.jmathanim.jmathanim.JMathAnimScene;
+
+/**
+ * Synthetic content shared by the frame benchmarks: a grid of regular polygons, some of them moving every frame.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class BenchmarkShapes {
+
+    private BenchmarkShapes() {
+    }
+
+    /**
+     * Creates a grid of filled regular polygons inside the default view and adds them to the scene
+     *
+     * @param scene     Scene to add the shapes
+     * @param numShapes Number of shapes
+     * @return The created shapes
+     */
+    public static Shape[] addShapes(JMathAnimScene scene, int numShapes) {
+        int columns = (int) Math.ceil(Math.sqrt(numShapes));
+        double size = 4d / columns;
+        Shape[] shapes = new Shape[numShapes];
+        for (int i = 0; i < numShapes; i++) {
+            shapes[i] = Shape.regularPolygon(3 + i % 5)
+                    .scale(.4 * size)
+                    .shift(-2 + size * (i % columns), -1 + size * (i / columns))
+                    .fillColor(JMColor.rgba(i * 1d / numShapes, .5, 1 - i * 1d / numShapes, 1))
+                    .thickness(2);
+            scene.add(shapes[i]);
+        }
+        return shapes;
+    }
+
+    /**
+     * Rotates one shape out of ten, so that updates and redraws of changed shapes are measured too
+     *
+     * @param shapes Shapes created with {@link #addShapes(JMathAnimScene, int)}
+     */
+    public static void moveShapes(Shape[] shapes) {
+        for (int i = 0; i < shapes.length; i += 10) {
+            shapes[i].rotate(.01);
+        }
+    }
+}
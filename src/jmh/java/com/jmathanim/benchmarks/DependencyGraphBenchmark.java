@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.jmathanim.DependencyGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DependencyGraph#updateAll()} on a synthetic scene with many shapes, where only some of them change
+ * every frame.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DependencyGraphBenchmark {
+
+    @Param({"1000"})
+    public int numShapes;
+
+    /**
+     * Percentage of shapes modified before each update
+     */
+    @Param({"0", "10", "100"})
+    public int changedPercent;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private DependencyGraph graph;
+    private Shape[] shapes;
+    private int numChanged;
+
+    @Setup
+    public void setup() {
+        BenchmarkScene scene = BenchmarkScene.create();
+        shapes = BenchmarkShapes.addShapes(scene, numShapes);
+        graph = scene.getDependencyGraph();
+        graph.setParallelUpdates(parallel);
+        graph.updateAll();
+        numChanged = numShapes * changedPercent / 100;
+    }
+
+    @Benchmark
+    public DependencyGraph updateAll() {
+        for (int i = 0; i < numChanged; i++) {
+            shapes[i].shift(.001, 0);
+        }
+        graph.updateAll();
+        return graph;
+    }
+}
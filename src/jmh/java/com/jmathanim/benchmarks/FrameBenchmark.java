@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full frame (updates, draw calls and frame saving) of a scene with many moving shapes, using a
+ * {@link com.jmathanim.Renderers.DummyRenderer}. This measures the cost of the scene pipeline without any rendering.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameBenchmark {
+
+    @Param({"100", "1000"})
+    public int numShapes;
+
+    private JMathAnimScene scene;
+    private Shape[] shapes;
+
+    @Setup
+    public void setup() {
+        scene = BenchmarkScene.create();
+        shapes = BenchmarkShapes.addShapes(scene, numShapes);
+    }
+
+    @Benchmark
+    public JMathAnimScene advanceFrame() {
+        BenchmarkShapes.moveShapes(shapes);
+        scene.advanceFrame();
+        return scene;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.Cameras.Camera;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.Utils.AffineJTransform;
+import com.jmathanim.Utils.Vec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of basic geometry operations: conversion of paths into polygonal pieces and affine transforms of vectors.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+
+    @Param({"100", "10000"})
+    public int numPoints;
+
+    private Camera camera;
+    private JMPath path;
+    private Vec[] vectors;
+    private AffineJTransform transform;
+
+    @Setup
+    public void setup() {
+        camera = BenchmarkScene.create().getCamera();
+        path = Shape.circle(numPoints).getPath();
+        vectors = new Vec[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            vectors[i] = Vec.to(i, -i);
+        }
+        transform = AffineJTransform.create2DRotationTransform(Vec.to(.5, .5), .01);
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<float[]>> computePolygonalPieces() {
+        return path.computePolygonalPieces(camera);
+    }
+
+    @Benchmark
+    public Vec[] vecApplyAffineTransform() {
+        for (Vec v : vectors) {
+            v.applyAffineTransform(transform);
+        }
+        return vectors;
+    }
+}
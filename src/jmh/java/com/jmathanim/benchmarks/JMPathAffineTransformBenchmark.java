@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.MathObjects.Shapes.JMPathPoint;
+import com.jmathanim.Utils.AffineJTransform;
+import com.jmathanim.Utils.Vec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bulk affine transform of {@link JMPath} with the previous approach, where every vertex and control
+ * point was transformed and marked as changed on its own.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JMPathAffineTransformBenchmark {
+
+    @Param({"100", "10000"})
+    public int numPoints;
+
+    private JMPath path;
+    private AffineJTransform transform;
+
+    @Setup
+    public void setup() {
+        path = new JMPath();
+        for (int i = 0; i < numPoints; i++) {
+            double t = 2 * Math.PI * i / numPoints;
+            path.addJMPoint(JMPathPoint.make(Math.cos(t), Math.sin(t), Math.cos(t) - .1, Math.sin(t), Math.cos(t) + .1, Math.sin(t)));
+        }
+        transform = AffineJTransform.create2DRotationTransform(Vec.to(.5, .5), .01);
+    }
+
+    @Benchmark
+    public JMPath perVector() {
+        for (JMPathPoint jmp : path.getJmPathPoints()) {
+            jmp.getV().applyAffineTransform(transform);
+            jmp.getVEnter().applyAffineTransform(transform);
+            jmp.getVExit().applyAffineTransform(transform);
+            jmp.changeVersionAndMarkDirty();
+        }
+        return path;
+    }
+
+    @Benchmark
+    public JMPath bulk() {
+        return path.applyAffineTransform(transform);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Text.LatexGlyphCache;
+import com.jmathanim.MathObjects.Text.LatexMathObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the construction of {@link LatexMathObject} instances, compiled with JLaTeXMath, with the shapes restored
+ * from {@link LatexGlyphCache} or typeset again.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LatexBenchmark {
+
+    @Param({"x^2+y^2=1", "\\int_0^1 \\frac{\\sin x}{x}\\,dx=\\sum_{n=0}^\\infty \\frac{(-1)^n}{(2n+1)(2n+1)!}"})
+    public String formula;
+
+    @Setup
+    public void setup() {
+        BenchmarkScene.create();
+    }
+
+    @Benchmark
+    public LatexMathObject make() {
+        return LatexMathObject.make(formula);
+    }
+
+    @Benchmark
+    public LatexMathObject makeUncached() {
+        LatexGlyphCache.getInstance().clear();
+        return LatexMathObject.make(formula);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Text.LatexMathObject;
+import com.jmathanim.Utils.LatexParser;
+import org.openjdk.jmh.annotations.*;
+import org.scilab.forge.jlatexmath.TeXFormula;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link LatexParser#parse()} over a corpus of formulas using fractions, scripts, roots, delimiters,
+ * matrices, accents and big operators. The JLaTeXMath formulas are created once, so the time measured is the layout of
+ * the formula and the parsing of its atoms and boxes.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LatexParserBenchmark {
+
+    private static final String[] CORPUS = {
+            "x^2+y^2=1",
+            "\\int_0^1 \\frac{\\sin x}{x}\\,dx=\\sum_{n=0}^\\infty \\frac{(-1)^n}{(2n+1)(2n+1)!}",
+            "\\sqrt[3]{a+b}+\\overline{xy}+\\vec{v}",
+            "\\left(\\begin{array}{cc}1&2\\\\3&4\\end{array}\\right)",
+            "\\overbrace{a+b}^{n}\\underbrace{c}_{m}\\overrightarrow{AB}",
+            "\\mathbf{F}=m\\mathrm{a},\\quad\\lim_{x\\to 0}\\sin^2 x",
+            "f(x)=\\left\\{\\frac{x^2-1}{x+1}\\right\\}_{x\\neq -1}"
+    };
+
+    private LatexParser parser;
+    private TeXFormula[] formulas;
+    private TeXFormula[] layoutFormulas;
+
+    @Setup
+    public void setup() {
+        BenchmarkScene.create();
+        parser = LatexMathObject.make().getLatexParser();
+        formulas = new TeXFormula[CORPUS.length];
+        layoutFormulas = new TeXFormula[CORPUS.length];
+        for (int i = 0; i < CORPUS.length; i++) {
+            formulas[i] = new TeXFormula(CORPUS[i]);
+            layoutFormulas[i] = new TeXFormula(CORPUS[i]);
+        }
+    }
+
+    @Benchmark
+    public int parseCorpus() {
+        int tokens = 0;
+        for (int i = 0; i < formulas.length; i++) {
+            parser.setJLatexFormulaParser(formulas[i], layoutFormulas[i]);
+            parser.parse();
+            tokens += parser.size();
+        }
+        return tokens;
+    }
+}
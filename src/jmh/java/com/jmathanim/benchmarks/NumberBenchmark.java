@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.Enum.AnchorType;
+import com.jmathanim.MathObjects.Text.AbstractLatexMathObject;
+import com.jmathanim.MathObjects.Text.JMNumber;
+import com.jmathanim.MathObjects.Text.LatexMathObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link JMNumber} whose value changes every frame, built from the shapes of the number glyph atlas,
+ * against typesetting the same number with JLaTeXMath.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberBenchmark {
+
+    private JMNumber number;
+    private LatexMathObject typeset;
+    private DecimalFormat format;
+    private double value;
+
+    @Setup
+    public void setup() {
+        BenchmarkScene.create();
+        number = JMNumber.make(0);
+        typeset = LatexMathObject.make("\\mbox{0}", AbstractLatexMathObject.CompileMode.RawJLaTexMath, AnchorType.LEFT);
+        format = new DecimalFormat();
+    }
+
+    @Benchmark
+    public JMNumber composed() {
+        value += .001;
+        number.setValue(value);
+        return number;
+    }
+
+    @Benchmark
+    public LatexMathObject typeset() {
+        value += .001;
+        //Same LaTeX code generated for the JLaTexMath mode
+        typeset.setLaTeX("\\mbox{" + format.format(value) + "}");
+        return typeset;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
+import com.jmathanim.Utils.SVGImport;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SVGImport#importSVG(URL)} with SVG files included in the library resources.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SVGImportBenchmark {
+
+    @Param({"/images/jmathanimLogo.svg", "/shapeResources/arrows/Arrows.svg"})
+    public String resource;
+
+    private BenchmarkScene scene;
+    private URL url;
+
+    @Setup
+    public void setup() {
+        scene = BenchmarkScene.create();
+        url = getClass().getResource(resource);
+    }
+
+    @Benchmark
+    public MultiShapeObject importSVG() {
+        return new SVGImport(scene).importSVG(url);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.benchmarks;
+
+import com.jmathanim.Animations.Transform;
+import com.jmathanim.MathObjects.Shape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the interpolation step of the strategies used by {@link Transform}, transforming a regular polygon into a
+ * rotated, scaled and shifted copy. Initialization of the strategy is done once and is not measured.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformBenchmark {
+
+    @Param({"INTERPOLATE_SIMPLE_SHAPES_BY_POINT", "INTERPOLATE_POINT_BY_POINT", "ISOMORPHIC_TRANSFORM",
+            "ROTATE_AND_SCALEXY_TRANSFORM", "GENERAL_AFFINE_TRANSFORM"})
+    public Transform.TransformMethod method;
+
+    @Param({"6", "500"})
+    public int numSides;
+
+    private Transform transform;
+    private double t;
+
+    @Setup
+    public void setup() {
+        BenchmarkScene scene = BenchmarkScene.create();
+        Shape origin = Shape.regularPolygon(numSides);
+        Shape destiny = Shape.regularPolygon(numSides).scale(2).rotate(1).shift(1, 1);
+        scene.add(origin);
+        transform = Transform.make(1, origin, destiny).setTransformMethod(method);
+        transform.initialize(scene);
+        t = 0;
+    }
+
+    @Benchmark
+    public Transform doAnim() {
+        t += .01;
+        if (t > 1) {
+            t = 0;
+        }
+        transform.doAnim(t);
+        return transform;
+    }
+}
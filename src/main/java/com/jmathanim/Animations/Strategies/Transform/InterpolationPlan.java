@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Animations.Strategies.Transform;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.MathObjects.Shapes.JMPathPoint;
+import com.jmathanim.Utils.Vec;
+import com.jmathanim.jmathanim.VersionCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed point to point interpolation between two paths. The coordinates of the points and control points of the
+ * origin, which do not change during the animation, are copied once into a flat array. Every frame they are
+ * interpolated in a single loop with the current coordinates of the destiny, writing the results directly into the
+ * points of the animated paths. The destiny is read every frame, so that it may move while the animation runs. All
+ * points changed in a frame are marked with the same version.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+final class InterpolationPlan {
+
+    //Coordinates per point: vertex, enter control point and exit control point
+    private static final int STRIDE = 9;
+
+    private final JMPathPoint[] targets;
+    private final JMPath[] destinies;
+    private final double[] from;
+
+    private InterpolationPlan(JMPathPoint[] targets, JMPath[] destinies, double[] from) {
+        this.targets = targets;
+        this.destinies = destinies;
+        this.from = from;
+    }
+
+    /**
+     * Creates a new plan. The i-th path of each list should have the same number of points.
+     *
+     * @param targets   Paths whose points will be modified
+     * @param origins   Paths with the coordinates at the start of the interpolation. They are copied.
+     * @param destinies Paths with the coordinates at the end of the interpolation. They are read at every frame.
+     * @return The plan
+     */
+    static InterpolationPlan make(List<JMPath> targets, List<JMPath> origins, List<JMPath> destinies) {
+        int size = 0;
+        for (int n = 0; n < targets.size(); n++) {
+            if ((origins.get(n).size() != targets.get(n).size()) || (destinies.get(n).size() != targets.get(n).size())) {
+                throw new IllegalArgumentException("Paths to interpolate should have the same number of points");
+            }
+            size += targets.get(n).size();
+        }
+        JMPathPoint[] points = new JMPathPoint[size];
+        double[] from = new double[STRIDE * size];
+        int i = 0;
+        for (int n = 0; n < targets.size(); n++) {
+            ArrayList<JMPathPoint> target = targets.get(n).getJmPathPoints();
+            ArrayList<JMPathPoint> origin = origins.get(n).getJmPathPoints();
+            for (int k = 0; k < target.size(); k++) {
+                points[i] = target.get(k);
+                pack(origin.get(k), from, STRIDE * i);
+                i++;
+            }
+        }
+        return new InterpolationPlan(points, destinies.toArray(new JMPath[0]), from);
+    }
+
+    /**
+     * Interpolates the points of the target paths
+     *
+     * @param alpha Interpolation parameter. 0 gives the origin and 1 the destiny
+     */
+    void apply(double alpha) {
+        final double beta = 1 - alpha;
+        final long newVersion = VersionCounter.next();
+        int i = 0;
+        for (JMPath destiny : destinies) {
+            ArrayList<JMPathPoint> dstPoints = destiny.getJmPathPoints();
+            for (int n = 0; n < dstPoints.size(); n++, i++) {
+                final int k = STRIDE * i;
+                JMPathPoint dst = dstPoints.get(n);
+                JMPathPoint jmp = targets[i];
+                Vec v = jmp.getV();
+                Vec dstV = dst.getV();
+                v.x = beta * from[k] + alpha * dstV.x;
+                v.y = beta * from[k + 1] + alpha * dstV.y;
+                v.z = beta * from[k + 2] + alpha * dstV.z;
+                Vec vEnter = jmp.getVEnter();
+                Vec dstVEnter = dst.getVEnter();
+                vEnter.x = beta * from[k + 3] + alpha * dstVEnter.x;
+                vEnter.y = beta * from[k + 4] + alpha * dstVEnter.y;
+                vEnter.z = beta * from[k + 5] + alpha * dstVEnter.z;
+                Vec vExit = jmp.getVExit();
+                Vec dstVExit = dst.getVExit();
+                vExit.x = beta * from[k + 6] + alpha * dstVExit.x;
+                vExit.y = beta * from[k + 7] + alpha * dstVExit.y;
+                vExit.z = beta * from[k + 8] + alpha * dstVExit.z;
+                jmp.changeVersionAndMarkDirty(newVersion);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of interpolated points
+     *
+     * @return Number of points
+     */
+    int size() {
+        return targets.length;
+    }
+    private static void pack(JMPathPoint jmp, double[] dest, int k) {
+        Vec v = jmp.getV();
+        dest[k] = v.x;
+        dest[k + 1] = v.y;
+        dest[k + 2] = v.z;
+        Vec vEnter = jmp.getVEnter();
+        dest[k + 3] = vEnter.x;
+        dest[k + 4] = vEnter.y;
+        dest[k + 5] = vEnter.z;
+        Vec vExit = jmp.getVExit();
+        dest[k + 6] = vExit.x;
+        dest[k + 7] = vExit.y;
+        dest[k + 8] = vExit.z;
+    }
+}
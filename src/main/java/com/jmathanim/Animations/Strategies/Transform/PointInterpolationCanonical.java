@@ -48,6 +48,8 @@ public class PointInterpolationCanonical extends TransformStrategy<AbstractShape
     private static final boolean DEBUG_COLORS = false;
 //    private final Shape mobjTransformedOrig;
     private boolean originWasAddedAtFirst, destinyWasAddedAtFirst;
+    // Packed coordinates of the origin, that don't change during the animation, and the paths to interpolate
+    private InterpolationPlan plan;
 
     /**
      * Constructor
@@ -68,9 +70,22 @@ public class PointInterpolationCanonical extends TransformStrategy<AbstractShape
         this.addedAuxiliaryObjectsToScene = new ArrayList<>();
     }
 
+    private InterpolationPlan makePlan() {
+        ArrayList<JMPath> targets = new ArrayList<>();
+        ArrayList<JMPath> origins = new ArrayList<>();
+        ArrayList<JMPath> destinies = new ArrayList<>();
+        for (int numConnected = 0; numConnected < this.connectedDst.getNumberOfPaths(); numConnected++) {
+            targets.add(connectedOrigin.get(numConnected));
+            origins.add(connectedOriginaRawCopy.get(numConnected));
+            destinies.add(connectedDst.get(numConnected));
+        }
+        return InterpolationPlan.make(targets, origins, destinies);
+    }
+
     @Override
     public boolean doInitialization() {
         super.doInitialization();
+        plan = null;
         originWasAddedAtFirst = scene.isInScene(getOriginObject());
         destinyWasAddedAtFirst = scene.isInScene(getDestinyObject());
         getIntermediateObject().copyStateFrom(getOriginObject());
@@ -122,40 +137,18 @@ public class PointInterpolationCanonical extends TransformStrategy<AbstractShape
     public void doAnim(double t) {
         super.doAnim(t);
         double lt = getLT(t);
-        JMPathPoint interPoint, basePoint, dstPoint;
 
         if ((connectedOrigin.getNumberOfPaths() == 0) || (connectedDst.getNumberOfPaths() == 0)) {
             return;
         }
-
-        for (int numConnected = 0; numConnected < this.connectedDst.getNumberOfPaths(); numConnected++) {
-            JMPath convertedPath = connectedOrigin.get(numConnected);
-            JMPath fromPath = connectedOriginaRawCopy.get(numConnected);
-            JMPath toPath = connectedDst.get(numConnected);
-            for (int n = 0; n < convertedPath.size(); n++) {
-                interPoint = convertedPath.getJmPathPoints().get(n);
-                basePoint = fromPath.getJmPathPoints().get(n);
-                dstPoint = toPath.getJmPathPoints().get(n);
-
-                // Interpolate point
-                interPoint.getV().x = (1 - lt) * basePoint.getV().x + lt * dstPoint.getV().x;
-                interPoint.getV().y = (1 - lt) * basePoint.getV().y + lt * dstPoint.getV().y;
-                interPoint.getV().z = (1 - lt) * basePoint.getV().z + lt * dstPoint.getV().z;
-
-                // Interpolate control point 1
-                interPoint.getVExit().x = (1 - lt) * basePoint.getVExit().x + lt * dstPoint.getVExit().x;
-                interPoint.getVExit().y = (1 - lt) * basePoint.getVExit().y + lt * dstPoint.getVExit().y;
-                interPoint.getVExit().z = (1 - lt) * basePoint.getVExit().z + lt * dstPoint.getVExit().z;
-
-                // Interpolate control point 2
-                interPoint.getVEnter().x = (1 - lt) * basePoint.getVEnter().x + lt * dstPoint.getVEnter().x;
-                interPoint.getVEnter().y = (1 - lt) * basePoint.getVEnter().y + lt * dstPoint.getVEnter().y;
-                interPoint.getVEnter().z = (1 - lt) * basePoint.getVEnter().z + lt * dstPoint.getVEnter().z;
-            }
-
+        if (plan == null) {
+            plan = makePlan();
         }
+        // Interpolate points and control points
+        plan.apply(lt);
         if (isShouldInterpolateStyles()) {
-         getIntermediateObject().getMp().interpolateFrom(getOriginObject().getMp(), getDestinyObject().getMp(), lt);
+            // Style interpolation
+            getIntermediateObject().getMp().interpolateFrom(getOriginObject().getMp(), getDestinyObject().getMp(), lt);
         }
 
         // Transform effects
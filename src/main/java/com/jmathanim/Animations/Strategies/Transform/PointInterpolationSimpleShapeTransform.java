@@ -24,6 +24,8 @@ import com.jmathanim.MathObjects.Shapes.JMPath;
 import com.jmathanim.MathObjects.Shapes.JMPathPoint;
 import com.jmathanim.Utils.Vec;
 
+import java.util.List;
+
 /**
  * Point interpolation when both paths are simple, closed curves
  *
@@ -35,6 +37,7 @@ public class PointInterpolationSimpleShapeTransform extends TransformStrategy<Ab
     Vec origCenter, dstCenter;
     private final AbstractShape<?> shDestiny;
     private final AbstractShape<?> shIntermediate;
+    private InterpolationPlan plan;
 
     public PointInterpolationSimpleShapeTransform(double runtime, AbstractShape<?> origin, AbstractShape<?> destiny) {
         super(runtime);
@@ -68,6 +71,7 @@ public class PointInterpolationSimpleShapeTransform extends TransformStrategy<Ab
             jmp.setSegmentToThisPointCurved(true);
         }
         originBase = getIntermediateObject().copy();
+        plan = null;
 
         prepareJumpPath(origCenter, dstCenter, getIntermediateObject());
         return true;
@@ -77,27 +81,11 @@ public class PointInterpolationSimpleShapeTransform extends TransformStrategy<Ab
     public void doAnim(double t) {
         super.doAnim(t);
         double lt = getLT(t);
-        JMPathPoint interPoint, basePoint, dstPoint;
-        for (int n = 0; n < shIntermediate.getPath().size(); n++) {
-            interPoint = shIntermediate.get(n);
-            basePoint = originBase.get(n);
-            dstPoint = shDestiny.get(n);
-
-            // Interpolate point
-            interPoint.getV().x = (1 - lt) * basePoint.getV().x + lt * dstPoint.getV().x;
-            interPoint.getV().y = (1 - lt) * basePoint.getV().y + lt * dstPoint.getV().y;
-            interPoint.getV().z = (1 - lt) * basePoint.getV().z + lt * dstPoint.getV().z;
-
-            // Interpolate control point 1
-            interPoint.getVExit().x = (1 - lt) * basePoint.getVExit().x + lt * dstPoint.getVExit().x;
-            interPoint.getVExit().y = (1 - lt) * basePoint.getVExit().y + lt * dstPoint.getVExit().y;
-            interPoint.getVExit().z = (1 - lt) * basePoint.getVExit().z + lt * dstPoint.getVExit().z;
-
-            // Interpolate control point 2
-            interPoint.getVEnter().x = (1 - lt) * basePoint.getVEnter().x + lt * dstPoint.getVEnter().x;
-            interPoint.getVEnter().y = (1 - lt) * basePoint.getVEnter().y + lt * dstPoint.getVEnter().y;
-            interPoint.getVEnter().z = (1 - lt) * basePoint.getVEnter().z + lt * dstPoint.getVEnter().z;
+        if (plan == null) {
+            plan = makePlan();
         }
+        // Interpolate points and control points
+        plan.apply(lt);
         if (isShouldInterpolateStyles()) {
             // Style interpolation
             getIntermediateObject().getMp().interpolateFrom(getOriginObject().getMp(), getDestinyObject().getMp(), lt);
@@ -107,6 +95,13 @@ public class PointInterpolationSimpleShapeTransform extends TransformStrategy<Ab
 
     }
 
+    private InterpolationPlan makePlan() {
+        List<JMPath> targets = List.of(shIntermediate.getPath());
+        List<JMPath> origins = List.of(originBase.getPath());
+        List<JMPath> destinies = List.of(shDestiny.getPath());
+        return InterpolationPlan.make(targets, origins, destinies);
+    }
+
     @Override
     public AbstractShape<?> getIntermediateObject() {
         return shIntermediate;
@@ -23,7 +23,9 @@ import com.jmathanim.Utils.EmptyRect;
 import com.jmathanim.Utils.Rect;
 import com.jmathanim.Utils.Vec;
 import com.jmathanim.jmathanim.Dependable;
+import com.jmathanim.jmathanim.DependencyGraph;
 import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.VersionCounter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -494,7 +496,8 @@ public class Camera implements Boxable, Dependable {
 
     @Override
     public void changeVersionAndMarkDirty() {
-        version=++JMathAnimScene.globalVersion;
+        version=VersionCounter.next();
+        DependencyGraph.notifyChanged(this);
     }
 
     @Override
@@ -507,6 +510,11 @@ public class Camera implements Boxable, Dependable {
 
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return false;
+    }
+
     @Override
     public long getVersion() {
         return version;
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Cameras;
+
+import com.jmathanim.Styling.DrawStyleProperties;
+import com.jmathanim.Utils.EmptyRect;
+import com.jmathanim.Utils.Rect;
+import com.jmathanim.Utils.Vec;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
+
+/**
+ * Region of the math world seen by a camera, used to skip drawing objects that fall outside it. For 2D cameras it is
+ * the math view rectangle, and z coordinates are ignored. For a {@link Camera3D} with perspective, it is a cone from the
+ * eye along the viewing direction, wide enough to contain the whole screen regardless of the up vector. Other 3D
+ * cameras, like those without perspective, cannot be culled: every object is considered in view.
+ * <p>
+ * Tests are conservative: an object may be reported as intersecting the view when it does not, but never the opposite.
+ * A frustum is a snapshot of the camera when created.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public final class ViewFrustum {
+
+    /**
+     * Thickness equivalent to a math unit used by the Skija renderer, when the view is 4 math units wide
+     */
+    private static final double SKIJA_THICKNESS_EQUIVALENT_TO_MATH_UNIT = 1066;
+
+    private final boolean perspective;
+    private final boolean cullable;
+    private final double xmin, ymin, xmax, ymax;
+    private final double fixedViewWidth;
+    private final double eyeX, eyeY, eyeZ;
+    private final double dirX, dirY, dirZ;
+    private final double sin, cos;
+
+    private ViewFrustum(Camera camera) {
+        xmin = camera.xmin;
+        ymin = camera.ymin;
+        xmax = camera.xmax;
+        ymax = camera.ymax;
+        JMathAnimScene scene = JMathAnimConfig.getConfig().getScene();
+        Camera fixedCamera = (scene == null) ? null : scene.getFixedCamera();
+        fixedViewWidth = (fixedCamera == null) ? xmax - xmin : fixedCamera.xmax - fixedCamera.xmin;
+        if ((camera instanceof Camera3D) && camera.perspective) {
+            Camera3D cam3D = (Camera3D) camera;
+            Vec eye = cam3D.eye.v;
+            Vec dir = eye.to(cam3D.look.v);
+            double norm = dir.norm();
+            perspective = norm > 0;
+            cullable = perspective;
+            eyeX = eye.x;
+            eyeY = eye.y;
+            eyeZ = eye.z;
+            dirX = perspective ? dir.x / norm : 0;
+            dirY = perspective ? dir.y / norm : 0;
+            dirZ = perspective ? dir.z / norm : 0;
+            //Half angle of a cone that contains the screen, whether the field of view is vertical or horizontal
+            double aspect = ((double) camera.getScreenWidth()) / camera.getScreenHeight();
+            double ratio = Math.max(aspect, 1 / aspect);
+            double halfAngle = Math.atan(Math.tan(.5 * cam3D.fov) * Math.sqrt(1 + ratio * ratio));
+            sin = Math.sin(halfAngle);
+            cos = Math.cos(halfAngle);
+        } else {
+            perspective = false;
+            //The math view rectangle ignores the rotation and depth of 3D cameras
+            cullable = !(camera instanceof Camera3D);
+            eyeX = eyeY = eyeZ = 0;
+            dirX = dirY = dirZ = 0;
+            sin = cos = 0;
+        }
+    }
+
+    /**
+     * Creates the frustum for the current state of the given camera
+     *
+     * @param camera The camera
+     * @return The frustum
+     */
+    public static ViewFrustum of(Camera camera) {
+        return new ViewFrustum(camera);
+    }
+
+    /**
+     * Returns true if this frustum is a perspective cone. In this case, {@link #intersects(double, double, double,
+     * double, double)} cannot be used to query regions of the xy plane.
+     *
+     * @return True if perspective, false if it is the math view rectangle
+     */
+    public boolean isPerspective() {
+        return perspective;
+    }
+
+    /**
+     * Returns true if this frustum can tell which objects are out of view. If false, all objects are considered in
+     * view, and regions of the xy plane should not be queried either.
+     *
+     * @return True if objects can be culled with this frustum
+     */
+    public boolean isCullable() {
+        return cullable;
+    }
+
+    /**
+     * Returns the width of the math view of the camera
+     *
+     * @return The width
+     */
+    public double getViewWidth() {
+        return xmax - xmin;
+    }
+
+    /**
+     * Returns the distance, in math units, that a stroke with the given style may extend beyond the path. A full
+     * stroke width is used, instead of half of it, to leave room for line joins and caps.
+     *
+     * @param mp Drawing style
+     * @return The margin
+     */
+    public double getStrokeMargin(DrawStyleProperties mp) {
+        Double thickness = mp.getThickness();
+        if (thickness == null) {
+            return 0;
+        }
+        return getStrokeMargin(thickness, Boolean.TRUE.equals(mp.isAbsoluteThickness()));
+    }
+
+    /**
+     * Returns the distance, in math units, that a stroke with the given thickness may extend beyond the path. Renderers
+     * convert thickness to math units in different ways, so the widest stroke of them is used.
+     *
+     * @param thickness         Thickness
+     * @param absoluteThickness True if the thickness is absolute, that is, does not depend on the camera zoom
+     * @return The margin
+     */
+    public double getStrokeMargin(double thickness, boolean absoluteThickness) {
+        double width = thickness / JMathAnimScene.THICKNESS_EQUIVALENT_TO_MATH_UNIT;
+        if (absoluteThickness) {
+            width *= .25 * getViewWidth();
+        }
+        //Skija scales the stroke with the inverse of the width of the view, or of the fixed camera if absolute
+        double skijaWidth = thickness / SKIJA_THICKNESS_EQUIVALENT_TO_MATH_UNIT * 4
+                / (absoluteThickness ? fixedViewWidth : getViewWidth());
+        return Math.max(width, skijaWidth);
+    }
+
+    /**
+     * Returns true if the given box, expanded by the given margin, may be seen
+     *
+     * @param box    Bounding box
+     * @param margin Margin to add in all directions
+     * @return False if the box is empty or is surely out of view, true otherwise
+     */
+    public boolean intersects(Rect box, double margin) {
+        if ((box == null) || (box instanceof EmptyRect)) {
+            return false;
+        }
+        return intersects(box.xmin, box.ymin, box.zmin, box.xmax, box.ymax, box.zmax, margin);
+    }
+
+    /**
+     * Returns true if the given box, expanded by the given margin, may be seen
+     *
+     * @param bxmin  Minimum x
+     * @param bymin  Minimum y
+     * @param bzmin  Minimum z
+     * @param bxmax  Maximum x
+     * @param bymax  Maximum y
+     * @param bzmax  Maximum z
+     * @param margin Margin to add in all directions
+     * @return False if the box is surely out of view, true otherwise
+     */
+    public boolean intersects(double bxmin, double bymin, double bzmin, double bxmax, double bymax, double bzmax, double margin) {
+        if (!cullable) {
+            return true;
+        }
+        if (!perspective) {
+            return intersects(bxmin, bymin, bxmax, bymax, margin);
+        }
+        //Test the bounding sphere of the box against the cone
+        double cx = .5 * (bxmin + bxmax) - eyeX;
+        double cy = .5 * (bymin + bymax) - eyeY;
+        double cz = .5 * (bzmin + bzmax) - eyeZ;
+        double dx = bxmax - bxmin, dy = bymax - bymin, dz = bzmax - bzmin;
+        double radius = .5 * Math.sqrt(dx * dx + dy * dy + dz * dz) + margin;
+        double depth = cx * dirX + cy * dirY + cz * dirZ;
+        double distanceToAxis = Math.sqrt(Math.max(0, cx * cx + cy * cy + cz * cz - depth * depth));
+        return distanceToAxis * cos - depth * sin <= radius;
+    }
+
+    /**
+     * Returns true if the given rectangle of the xy plane, expanded by the given margin, intersects the math view.
+     * Should only be used if this frustum is not perspective.
+     *
+     * @param bxmin  Minimum x
+     * @param bymin  Minimum y
+     * @param bxmax  Maximum x
+     * @param bymax  Maximum y
+     * @param margin Margin to add in all directions
+     * @return False if the rectangle is out of view, true otherwise
+     */
+    public boolean intersects(double bxmin, double bymin, double bxmax, double bymax, double margin) {
+        if (!cullable) {
+            return true;
+        }
+        return (bxmax + margin >= xmin) && (bxmin - margin <= xmax)
+                && (bymax + margin >= ymin) && (bymin - margin <= ymax);
+    }
+
+    /**
+     * Returns the minimum x of the math view
+     *
+     * @return The minimum x
+     */
+    public double getXmin() {
+        return xmin;
+    }
+
+    /**
+     * Returns the minimum y of the math view
+     *
+     * @return The minimum y
+     */
+    public double getYmin() {
+        return ymin;
+    }
+
+    /**
+     * Returns the maximum x of the math view
+     *
+     * @return The maximum x
+     */
+    public double getXmax() {
+        return xmax;
+    }
+
+    /**
+     * Returns the maximum y of the math view
+     *
+     * @return The maximum y
+     */
+    public double getYmax() {
+        return ymax;
+    }
+}
@@ -7,6 +7,7 @@ import com.jmathanim.Styling.DrawStylePropertiesObjectsArray;
 import com.jmathanim.Styling.PaintStyle;
 import com.jmathanim.Utils.*;
 import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.VersionCounter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -129,7 +130,9 @@ public abstract class AbstractMultiShapeObject<
     @Override
     public void draw(JMathAnimScene scene, Renderer r, Camera cam) {
         if (isVisible()) {
-            for (T jmp : shapes) {
+            //Shapes out of view are skipped
+            List<T> shapesToDraw = scene.getViewCuller().getShapesInView(this, shapes, cam);
+            for (T jmp : shapesToDraw) {
                 //Store camera and temporary use MultiShapeObject camera
                 if ((jmp.isVisible()) && (!scene.isAlreadydrawn(jmp))) {
                     if (absoluteSize) {
@@ -288,8 +291,10 @@ public abstract class AbstractMultiShapeObject<
     @SuppressWarnings("unchecked")
     @Override
     public S applyAffineTransform(AffineJTransform affineJTransform) {
+        //All shapes share the same new version, obtained once
+        final long newVersion = VersionCounter.next();
         for (T sh : shapes) {
-            sh.getPath().applyAffineTransform(affineJTransform);
+            sh.getPath().applyAffineTransform(affineJTransform, newVersion);
         }
         affineJTransform.applyTransformsToDrawingProperties(this);
         return (S) this;
@@ -12,8 +12,6 @@ import com.jmathanim.Utils.Rect;
 import com.jmathanim.Utils.Vec;
 import com.jmathanim.jmathanim.JMathAnimConfig;
 import com.jmathanim.jmathanim.JMathAnimScene;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
 
 public abstract class AbstractPoint<T extends AbstractPoint<T>> extends MathObject<T> implements
         Coordinates<T>, AffineTransformable<T>, Interpolable<T> {
@@ -54,12 +52,7 @@ public abstract class AbstractPoint<T extends AbstractPoint<T>> extends MathObje
 
     @Override
     public T applyAffineTransform(AffineJTransform affineJTransform) {
-        RealMatrix pRow = new Array2DRowRealMatrix(new double[][]{{1d, v.x, v.y, v.z}});
-        RealMatrix pNew = pRow.multiply(affineJTransform.getMatrix());
-
-        v.x = pNew.getEntry(0, 1);
-        v.y = pNew.getEntry(0, 2);
-        v.z = pNew.getEntry(0, 3);
+        affineJTransform.transform(v);
 //        affineJTransform.applyTransformsToDrawingProperties(this);
         return (T) this;
     }
@@ -2,15 +2,34 @@ package com.jmathanim.MathObjects;
 
 import com.jmathanim.Utils.DependableUtils;
 import com.jmathanim.jmathanim.Dependable;
-import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.DependencyGraph;
+import com.jmathanim.jmathanim.VersionCounter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public abstract class AbstractVersioned implements Dependable, Updatable {
 
+    /**
+     * For each class, true if it uses the change detection of this class, that only checks the dirty flag and the
+     * versions of the dependencies
+     */
+    private static final ClassValue<Boolean> DEFAULT_CHANGE_DETECTION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return (type.getMethod("needsUpdate").getDeclaringClass() == AbstractVersioned.class)
+                        && (type.getMethod("update").getDeclaringClass() == AbstractVersioned.class)
+                        && (type.getMethod("getVersion").getDeclaringClass() == AbstractVersioned.class);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     public ArrayList<Dependable> dependencies = new ArrayList<>();
     protected long version = 0;
+    private int graphCount;
 
     public boolean isDirty() {
         return dirty;
@@ -24,10 +43,32 @@ public abstract class AbstractVersioned implements Dependable, Updatable {
     @Override
     public void addDependency(Dependable dep) {
         dependencies.add(dep);
+        DependencyGraph.notifyStructureChanged(this);
     }
 
     public void removeDependency(Dependable dep) {
         dependencies.remove(dep);
+        DependencyGraph.notifyStructureChanged(this);
+    }
+
+    /**
+     * Objects that override the change detection methods, or that have updaters, may change without a notification,
+     * so they are polled by the dependency graph.
+     *
+     * @return true if the object must be polled
+     */
+    @Override
+    public boolean requiresPolling() {
+        return hasUpdaters() || !DEFAULT_CHANGE_DETECTION.get(getClass());
+    }
+
+    /**
+     * Returns true if this object has updaters that should be applied every frame
+     *
+     * @return true if there are updaters
+     */
+    protected boolean hasUpdaters() {
+        return false;
     }
 
 
@@ -67,17 +108,33 @@ public abstract class AbstractVersioned implements Dependable, Updatable {
     }
     public void markDirty() {
         dirty=true;
+        notifyChanged();
     }
 
 
     @Override
     public void changeVersionAndMarkDirty() {
-        version = ++JMathAnimScene.globalVersion;
+        version = VersionCounter.next();
         markDirty();
     }
 
     public void changeVersion() {
-        version = ++JMathAnimScene.globalVersion;
+        version = VersionCounter.next();
+        notifyChanged();
+    }
+
+    /**
+     * Notifies the dependency graph that this object changed, if it belongs to any
+     */
+    protected final void notifyChanged() {
+        if (graphCount > 0) {
+            DependencyGraph.notifyChanged(this);
+        }
+    }
+
+    @Override
+    public void changeGraphCount(int delta) {
+        graphCount += delta;
     }
 
     @Override
@@ -64,6 +64,10 @@ public class Arrow extends Constructible<Arrow> {
     private final Vec Acopy, Bcopy;
     private final Shape shapeToDraw;
     private final JMPath head1, head2;
+    /**
+     * Copies of the heads, reused every time the shape is rebuilt
+     */
+    private final JMPath headBuffer1, headBuffer2;
     private final Coordinates<?> A, B;
     private double amplitudeScale;
     private double angle;
@@ -91,6 +95,8 @@ public class Arrow extends Constructible<Arrow> {
         this.labelTip = null;
         head1 = new JMPath();
         head2 = new JMPath();
+        headBuffer1 = new JMPath();
+        headBuffer2 = new JMPath();
         arrowThickness = 20;//TODO: Default value. This should be in config file
         setAmplitudeScale(1d);
         headStartMultiplier = 1d;
@@ -153,7 +159,19 @@ public class Arrow extends Constructible<Arrow> {
         return resul;
     }
 
+    /**
+     * Returns the model of the arrow head of the given type. Models are loaded once and cached, and a new copy is
+     * returned every time.
+     *
+     * @param type Arrow type, a value of enum ArrowType
+     * @return A new path with the arrow head model
+     * @throws Exception If the model could not be loaded
+     */
     public static JMPath loadArrowHeadPath(ArrowType type) throws Exception {
+        return DelimiterModelCache.getArrowHead(type, () -> readArrowHeadPath(type));
+    }
+
+    private static JMPath readArrowHeadPath(ArrowType type) throws Exception {
         ResourceLoader rl = new ResourceLoader();
         URL arrowUrl;
         JMPath resul;
@@ -240,7 +258,7 @@ public class Arrow extends Constructible<Arrow> {
                     + LogUtils.YELLOW + arrowSVGName + LogUtils.RESET +
                     ". Switching to NONE_BUTT");
             try {
-                return loadArrowHeadPath(ArrowType.NONE_BUTT);
+                return readArrowHeadPath(ArrowType.NONE_BUTT);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -249,7 +267,7 @@ public class Arrow extends Constructible<Arrow> {
                     + LogUtils.YELLOW + arrowSVGName + LogUtils.RESET +
                     ". Switching to NONE_BUTT");
             try {
-                return loadArrowHeadPath(ArrowType.NONE_BUTT);
+                return readArrowHeadPath(ArrowType.NONE_BUTT);
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
             }
@@ -323,8 +341,11 @@ public class Arrow extends Constructible<Arrow> {
 
         Acopy.copyCoordinatesFrom(A);
         Bcopy.copyCoordinatesFrom(A.getVec().interpolate(B, getAmplitudeScale()));
-        JMPath h1A = head1.copy();
-        JMPath h1B = head2.copy();
+        //copyStateFrom copies point by point if sizes match, so buffers are only reallocated when head types change
+        JMPath h1A = headBuffer1;
+        JMPath h1B = headBuffer2;
+        h1A.copyStateFrom(head1);
+        h1B.copyStateFrom(head2);
         double dist = Acopy.to(Bcopy).norm();
 
 
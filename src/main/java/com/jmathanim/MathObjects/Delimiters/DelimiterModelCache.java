@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.MathObjects.Delimiters;
+
+import com.jmathanim.Enum.ArrowType;
+import com.jmathanim.Enum.DelimiterType;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.Styling.MODrawProperties;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Process-wide cache of the models of arrow heads and delimiters, so that their resources are loaded and parsed only
+ * once for each type. Models are kept as template paths, with the styles of delimiter shapes, that are never modified
+ * nor handed out: every request returns new copies.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+final class DelimiterModelCache {
+
+    private static final String GAP_PROPERTY = "gap";
+    private static final EnumMap<ArrowType, JMPath> arrowHeads = new EnumMap<>(ArrowType.class);
+    private static final EnumMap<DelimiterType, BodyModel> delimiterBodies = new EnumMap<>(DelimiterType.class);
+
+    private DelimiterModelCache() {
+    }
+
+    /**
+     * Returns a copy of the arrow head model of the given type, loading it the first time
+     *
+     * @param type   Arrow type
+     * @param loader Loads the model if it is not cached
+     * @return A new path with the model, including its gap property
+     * @throws Exception If the model could not be loaded
+     */
+    static synchronized JMPath getArrowHead(ArrowType type, Callable<JMPath> loader) throws Exception {
+        JMPath template = arrowHeads.get(type);
+        if (template == null) {
+            template = loader.call();
+            arrowHeads.put(type, template);
+        }
+        return copyOf(template);
+    }
+
+    /**
+     * Returns copies of the shapes of the delimiter model of the given type, loading them the first time
+     *
+     * @param type   Delimiter type
+     * @param loader Loads the shapes of the model if they are not cached
+     * @return A new list of new shapes, with the paths and styles of the model
+     * @throws Exception If the model could not be loaded
+     */
+    static synchronized List<Shape> getDelimiterBody(DelimiterType type, Callable<List<Shape>> loader) throws Exception {
+        BodyModel model = delimiterBodies.get(type);
+        if (model == null) {
+            List<Shape> shapes = loader.call();
+            model = new BodyModel(shapes.size());
+            for (int i = 0; i < shapes.size(); i++) {
+                model.paths[i] = shapes.get(i).getPath().copy();
+                model.styles[i] = shapes.get(i).getMp().copy();
+            }
+            delimiterBodies.put(type, model);
+        }
+        ArrayList<Shape> resul = new ArrayList<>(model.paths.length);
+        for (int i = 0; i < model.paths.length; i++) {
+            Shape sh = new Shape(copyOf(model.paths[i]));
+            sh.getMp().copyFrom(model.styles[i]);
+            resul.add(sh);
+        }
+        return resul;
+    }
+
+    private static JMPath copyOf(JMPath template) {
+        JMPath copy = template.copy();
+        Object gap = template.getProperty(GAP_PROPERTY);
+        if (gap != null) {
+            copy.setProperty(GAP_PROPERTY, gap);
+        }
+        return copy;
+    }
+
+    private static final class BodyModel {
+
+        final JMPath[] paths;
+        final MODrawProperties[] styles;
+
+        BodyModel(int size) {
+            paths = new JMPath[size];
+            styles = new MODrawProperties[size];
+        }
+    }
+}
@@ -4,10 +4,15 @@ import com.jmathanim.Constructible.NullMathObject;
 import com.jmathanim.Enum.AnchorType;
 import com.jmathanim.Enum.DelimiterType;
 import com.jmathanim.MathObjects.Coordinates;
+import com.jmathanim.MathObjects.Shape;
 import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
 import com.jmathanim.Utils.*;
+import com.jmathanim.jmathanim.JMathAnimConfig;
 import com.jmathanim.jmathanim.JMathAnimScene;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.jmathanim.jmathanim.JMathAnimScene.PI;
 
 public class ShapeDelimiter extends Delimiter {
@@ -22,26 +27,8 @@ public class ShapeDelimiter extends Delimiter {
 
     protected static ShapeDelimiter makeShapeDelimiter(Coordinates<?> A, Coordinates<?>  B, DelimiterType type, double gap) {
         ShapeDelimiter resul = new ShapeDelimiter(A, B, type, gap);
-        ResourceLoader rl = new ResourceLoader();
-        String name;
-        switch (resul.type) {
-            case PARENTHESIS:
-                name = "#parenthesis.svg";
-                break;
-            case BRACKET:
-                name = "#bracket.svg";
-                break;
-            case INVISIBLE:
-                name = "#braces.svg";//Use this, makeLengthMeasure it invisible
-            default:
-                name = "#braces.svg";
-                break;
-        }
         try {
-        if (name != null) {
-            SVGImport svgImport = new SVGImport(resul.scene);
-            resul.body = svgImport.importSVG(rl.getResource(name, "shapeResources/delimiters"));
-        } else resul.body = null;
+            resul.body = loadBody(type);
         } catch (Exception ex) {
             JMathAnimScene.logger.error("An exception occurred creating shape delimiter. A null delimiter will be created");
             JMathAnimScene.logger.error(ex.getMessage());
@@ -53,6 +40,45 @@ public class ShapeDelimiter extends Delimiter {
     }
 
 
+    /**
+     * Returns a new body for the given delimiter type. The SVG model of each type is loaded and parsed once, and
+     * copied for every new delimiter.
+     *
+     * @param type Delimiter type
+     * @return A MultiShapeObject with the shapes of the model, including their styles
+     * @throws Exception If the model could not be loaded
+     */
+    private static MultiShapeObject loadBody(DelimiterType type) throws Exception {
+        List<Shape> shapes = DelimiterModelCache.getDelimiterBody(type, () -> {
+            String name;
+            switch (type) {
+                case PARENTHESIS:
+                    name = "#parenthesis.svg";
+                    break;
+                case BRACKET:
+                    name = "#bracket.svg";
+                    break;
+                case INVISIBLE:
+                    name = "#braces.svg";//Use this, makeLengthMeasure it invisible
+                default:
+                    name = "#braces.svg";
+                    break;
+            }
+            ResourceLoader rl = new ResourceLoader();
+            SVGImport svgImport = new SVGImport(JMathAnimConfig.getConfig().getScene());
+            List<Shape> resul = new ArrayList<>();
+            for (Shape sh : svgImport.importSVG(rl.getResource(name, "shapeResources/delimiters"))) {
+                resul.add(sh);
+            }
+            return resul;
+        });
+        MultiShapeObject body = MultiShapeObject.make();
+        for (Shape sh : shapes) {
+            body.add(sh);
+        }
+        return body;
+    }
+
     @Override
     protected void buildDelimiterShape() {
 
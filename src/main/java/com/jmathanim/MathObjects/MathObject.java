@@ -26,6 +26,7 @@ import com.jmathanim.Styling.PaintStyle;
 import com.jmathanim.Styling.RendererEffects;
 import com.jmathanim.Styling.Stylable;
 import com.jmathanim.Utils.*;
+import com.jmathanim.jmathanim.DependencyGraph;
 import com.jmathanim.jmathanim.JMathAnimConfig;
 import com.jmathanim.jmathanim.JMathAnimScene;
 
@@ -61,6 +62,7 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
     private String debugText = "";
     private AnchorType absoluteAnchorAnchorType = AnchorType.CENTER;
     private double leftGap, upperGap, rightGap, lowerGap;
+    private long drawnStamp;
 
     public MathObject() {
         this.updateLevel = 0;
@@ -180,6 +182,7 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
         }
         this.modelMatrix.copyFrom(mathObject.modelMatrix);
         changeVersionAndMarkDirty();
+        updateLayerInScene();
     }
 
 
@@ -223,6 +226,7 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
     public T setMp(MODrawProperties newMp) {
         this.getMp().copyFrom(newMp);
         changeVersionAndMarkDirty();
+        updateLayerInScene();
         return (T) this;
     }
 
@@ -293,9 +297,19 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
     public T layer(int layer) {
         this.getMp().setLayer(layer);
         changeVersionAndMarkDirty();
+        updateLayerInScene();
         return (T) this;
     }
 
+    /**
+     * Tells the scene that the layer of this object may have changed, so that it is drawn in the right order
+     */
+    protected void updateLayerInScene() {
+        if (scene != null) {
+            scene.updateLayer(this);
+        }
+    }
+
     /**
      * Returns the layer where this object belongs to
      *
@@ -305,6 +319,25 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
         return getMp().getLayer();
     }
 
+    /**
+     * Returns the stamp of the last frame where this object was drawn. The scene uses it to avoid drawing an object
+     * twice in the same frame.
+     *
+     * @return The stamp
+     */
+    public long getDrawnStamp() {
+        return drawnStamp;
+    }
+
+    /**
+     * Sets the stamp of the last frame where this object was drawn
+     *
+     * @param drawnStamp The stamp
+     */
+    public void setDrawnStamp(long drawnStamp) {
+        this.drawnStamp = drawnStamp;
+    }
+
     /**
      * Sets the given style, as defined in config files. If no such style exists, there is no effect, apart from a
      * warning message
@@ -315,6 +348,7 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
     public T style(String name) {
         getMp().loadFromStyle(name);
         changeVersionAndMarkDirty();
+        updateLayerInScene();
         return (T) this;
     }
 
@@ -342,14 +376,21 @@ public abstract class MathObject<T extends MathObject<T>> extends AbstractVersio
     public T registerUpdater(Updater updater) {
         updater.setMathObject(this);
         updaters.add(updater);
+        DependencyGraph.notifyStructureChanged(this);
         return (T) this;
     }
 
     public T unregisterUpdater(Updater updater) {
         updaters.remove(updater);
+        DependencyGraph.notifyStructureChanged(this);
         return (T) this;
     }
 
+    @Override
+    protected boolean hasUpdaters() {
+        return !updaters.isEmpty();
+    }
+
 
     @Override
     protected boolean applyUpdaters(boolean previousToObjectUpdate) {
@@ -24,7 +24,7 @@ import com.jmathanim.MathObjects.*;
 import com.jmathanim.Utils.*;
 import com.jmathanim.jmathanim.Dependable;
 import com.jmathanim.jmathanim.JMathAnimConfig;
-import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.VersionCounter;
 import com.jmathanim.jmathanim.LogUtils;
 
 import java.io.Serializable;
@@ -1258,9 +1258,24 @@ public class JMPath extends AbstractVersioned implements Dependable, Updatable,
     }
 
     public JMPath applyAffineTransform(AffineJTransform affineJTransform) {
-        int size = size();
+        return applyAffineTransform(affineJTransform, VersionCounter.next());
+    }
+
+    /**
+     * Applies an affine transform to all points and control points of this path in a single pass. All modified points
+     * are marked with the given version, obtained from {@link VersionCounter#next()}, instead of incrementing the
+     * counter once per vector. The bounding box is recomputed once, the next time this path is updated.
+     *
+     * @param affineJTransform Transform to apply
+     * @param newVersion       Version number for the modified points
+     * @return This object
+     */
+    public JMPath applyAffineTransform(AffineJTransform affineJTransform, long newVersion) {
+        final int size = jmPathPoints.size();
         for (int n = 0; n < size; n++) {
-            get(n).applyAffineTransform(affineJTransform);
+            JMPathPoint jmp = jmPathPoints.get(n);
+            affineJTransform.transform(jmp);
+            jmp.changeVersionAndMarkDirty(newVersion);
         }
         return this;
 
@@ -1393,6 +1408,20 @@ public class JMPath extends AbstractVersioned implements Dependable, Updatable,
         return version;
     }
 
+    /**
+     * Returns the highest version of this path and its points. Unlike {@link #update()}, this method does not modify
+     * the path, so renderers can use it to detect changes made to the points after the path was last updated.
+     *
+     * @return The version
+     */
+    public long getMaxVersion() {
+        long max = version;
+        for (int i = 0, n = jmPathPoints.size(); i < n; i++) {
+            max = Math.max(max, jmPathPoints.get(i).getMaxVersion());
+        }
+        return max;
+    }
+
 
     @Override
     public boolean update() {
@@ -1407,9 +1436,11 @@ public class JMPath extends AbstractVersioned implements Dependable, Updatable,
     @Override
     public boolean needsUpdate() {
         // Calcula max de versiones de puntos
-        newLastMaxDependencyVersion = jmPathPoints.stream()
-                .mapToLong(JMPathPoint::getVersion)
-                .max().orElse(-1);
+        long max = -1;
+        for (int i = 0, n = jmPathPoints.size(); i < n; i++) {
+            max = Math.max(max, jmPathPoints.get(i).getVersion());
+        }
+        newLastMaxDependencyVersion = max;
 
         if (jmPathPoints.size() != lastPointCount) {
             return true;
@@ -1425,7 +1456,8 @@ public class JMPath extends AbstractVersioned implements Dependable, Updatable,
 
     @Override
     public void changeVersionAndMarkDirty() {
-        version = ++JMathAnimScene.globalVersion;
+        version = VersionCounter.next();
+        notifyChanged();
     }
 
     @Override
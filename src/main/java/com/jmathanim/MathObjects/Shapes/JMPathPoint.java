@@ -20,7 +20,8 @@ package com.jmathanim.MathObjects.Shapes;
 import com.jmathanim.MathObjects.*;
 import com.jmathanim.Utils.*;
 import com.jmathanim.jmathanim.Dependable;
-import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.DependencyGraph;
+import com.jmathanim.jmathanim.VersionCounter;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
@@ -48,6 +49,7 @@ public class JMPathPoint  implements
     // subdiving a path
     private JMPathPoint pState;
     private long version=0;
+    private transient int graphCount;
     protected long lastCleanedDepsVersionSum = -1;
     private long newLastMaxDependencyVersion=-2;
     public ArrayList<Dependable> dependencies = new ArrayList<>();
@@ -185,7 +187,10 @@ public class JMPathPoint  implements
     }
 
     public void setSegmentToThisPointVisible(boolean thisSegmentVisible) {
-        isSegmentToThisPointVisible = thisSegmentVisible;
+        if (isSegmentToThisPointVisible != thisSegmentVisible) {
+            isSegmentToThisPointVisible = thisSegmentVisible;
+            changeVersionAndMarkDirty();
+        }
     }
 
     public void copyControlPointsFrom(JMPathPoint jmPoint) {
@@ -213,10 +218,8 @@ public class JMPathPoint  implements
     public JMPathPoint applyAffineTransform(AffineJTransform affineJTransform) {
 //        JMPathPoint pSrc = this.copy();
 
-        this.getV().applyAffineTransform(affineJTransform);
-        this.getVExit().applyAffineTransform(affineJTransform);
-        this.getVEnter().applyAffineTransform(affineJTransform);
-        changeVersionAndMarkDirty();
+        affineJTransform.transform(this);
+        changeVersionAndMarkDirty(VersionCounter.next());
         return this;
     }
 
@@ -367,6 +370,15 @@ public class JMPathPoint  implements
         return false;
     }
 
+    /**
+     * Returns the highest version of this point and its vertex and control points, without storing it
+     *
+     * @return The version
+     */
+    long getMaxVersion() {
+        return Math.max(version, Math.max(v.getVersion(), Math.max(vEnter.getVersion(), vExit.getVersion())));
+    }
+
     @Override
     public long getVersion() {
         long verPoints=Math.max(v.getVersion(), Math.max(vEnter.getVersion(), vExit.getVersion()));
@@ -376,7 +388,35 @@ public class JMPathPoint  implements
 
     @Override
     public void changeVersionAndMarkDirty() {
-        version=++JMathAnimScene.globalVersion;
+        version=VersionCounter.next();
+        if (graphCount > 0) {
+            DependencyGraph.notifyChanged(this);
+        }
+    }
+
+    /**
+     * Marks this point and its vertex and control points as changed, using a version number previously obtained from
+     * {@link VersionCounter#next()}.
+     *
+     * @param newVersion New version number
+     */
+    public void changeVersionAndMarkDirty(long newVersion) {
+        v.setVersion(newVersion);
+        vEnter.setVersion(newVersion);
+        vExit.setVersion(newVersion);
+        version = newVersion;
+        //The vertex may be shared with a Point in the graph, so it must notify the change too
+        if (v.isInDependencyGraph()) {
+            DependencyGraph.notifyChanged(v);
+        }
+        if (graphCount > 0) {
+            DependencyGraph.notifyChanged(this);
+        }
+    }
+
+    @Override
+    public void changeGraphCount(int delta) {
+        graphCount += delta;
     }
 
     @Override
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.MathObjects.Shapes;
+
+import com.jmathanim.Utils.AffineJTransform;
+import com.jmathanim.Utils.Vec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Packed representation of the points of a {@link JMPath}. Coordinates of vertices, enter control points and exit
+ * control points are stored in three contiguous arrays (x, y, z for each point), and the visible and curved flags in
+ * bitsets. Transforms and interpolations over packed paths iterate flat arrays instead of thousands of
+ * {@link JMPathPoint} and {@link Vec} objects.
+ * <p>
+ * A packed path is a working copy. It is filled from a JMPath with {@link #load(JMPath)} and its content is written back
+ * with {@link #storeTo(JMPath)}, which reuses the existing points. Arrays are reused between loads, so the same packed
+ * path can be used every frame without allocations.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class PackedPath {
+
+    private int size;
+    private double[] points;
+    private double[] enterControls;
+    private double[] exitControls;
+    private final BitSet visible;
+    private final BitSet curved;
+
+    /**
+     * Creates a new empty packed path
+     */
+    public PackedPath() {
+        size = 0;
+        points = new double[0];
+        enterControls = new double[0];
+        exitControls = new double[0];
+        visible = new BitSet();
+        curved = new BitSet();
+    }
+
+    /**
+     * Creates a new packed path with the points of the given path
+     *
+     * @param path Path to pack
+     * @return The packed path
+     */
+    public static PackedPath of(JMPath path) {
+        return new PackedPath().load(path);
+    }
+
+    /**
+     * Copies the points of the given path into this packed path, replacing its content
+     *
+     * @param path Path to pack
+     * @return This object
+     */
+    public PackedPath load(JMPath path) {
+        resize(path.size());
+        for (int i = 0; i < size; i++) {
+            JMPathPoint jmp = path.getJmPathPoints().get(i);
+            put(points, i, jmp.getV());
+            put(enterControls, i, jmp.getVEnter());
+            put(exitControls, i, jmp.getVExit());
+            visible.set(i, jmp.isSegmentToThisPointVisible());
+            curved.set(i, jmp.isSegmentToThisPointCurved());
+        }
+        return this;
+    }
+
+    /**
+     * Copies the content of this packed path into the given path. If both have the same number of points, the existing
+     * points are modified. Otherwise, the points of the path are replaced by new ones.
+     *
+     * @param path Path to store the points
+     */
+    public void storeTo(JMPath path) {
+        if (path.size() != size) {
+            path.clear();
+            for (int i = 0; i < size; i++) {
+                path.getJmPathPoints().add(new JMPathPoint(Vec.to(points[3 * i], points[3 * i + 1], points[3 * i + 2]), true));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            JMPathPoint jmp = path.getJmPathPoints().get(i);
+            Vec v = jmp.getV();
+            get(points, i, v);
+            get(enterControls, i, jmp.getVEnter());
+            get(exitControls, i, jmp.getVExit());
+            if (jmp.isSegmentToThisPointVisible() != visible.get(i)) {
+                jmp.setSegmentToThisPointVisible(visible.get(i));
+            }
+            if (jmp.isSegmentToThisPointCurved() != curved.get(i)) {
+                jmp.setSegmentToThisPointCurved(curved.get(i));
+            }
+            //The vertex may be shared with a Point, so it must notify the change too
+            v.changeVersionAndMarkDirty();
+            jmp.changeVersionAndMarkDirty();
+        }
+    }
+
+    /**
+     * Applies an affine transform to all points and control points
+     *
+     * @param affineJTransform Transform to apply
+     * @return This object
+     */
+    public PackedPath applyAffineTransform(AffineJTransform affineJTransform) {
+        affineJTransform.transformCoordinates(points, 0, size);
+        affineJTransform.transformCoordinates(enterControls, 0, size);
+        affineJTransform.transformCoordinates(exitControls, 0, size);
+        return this;
+    }
+
+    /**
+     * Stores in this packed path the linear interpolation of all points and control points of two packed paths with
+     * the same number of points. Visible and curved flags of this path are not modified, so they should be loaded
+     * before, for example from the path that will store the result.
+     *
+     * @param from  Packed path for alpha=0
+     * @param to    Packed path for alpha=1
+     * @param alpha Interpolation parameter
+     * @return This object
+     */
+    public PackedPath interpolate(PackedPath from, PackedPath to, double alpha) {
+        if (from.size != to.size) {
+            throw new IllegalArgumentException("Cannot interpolate packed paths with different sizes: " + from.size + ", " + to.size);
+        }
+        resize(from.size);
+        final int n = 3 * size;
+        final double beta = 1 - alpha;
+        for (int i = 0; i < n; i++) {
+            points[i] = beta * from.points[i] + alpha * to.points[i];
+            enterControls[i] = beta * from.enterControls[i] + alpha * to.enterControls[i];
+            exitControls[i] = beta * from.exitControls[i] + alpha * to.exitControls[i];
+        }
+        return this;
+    }
+
+    /**
+     * Writes the content of this packed path in binary form
+     *
+     * @param out Output to write to
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < 3 * size; i++) {
+            out.writeDouble(points[i]);
+            out.writeDouble(enterControls[i]);
+            out.writeDouble(exitControls[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeByte((visible.get(i) ? 1 : 0) | (curved.get(i) ? 2 : 0));
+        }
+    }
+
+    /**
+     * Reads the content written by {@link #writeTo(DataOutput)}, replacing the content of this packed path
+     *
+     * @param in Input to read from
+     * @return This object
+     * @throws IOException If an I/O error occurs
+     */
+    public PackedPath readFrom(DataInput in) throws IOException {
+        resize(in.readInt());
+        for (int i = 0; i < 3 * size; i++) {
+            points[i] = in.readDouble();
+            enterControls[i] = in.readDouble();
+            exitControls[i] = in.readDouble();
+        }
+        for (int i = 0; i < size; i++) {
+            int flags = in.readByte();
+            visible.set(i, (flags & 1) != 0);
+            curved.set(i, (flags & 2) != 0);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of points
+     *
+     * @return Number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the array of vertex coordinates. Coordinates x, y, z of point i are stored at positions 3i, 3i+1, 3i+2.
+     * Only the first 3*size() elements are meaningful.
+     *
+     * @return The array of coordinates. Modifications are reflected in this packed path.
+     */
+    public double[] getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the array of enter control point coordinates, with the same layout as {@link #getPoints()}
+     *
+     * @return The array of coordinates
+     */
+    public double[] getEnterControls() {
+        return enterControls;
+    }
+
+    /**
+     * Returns the array of exit control point coordinates, with the same layout as {@link #getPoints()}
+     *
+     * @return The array of coordinates
+     */
+    public double[] getExitControls() {
+        return exitControls;
+    }
+
+    /**
+     * Returns true if the segment that ends at the given point is visible
+     *
+     * @param index Point index, from 0 to size()-1
+     * @return True if visible
+     */
+    public boolean isSegmentToThisPointVisible(int index) {
+        return visible.get(index);
+    }
+
+    /**
+     * Returns true if the segment that ends at the given point is curved
+     *
+     * @param index Point index, from 0 to size()-1
+     * @return True if curved
+     */
+    public boolean isSegmentToThisPointCurved(int index) {
+        return curved.get(index);
+    }
+
+    private void resize(int newSize) {
+        if (points.length < 3 * newSize) {
+            points = new double[3 * newSize];
+            enterControls = new double[3 * newSize];
+            exitControls = new double[3 * newSize];
+        }
+        if (newSize < size) {
+            visible.clear(newSize, size);
+            curved.clear(newSize, size);
+        }
+        size = newSize;
+    }
+
+    private static void put(double[] coords, int index, Vec v) {
+        coords[3 * index] = v.x;
+        coords[3 * index + 1] = v.y;
+        coords[3 * index + 2] = v.z;
+    }
+
+    private static void get(double[] coords, int index, Vec v) {
+        v.x = coords[3 * index];
+        v.y = coords[3 * index + 1];
+        v.z = coords[3 * index + 2];
+    }
+}
@@ -132,9 +132,9 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
             scene.remove(sh);
         }
         clearShapes();
-        SVGImport svgImport = new SVGImport(JMathAnimConfig.getConfig().getScene());
         if (mode == CompileMode.CompileFile) {
             try {
+                SVGImport svgImport = new SVGImport(JMathAnimConfig.getConfig().getScene());
                 generateLaTeXDocument();
                 File f = new File(compileLaTeXFile());
                 clearShapes();
@@ -152,11 +152,11 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
                 JMathAnimScene.logger.warn("An empty LaTeXMathObject will be created");
             }
         } else {
-            Element root = null;
             try {
-                root = generateDOMTreeFromLaTeX(this.text);
-                addShapesFrom(svgImport.importSVGFromDOM(root));
-                latexParser.parse();
+                //Numbers are built from the shapes of their characters, without typesetting them again
+                if ((mode != CompileMode.JLaTexMath) || !NumberGlyphAtlas.get(latexParser).compose(this.text, this)) {
+                    generateRawShapes(this.text);
+                }
             } catch (ParseException e) {
                 JMathAnimScene.logger.error("LaTeX compilation error. Perhaps there is an error in the code " +
                         LogUtils.GREEN + this.text + LogUtils.RESET + " ==> " + LogUtils.RED + e.getMessage() + LogUtils.RESET
@@ -210,6 +210,25 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
         lastCleanedDepsVersionSum=DependableUtils.maxVersion(getDependencies());
     }
 
+    /**
+     * Adds the shapes generated by JLaTeXMath from the given text, before scaling and positioning them. Shapes are
+     * restored from the {@link LatexGlyphCache} if the text was already generated.
+     *
+     * @param text LaTeX text
+     * @throws ParseException If the LaTeX code has errors
+     */
+    void generateRawShapes(String text) throws ParseException {
+        LatexGlyphCache glyphCache = LatexGlyphCache.getInstance();
+        String key = LatexGlyphCache.key(text, mode, latexParser);
+        if (!glyphCache.restore(key, this)) {
+            SVGImport svgImport = new SVGImport(JMathAnimConfig.getConfig().getScene());
+            Element root = generateDOMTreeFromLaTeX(text);
+            addShapesFrom(svgImport.importSVGFromDOM(root));
+            latexParser.parse();
+            glyphCache.store(key, this);
+        }
+    }
+
     private void addShapesFrom(MultiShapeObject latexdefault) {
         for (Shape sh : latexdefault) {
             add(shapeToLatexShape(sh));
@@ -277,30 +296,50 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
      * Prepare LaTeX file and compile it
      */
     private void generateLaTeXDocument() throws IOException {
+        outputDir = new File("tex");
+        latexFile = writeLaTeXDocument(outputDir, this.text);
+        String path = latexFile.getCanonicalPath();
+        baseFileName = path.substring(0, path.length() - ".tex".length());
+    }
+
+    /**
+     * Builds the LaTeX document used to compile the given text in the CompileFile mode
+     *
+     * @param text LaTeX text
+     * @return The full document
+     */
+    static String buildLaTeXDocument(String text) {
         // TODO: Add necessary packages here (UTF8?)
         // How to avoid having to write 2 backslashs??
         String beginDocument = "\\documentclass[preview]{standalone}\n" + "\\usepackage{xcolor}\n" + "\\usepackage{amssymb}" + "\\usepackage{amsmath}" + "\\begin{document}\n";
         String endDocument = "\\end{document}";
-        String fullDocument = beginDocument + this.text + "\n" + endDocument;
+        return beginDocument + text + "\n" + endDocument;
+    }
+
+    /**
+     * Writes the LaTeX document of the given text into the given directory, if it does not exist. The file is named
+     * after the hash of the document, so equal texts share the same files.
+     *
+     * @param outputDir Directory of LaTeX files
+     * @param text      LaTeX text
+     * @return The .tex file
+     * @throws IOException If the file cannot be written
+     */
+    static File writeLaTeXDocument(File outputDir, String text) throws IOException {
+        String fullDocument = buildLaTeXDocument(text);
         String hash = getMd5(fullDocument);
         hash = hash.substring(hash.length() - 8);
-        outputDir = new File("tex");
-        baseFileName = outputDir.getCanonicalPath() + File.separator + hash;
-        latexFile = new File(baseFileName + ".tex");
+        File latexFile = new File(outputDir.getCanonicalPath() + File.separator + hash + ".tex");
         outputDir.mkdirs();
-        FileWriter fw;
-        PrintWriter pw;
-        try {
-            fw = new FileWriter(latexFile);
-            pw = new PrintWriter(fw);
-            pw.print(fullDocument);
-            pw.close();
-        } catch (IOException ex) {
-            Logger.getLogger(LatexMathObject.class.getName()).log(Level.SEVERE, null, ex);
+        if (!latexFile.exists()) {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(latexFile))) {
+                pw.print(fullDocument);
+            }
         }
+        return latexFile;
     }
 
-    private String getMd5(String input) {
+    private static String getMd5(String input) {
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
             byte[] messageDigest = md.digest(input.getBytes());
@@ -323,22 +362,37 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
      * @throws InterruptedException
      */
     private String compileLaTeXFile() throws IOException, InterruptedException {
-        String svgFilename = baseFileName + ".svg";
-        File svgFile = new File(svgFilename);
+        return compileLaTeXFile(latexFile).getPath();
+    }
+
+    /**
+     * Compiles the given LaTeX file with latex and converts the result with dvisvgm, unless the svg file already
+     * exists. Files are generated in the directory of the LaTeX file.
+     *
+     * @param latexFile The .tex file
+     * @return The generated svg file
+     * @throws IOException          If a command cannot be run
+     * @throws InterruptedException If interrupted while waiting for a command
+     */
+    static File compileLaTeXFile(File latexFile) throws IOException, InterruptedException {
+        String path = latexFile.getCanonicalPath();
+        String baseFileName = path.substring(0, path.length() - ".tex".length());
+        File outputDir = latexFile.getCanonicalFile().getParentFile();
+        File svgFile = new File(baseFileName + ".svg");
         if (!svgFile.exists()) {
             // If file is already created, don't do it again
-            JMathAnimScene.logger.info("Compiling LaTeX string " + this.text);
+            JMathAnimScene.logger.info("Compiling LaTeX file " + LogUtils.fileName(latexFile.getName()));
+            JMathAnimConfig config = JMathAnimConfig.getConfig();
             File dviFile = new File(baseFileName + ".dvi");
-            String od = outputDir.getCanonicalPath();
-            runExternalCommand("latex -output-directory=" + od + " " + this.latexFile.getCanonicalPath());
-            JMathAnimScene.logger.debug("Done compiling " + LogUtils.fileName(latexFile.getCanonicalPath()));
-            runExternalCommand("dvisvgm -n1 " + dviFile.getCanonicalPath());
+            runExternalCommand(outputDir, config.getLatexCommand(), "-output-directory=" + outputDir.getCanonicalPath(), path);
+            JMathAnimScene.logger.debug("Done compiling " + LogUtils.fileName(path));
+            runExternalCommand(outputDir, config.getDvisvgmCommand(), "-n1", dviFile.getCanonicalPath());
             JMathAnimScene.logger.debug("Done converting " + LogUtils.fileName(dviFile.getCanonicalPath()));
         }
-        return svgFilename;
+        return svgFile;
     }
 
-    private void runExternalCommand(String command) throws IOException, InterruptedException {
+    private static void runExternalCommand(File outputDir, String... command) throws IOException, InterruptedException {
         String line;
         Process p = Runtime.getRuntime().exec(command, null, outputDir);
         BufferedReader bre;
@@ -536,7 +590,7 @@ public abstract class AbstractLatexMathObject<T extends AbstractLatexMathObject<
             newText = newText.replace("{#" + index + "}", df.format(variables.get(index).getValue()));
         }
 
-        if (!newText.equals(origText)) {//No need to update if text has not changed
+        if (!newText.equals(origText) && !newText.equals(text)) {//No need to update if text has not changed
             changeInnerLaTeX(newText);
         }
 //        anchor3DA = getBoundingBox().getLower();
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.Enum.AnchorType;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.LogUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compiles many LaTeX formulas for the CompileFile mode at the same time. Each formula is written to its own file,
+ * named after the hash of its document, and compiled with latex and dvisvgm in a bounded pool of worker threads. The
+ * svg files are left in the tex directory, where {@link LatexMathObject} instances created later in the CompileFile
+ * mode find them without compiling again.
+ * <p>
+ * Calling this in the setupSketch method with all the formulas of a scene replaces hundreds of sequential compilations
+ * with concurrent ones. The number of workers is set with {@link JMathAnimConfig#setLatexCompileThreads(int)}.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public final class LatexBatchCompiler {
+
+    private LatexBatchCompiler() {
+    }
+
+    /**
+     * Compiles the given LaTeX texts in the tex directory. Texts already compiled are skipped.
+     *
+     * @param texts LaTeX texts
+     * @return Number of texts compiled
+     */
+    public static int compile(String... texts) {
+        return compile(Arrays.asList(texts));
+    }
+
+    /**
+     * Compiles the given LaTeX texts in the tex directory. Texts already compiled are skipped.
+     *
+     * @param texts LaTeX texts
+     * @return Number of texts compiled
+     */
+    public static int compile(Collection<String> texts) {
+        return compile(new File("tex"), texts, JMathAnimConfig.getConfig().getLatexCompileThreads());
+    }
+
+    /**
+     * Compiles the given LaTeX texts and creates a LaTeX object for each one, in the CompileFile mode
+     *
+     * @param anchor Anchor of the objects
+     * @param texts  LaTeX texts
+     * @return The LaTeX objects, in the same order as the texts
+     */
+    public static LatexMathObject[] makeAll(AnchorType anchor, String... texts) {
+        compile(texts);
+        LatexMathObject[] resul = new LatexMathObject[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            resul[i] = LatexMathObject.make(texts[i], AbstractLatexMathObject.CompileMode.CompileFile, anchor);
+        }
+        return resul;
+    }
+
+    /**
+     * Compiles the given LaTeX texts in the given directory
+     *
+     * @param outputDir Directory of LaTeX files
+     * @param texts     LaTeX texts
+     * @param threads   Maximum number of files compiled at the same time
+     * @return Number of texts compiled
+     */
+    static int compile(File outputDir, Collection<String> texts, int threads) {
+        //Equal texts share the same files, so they are compiled once
+        ArrayList<File> pending = new ArrayList<>();
+        for (String text : new LinkedHashSet<>(texts)) {
+            try {
+                File latexFile = AbstractLatexMathObject.writeLaTeXDocument(outputDir, text);
+                String path = latexFile.getPath();
+                if (!new File(path.substring(0, path.length() - ".tex".length()) + ".svg").exists()) {
+                    pending.add(latexFile);
+                }
+            } catch (IOException ex) {
+                JMathAnimScene.logger.error("Could not write LaTeX file for " + LogUtils.GREEN + text + LogUtils.RESET + ": " + ex.getMessage());
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long time = System.currentTimeMillis();
+        int numThreads = Math.max(1, Math.min(threads, pending.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread thread = new Thread(r, "LaTeX compiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int compiled = 0;
+        try {
+            ArrayList<Future<File>> futures = new ArrayList<>();
+            for (File latexFile : pending) {
+                futures.add(executor.submit(() -> AbstractLatexMathObject.compileLaTeXFile(latexFile)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    if (futures.get(i).get().exists()) {
+                        compiled++;
+                    } else {
+                        JMathAnimScene.logger.error("LaTeX file " + LogUtils.fileName(pending.get(i).getName()) + " could not be compiled");
+                    }
+                } catch (ExecutionException ex) {
+                    JMathAnimScene.logger.error("Error compiling LaTeX file " + LogUtils.fileName(pending.get(i).getName()) + ": " + ex.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        JMathAnimScene.logger.info("Compiled " + compiled + " LaTeX files in " + (System.currentTimeMillis() - time)
+                + " ms with " + numThreads + " threads");
+        return compiled;
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.Enum.LatexTokenType;
+import com.jmathanim.MathObjects.Shapes.PackedPath;
+import com.jmathanim.Styling.JMColor;
+import com.jmathanim.Styling.MODrawProperties;
+import com.jmathanim.Utils.LatexParser;
+import com.jmathanim.Utils.LatexToken;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.LogUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the shapes generated by JLaTeXMath, so that a LaTeX string is typeset, converted to SVG and imported only
+ * once. Entries are keyed by the LaTeX text, the compile mode and the parser options, and store the shapes, as packed
+ * paths with their imported styles, and the tokens assigned to them. LaTeX objects get new copies of the shapes and
+ * tokens of an entry.
+ * <p>
+ * Latex styles are applied to the shapes after they are generated or restored, so they are not part of the key.
+ * <p>
+ * Entries are kept in memory, up to a maximum number, removing the least recently used ones. If enabled with
+ * {@link JMathAnimConfig#setLatexDiskCache(boolean)}, entries are also saved to the tex/glyphs directory, so they are
+ * reused in later executions.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public final class LatexGlyphCache {
+
+    /**
+     * Default maximum number of entries kept in memory
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    private static final int FORMAT_VERSION = 1;
+    private static final LatexGlyphCache INSTANCE = new LatexGlyphCache(DEFAULT_MAX_ENTRIES,
+            new File("tex" + File.separator + "glyphs"));
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final int maxEntries;
+    private final File cacheDir;
+    private long hits;
+    private long diskHits;
+    private long misses;
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxEntries Maximum number of entries kept in memory
+     * @param cacheDir   Directory where entries are saved, if the disk cache is enabled
+     */
+    LatexGlyphCache(int maxEntries, File cacheDir) {
+        this.maxEntries = maxEntries;
+        this.cacheDir = cacheDir;
+        entries = new LinkedHashMap<>(256, .75f, true);
+    }
+
+    /**
+     * Returns the global cache
+     *
+     * @return The cache
+     */
+    public static LatexGlyphCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds the key of a LaTeX string
+     *
+     * @param text   LaTeX text, after replacing arguments
+     * @param mode   Compile mode
+     * @param parser Parser of the LaTeX object, whose options modify the assigned tokens
+     * @return The key
+     */
+    static String key(String text, AbstractLatexMathObject.CompileMode mode, LatexParser parser) {
+        return mode.name()
+                + (parser.isConfigDistilleMinusSign() ? "|M" : "|m")
+                + (parser.isConfigDistilleDotSign() ? "D|" : "d|")
+                + text;
+    }
+
+    /**
+     * Adds to the given LaTeX object copies of the shapes stored with the given key, and assigns their tokens
+     *
+     * @param key   Key built with {@link #key(String, AbstractLatexMathObject.CompileMode, LatexParser)}
+     * @param latex LaTeX object, with no shapes
+     * @return True if the key was found, false otherwise
+     */
+    boolean restore(String key, AbstractLatexMathObject<?> latex) {
+        Entry entry = lookup(key);
+        if (entry == null) {
+            return false;
+        }
+        ArrayList<LatexToken> tokens = new ArrayList<>(entry.tokens.length);
+        for (int i = 0; i < entry.paths.length; i++) {
+            LatexShape sh = new LatexShape();
+            entry.paths[i].storeTo(sh.getPath());
+            sh.getMp().copyFrom(entry.styles[i]);
+            latex.add(sh);
+        }
+        for (LatexToken token : entry.tokens) {
+            tokens.add(token.copy());
+        }
+        latex.getLatexParser().restoreTokens(tokens);
+        return true;
+    }
+
+    /**
+     * Stores the shapes and tokens of the given LaTeX object, just generated from the LaTeX string
+     *
+     * @param key   Key built with {@link #key(String, AbstractLatexMathObject.CompileMode, LatexParser)}
+     * @param latex LaTeX object
+     */
+    void store(String key, AbstractLatexMathObject<?> latex) {
+        int n = latex.size();
+        PackedPath[] paths = new PackedPath[n];
+        MODrawProperties[] styles = new MODrawProperties[n];
+        for (int i = 0; i < n; i++) {
+            LatexShape sh = latex.get(i);
+            paths[i] = PackedPath.of(sh.getPath());
+            styles[i] = sh.getMp().copy();
+        }
+        ArrayList<LatexToken> parsed = latex.getLatexParser().getTokensList();
+        LatexToken[] tokens = new LatexToken[parsed.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = parsed.get(i).copy();
+        }
+        Entry entry = new Entry(paths, styles, tokens);
+        synchronized (this) {
+            put(key, entry);
+        }
+        if (JMathAnimConfig.getConfig().isLatexDiskCache()) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    /**
+     * Removes all entries from memory. Files saved to disk are not removed.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of LaTeX strings found in memory
+     *
+     * @return Number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of LaTeX strings loaded from disk
+     *
+     * @return Number of disk hits
+     */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * Returns the number of LaTeX strings that had to be generated
+     *
+     * @return Number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries in memory
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry lookup(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+        }
+        Entry entry = JMathAnimConfig.getConfig().isLatexDiskCache() ? readFromDisk(key) : null;
+        synchronized (this) {
+            if (entry == null) {
+                misses++;
+            } else {
+                diskHits++;
+                put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        if (entries.size() > maxEntries) {
+            //Access order: first entry is the least recently used
+            String eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    private File fileFor(String key) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            StringBuilder sb = new StringBuilder();
+            for (byte b : md.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+            return new File(cacheDir, sb + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        for (MODrawProperties style : entry.styles) {
+            //Only plain colors are saved
+            if (!(style.getDrawColor() instanceof JMColor) || !(style.getFillColor() instanceof JMColor)) {
+                return;
+            }
+        }
+        File file = fileFor(key);
+        try {
+            cacheDir.mkdirs();
+            File tmp = File.createTempFile("glyphs", ".tmp", cacheDir);
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, key);
+                out.writeInt(entry.paths.length);
+                for (int i = 0; i < entry.paths.length; i++) {
+                    entry.paths[i].writeTo(out);
+                    writeColor(out, (JMColor) entry.styles[i].getDrawColor());
+                    writeColor(out, (JMColor) entry.styles[i].getFillColor());
+                    Double thickness = entry.styles[i].getThickness();
+                    out.writeBoolean(thickness != null);
+                    out.writeDouble(thickness == null ? 0 : thickness);
+                }
+                out.writeInt(entry.tokens.length);
+                for (LatexToken token : entry.tokens) {
+                    writeString(out, token.getType() == null ? null : token.getType().name());
+                    writeInteger(out, token.getSecondaryFlags());
+                    writeString(out, token.getString());
+                    writeInteger(out, token.getDelimiterDepth());
+                    out.writeBoolean(token.isTakesStyleFromNext());
+                }
+            }
+            //Rename, so that other processes never read a half-written file
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            JMathAnimScene.logger.warn("Could not save LaTeX glyphs to " + LogUtils.fileName(file.getPath()) + ": " + ex.getMessage());
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if ((in.readInt() != FORMAT_VERSION) || !key.equals(readString(in))) {
+                return null;
+            }
+            int n = in.readInt();
+            PackedPath[] paths = new PackedPath[n];
+            MODrawProperties[] styles = new MODrawProperties[n];
+            for (int i = 0; i < n; i++) {
+                paths[i] = new PackedPath().readFrom(in);
+                styles[i] = MODrawProperties.makeNullValues();
+                styles[i].setDrawColor(readColor(in));
+                styles[i].setFillColor(readColor(in));
+                boolean hasThickness = in.readBoolean();
+                double thickness = in.readDouble();
+                if (hasThickness) {
+                    styles[i].setThickness(thickness);
+                }
+            }
+            LatexToken[] tokens = new LatexToken[in.readInt()];
+            for (int i = 0; i < tokens.length; i++) {
+                String type = readString(in);
+                tokens[i] = LatexToken.make(type == null ? null : LatexTokenType.valueOf(type), readInteger(in), readString(in))
+                        .setDelimiterDepth(readInteger(in));
+                tokens[i].setTakesStyleFromNext(in.readBoolean());
+            }
+            return new Entry(paths, styles, tokens);
+        } catch (Exception ex) {
+            JMathAnimScene.logger.warn("Could not read LaTeX glyphs from " + LogUtils.fileName(file.getPath()) + ", generating them again");
+            return null;
+        }
+    }
+
+    private static void writeColor(DataOutput out, JMColor color) throws IOException {
+        out.writeDouble(color.getRed());
+        out.writeDouble(color.getGreen());
+        out.writeDouble(color.getBlue());
+        out.writeDouble(color.getAlpha());
+    }
+
+    private static JMColor readColor(DataInput in) throws IOException {
+        return JMColor.rgba(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+    }
+
+    private static void writeString(DataOutput out, String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeInt(value == null ? 0 : value);
+    }
+
+    private static Integer readInteger(DataInput in) throws IOException {
+        boolean present = in.readBoolean();
+        int value = in.readInt();
+        return present ? value : null;
+    }
+
+    /**
+     * Immutable content of a cached LaTeX string. Arrays and their elements are never modified nor handed out.
+     */
+    private static final class Entry {
+
+        final PackedPath[] paths;
+        final MODrawProperties[] styles;
+        final LatexToken[] tokens;
+
+        Entry(PackedPath[] paths, MODrawProperties[] styles, LatexToken[] tokens) {
+            this.paths = paths;
+            this.styles = styles;
+            this.tokens = tokens;
+        }
+    }
+}
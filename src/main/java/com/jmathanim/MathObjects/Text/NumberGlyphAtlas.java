@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.Enum.AnchorType;
+import com.jmathanim.MathObjects.Shapes.PackedPath;
+import com.jmathanim.Styling.MODrawProperties;
+import com.jmathanim.Utils.AffineJTransform;
+import com.jmathanim.Utils.LatexParser;
+import com.jmathanim.Utils.LatexToken;
+import com.jmathanim.Utils.Rect;
+import com.jmathanim.Utils.Vec;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import org.scilab.forge.jlatexmath.ParseException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Shapes of the characters used to write numbers, typeset once with JLaTeXMath, so that numbers that change every
+ * frame, like the ones of {@link JMNumber} or counters, are built by placing copies of these shapes instead of
+ * typesetting, converting to SVG and importing the whole string again.
+ * <p>
+ * Each character is typeset between two zeros. Its shape is stored relative to the first zero, and its advance is the
+ * distance between both zeros minus the advance of a zero, so that the spacing of the full layout is reproduced.
+ * Characters whose layout is not a single shape are not stored, and numbers using them are typeset as usual. Texts
+ * where LaTeX joins characters, like {@code --} written as an en-dash, are typeset as usual too.
+ * <p>
+ * There is an atlas for every set of parser options, as they change the tokens assigned to the shapes. Only the
+ * JLaTexMath compile mode is supported.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+final class NumberGlyphAtlas {
+
+    /**
+     * Characters stored in the atlas: digits, minus sign, decimal point and grouping separator. The plus sign is not
+     * included, as its spacing depends on whether it is unary or binary
+     */
+    static final String GLYPHS = "0123456789-.,";
+    private static final HashMap<String, NumberGlyphAtlas> ATLASES = new HashMap<>();
+
+    private final PackedPath[] paths;
+    private final MODrawProperties[] styles;
+    private final LatexToken[] tokens;
+    private final double[] advances;
+    private long composed;
+
+    private NumberGlyphAtlas() {
+        paths = new PackedPath[GLYPHS.length()];
+        styles = new MODrawProperties[GLYPHS.length()];
+        tokens = new LatexToken[GLYPHS.length()];
+        advances = new double[GLYPHS.length()];
+    }
+
+    /**
+     * Returns the atlas for the options of the given parser, typesetting its characters the first time
+     *
+     * @param parser Parser of the LaTeX object
+     * @return The atlas
+     */
+    static synchronized NumberGlyphAtlas get(LatexParser parser) {
+        String key = LatexGlyphCache.key("", AbstractLatexMathObject.CompileMode.JLaTexMath, parser);
+        NumberGlyphAtlas atlas = ATLASES.get(key);
+        if (atlas == null) {
+            atlas = new NumberGlyphAtlas();
+            atlas.build(parser.isConfigDistilleMinusSign(), parser.isConfigDistilleDotSign());
+            ATLASES.put(key, atlas);
+        }
+        return atlas;
+    }
+
+    private void build(boolean distilleMinusSign, boolean distilleDotSign) {
+        LatexMathObject probe = new LatexMathObject(AnchorType.CENTER);
+        probe.getLatexParser().setConfigDistilleMinusSign(distilleMinusSign);
+        probe.getLatexParser().setConfigDistilleDotSign(distilleDotSign);
+        try {
+            probe.generateRawShapes("00");
+            if (probe.size() != 2) {
+                JMathAnimScene.logger.debug("Number glyph atlas not available, numbers will be fully typeset");
+                return;
+            }
+            double zeroAdvance = probe.get(1).getBoundingBox().xmin - probe.get(0).getBoundingBox().xmin;
+            for (int i = 0; i < GLYPHS.length(); i++) {
+                probe.clearShapes();
+                probe.generateRawShapes("0" + GLYPHS.charAt(i) + "0");
+                if ((probe.size() != 3) || (probe.getLatexParser().size() != 3)) {
+                    continue;
+                }
+                Rect first = probe.get(0).getBoundingBox();
+                double originX = first.xmin + zeroAdvance;
+                advances[i] = probe.get(2).getBoundingBox().xmin - originX;
+                paths[i] = PackedPath.of(probe.get(1).getPath())
+                        .applyAffineTransform(AffineJTransform.createTranslationTransform(Vec.to(-originX, -first.ymin)));
+                styles[i] = probe.get(1).getMp().copy();
+                tokens[i] = probe.getLatexParser().get(1).copy();
+            }
+        } catch (ParseException e) {
+            JMathAnimScene.logger.debug("Number glyph atlas not available, numbers will be fully typeset");
+        }
+    }
+
+    /**
+     * Adds to the given LaTeX object the shapes of the given text, if all its characters are in the atlas, and assigns
+     * their tokens. Shapes are placed as JLaTeXMath would, before scaling and positioning them.
+     *
+     * @param text  Text of the number
+     * @param latex LaTeX object, with no shapes
+     * @return True if the shapes were added, false if the text must be typeset
+     */
+    boolean compose(String text, AbstractLatexMathObject<?> latex) {
+        if (!canCompose(text)) {
+            return false;
+        }
+        ArrayList<LatexToken> assigned = new ArrayList<>(text.length());
+        double x = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int index = GLYPHS.indexOf(text.charAt(i));
+            LatexShape sh = new LatexShape();
+            paths[index].storeTo(sh.getPath());
+            if (x != 0) {
+                sh.getPath().applyAffineTransform(AffineJTransform.createTranslationTransform(Vec.to(x, 0)));
+            }
+            sh.getMp().copyFrom(styles[index]);
+            latex.add(sh);
+            assigned.add(tokens[index].copy());
+            x += advances[index];
+        }
+        latex.getLatexParser().restoreTokens(assigned);
+        synchronized (this) {
+            composed++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if all characters of the given text are in the atlas, and none of them are joined with the next one
+     * by a LaTeX ligature
+     *
+     * @param text Text to check
+     * @return True if the text can be composed, false otherwise
+     */
+    boolean canCompose(String text) {
+        if (text.isEmpty() || text.contains("--") || text.contains(",,")) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            int index = GLYPHS.indexOf(text.charAt(i));
+            if ((index < 0) || (paths[index] == null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of texts composed with this atlas
+     *
+     * @return Number of composed texts
+     */
+    synchronized long getComposed() {
+        return composed;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.FXRenderer;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritablePixelFormat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Copies JavaFX images into existing BufferedImages, reading the pixels with a {@link PixelReader}. The array where
+ * pixels are read is reused between calls, so converting every frame of a movie does not allocate new images.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+class FXImageToBufferedImage {
+
+    private byte[] pixels;
+    private int width;
+    private int height;
+
+    /**
+     * Reads the image into an existing BGR image, with no alpha channel. Pixels are read with premultiplied alpha, so
+     * translucent pixels are drawn over black, as when an ARGB image is drawn over an empty BGR one.
+     *
+     * @param fxImage JavaFX image
+     * @param image   A TYPE_3BYTE_BGR image with the same size as the JavaFX image
+     */
+    void readTo3ByteBGR(Image fxImage, BufferedImage image) {
+        readImage(fxImage);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final int length = width * height * 4;
+        for (int i = 0, j = 0; i < length; i += 4, j += 3) {
+            data[j] = pixels[i];         // B
+            data[j + 1] = pixels[i + 1]; // G
+            data[j + 2] = pixels[i + 2]; // R, alpha is ignored
+        }
+    }
+
+    /**
+     * Sets all pixels of a BGR image to black, the color of an empty ARGB image drawn over it
+     *
+     * @param image A TYPE_3BYTE_BGR image
+     */
+    void clear(BufferedImage image) {
+        Arrays.fill(((DataBufferByte) image.getRaster().getDataBuffer()).getData(), (byte) 0);
+    }
+
+    /**
+     * Reads the image pixels into the reusable array, in premultiplied BGRA order. The array is only allocated again
+     * if the image size changes.
+     *
+     * @param fxImage JavaFX image
+     */
+    private void readImage(Image fxImage) {
+        int w = (int) fxImage.getWidth();
+        int h = (int) fxImage.getHeight();
+        if ((pixels == null) || (w != width) || (h != height)) {
+            width = w;
+            height = h;
+            pixels = new byte[width * height * 4];
+        }
+        WritablePixelFormat<ByteBuffer> format = WritablePixelFormat.getByteBgraPreInstance();
+        fxImage.getPixelReader().getPixels(0, 0, width, height, format, pixels, 0, width * 4);
+    }
+}
@@ -18,7 +18,25 @@ public class JavaFXRenderCommand {
     public long pathVersion=-1;
     public long mpVersion=-1;
     public long imageVersion=-1;
+    public JavaFXRendererUtils.RendererEffectsKey rendererEffectsKey=null;
     public boolean showDebugText=false;
     public String debugText="";
 
+    /**
+     * Copies the state of the node as it was left by the command of the previous frame for the same object, so that
+     * only the properties that changed since then are updated. Camera state is only kept if the same camera is used.
+     *
+     * @param previous Render command of the previous frame
+     */
+    public void copyNodeStateFrom(JavaFXRenderCommand previous) {
+        previous_shiftVector_x = previous.previous_shiftVector_x;
+        previous_shiftVector_y = previous.previous_shiftVector_y;
+        pathVersion = previous.pathVersion;
+        mpVersion = previous.mpVersion;
+        imageVersion = previous.imageVersion;
+        rendererEffectsKey = previous.rendererEffectsKey;
+        if (previous.camera == camera) {
+            cameraVersion = previous.cameraVersion;
+        }
+    }
 }
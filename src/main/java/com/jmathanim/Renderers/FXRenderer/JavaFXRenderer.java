@@ -21,6 +21,7 @@ import com.jmathanim.Cameras.Camera;
 import com.jmathanim.MathObjects.*;
 import com.jmathanim.MathObjects.Shapes.JMPath;
 import com.jmathanim.Renderers.MovieEncoders.SoundItem;
+import com.jmathanim.Renderers.MovieEncoders.AsyncVideoEncoder;
 import com.jmathanim.Renderers.MovieEncoders.VideoEncoder;
 import com.jmathanim.Renderers.MovieEncoders.XugglerVideoEncoder;
 import com.jmathanim.Renderers.Renderer;
@@ -53,9 +54,7 @@ import javafx.scene.transform.Scale;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
@@ -97,6 +96,9 @@ public class JavaFXRenderer extends Renderer {
 
     private DataFrame currentFrame;
     private DataFrame previousFrame;
+    //Image reused for the snapshots of every frame, and reader to copy it into the encoder buffers
+    private WritableImage snapshotImage;
+    private final FXImageToBufferedImage snapshotReader;
 
 
     public JavaFXRenderer(JMathAnimScene parentScene) throws Exception {
@@ -109,6 +111,7 @@ public class JavaFXRenderer extends Renderer {
         javaFXNodes = new ArrayList<>();
         images = new HashMap<>();
         storedPaths = new HashMap<>();
+        snapshotReader = new FXImageToBufferedImage();
         camera = parentScene.getCamera();
         fixedCamera = parentScene.getFixedCamera();
         correctionThickness = config.getMediaWidth() * 1d / THICKNESS_EQUIVALENT_TO_SCREEN_WIDTH;//Correction factor for thickness
@@ -165,6 +168,13 @@ public class JavaFXRenderer extends Renderer {
 
     @Override
     public void removeObject(Drawable drawable) {
+        //Nodes of removed objects are not reused
+        drawablesToNodes.remove(drawable);
+        if (drawable instanceof hasShapes) {
+            for (AbstractShape<?> sh : ((hasShapes) drawable).toShapesArray()) {
+                drawablesToNodes.remove(sh);
+            }
+        }
 //        JavaFXRenderCommand rc = drawablesToRendererCommands.get(drawable);
 //        if (rc != null) {
 //            rc.type = JavaFXRenderCommand.COMMAND_TYPE.REMOVE;
@@ -181,13 +191,13 @@ public class JavaFXRenderer extends Renderer {
         initializeJavaFXWindow();
 
         if (config.isCreateMovie()) {
-            videoEncoder = new XugglerVideoEncoder();
+            videoEncoder = AsyncVideoEncoder.wrap(new XugglerVideoEncoder(), config);
             JMathAnimScene.logger.debug("Preparing encoder " + LogUtils.method(videoEncoder.getClass().getSimpleName()));
 
             File tempPath = new File(config.getOutputDir().getCanonicalPath());
             tempPath.mkdirs();
             saveFilePath = new File(config.getOutputDir().getCanonicalPath() + File.separator
-                    + config.getOutputFileName() + "_" + config.getMediaHeight() + ".mp4");
+                    + config.getOutputFileName() + "_" + config.getMediaHeight() + config.getShardSuffix() + ".mp4");
             JMathAnimScene.logger.info("Creating movie encoder for " + LogUtils.fileName(saveFilePath.getCanonicalPath()));
             config.setSaveFilePath(saveFilePath);
             videoEncoder.createEncoder(config);
@@ -280,21 +290,45 @@ public class JavaFXRenderer extends Renderer {
 
     @Override
     public void saveFrame(int frameCount) {
-        BufferedImage renderedImage = getRenderedImage(frameCount);
-
+        WritableImage snapshot = takeSnapshot(frameCount);
         if (config.isCreateMovie()) {
-            videoEncoder.writeFrame(renderedImage, frameCount);
+            //The encoder provides the buffer, which blocks if too many frames are waiting to be encoded
+            BufferedImage frameBuffer = videoEncoder.acquireFrameBuffer(config.getMediaWidth(), config.getMediaHeight());
+            if (snapshot != null) {
+                snapshotReader.readTo3ByteBGR(snapshot, frameBuffer);
+            } else {
+                //Recycled buffers hold a previous frame. An empty frame is encoded, as with a new image.
+                snapshotReader.clear(frameBuffer);
+            }
+            videoEncoder.writeFrame(frameBuffer, frameCount);
         }
         if (config.isSaveToPNG()) {
+            //PNG files keep the alpha channel, which the frame buffers of the encoder do not have
             String filename = config.getOutputFileName() + String.format("%06d", frameCount) + ".png";
-            writeImageToPNG(filename, renderedImage, "png");
+            writeImageToPNG(filename, toBufferedImage(snapshot), "png");
         }
     }
 
     @Override
     protected BufferedImage getRenderedImage(int frameCount) {
-        WritableImage img2;
-        BufferedImage bufferedImage = new BufferedImage(config.getMediaWidth(), config.getMediaHeight(), BufferedImage.TYPE_INT_ARGB);
+        return toBufferedImage(takeSnapshot(frameCount));
+    }
+
+    private BufferedImage toBufferedImage(WritableImage snapshot) {
+        if (snapshot == null) {
+            return new BufferedImage(config.getMediaWidth(), config.getMediaHeight(), BufferedImage.TYPE_INT_ARGB);
+        }
+        return SwingFXUtils.fromFXImage(snapshot, null);
+    }
+
+    /**
+     * Builds the JavaFX scene with the render commands of the current frame and takes a snapshot of it. The snapshot
+     * is drawn into the same image every frame.
+     *
+     * @param frameCount Frame number
+     * @return The snapshot, or null if it could not be taken
+     */
+    private WritableImage takeSnapshot(int frameCount) {
         JavaFXRenderer r = this;
         FutureTask<WritableImage> task = new FutureTask<>(() -> {
             fxScene.setFill(JavaFXRendererUtils.getFXPaint(config.getBackgroundColor(), r, camera));
@@ -310,16 +344,16 @@ public class JavaFXRenderer extends Renderer {
 //                    new Translate(-config.getMediaWidth() / 2, -config.getMediaHeight() / 2, 0));
 
 //            // Add all elements
-            mainGroupOfObjectsToRender.getChildren().clear();
+            ArrayList<Node> nodes = new ArrayList<>(currentFrame.renderCommands.size());
+            Set<Node> nodesInFrame = Collections.newSetFromMap(new IdentityHashMap<>());
             for (JavaFXRenderCommand rc : currentFrame.renderCommands) {
                 Node node = retrieveFXNodeForRenderCommand(rc);
-//                Parent parent = node.getParent();
-//                if (parent != null) {
-//                    ((Group) parent).getChildren().remove(node);
-//                }
-//                if (!mainGroupOfObjectsToRender.getChildren().contains(node))
-                    mainGroupOfObjectsToRender.getChildren().add(node);
+                if ((node != null) && nodesInFrame.add(node)) {
+                    nodes.add(node);
+                }
             }
+            //Only nodes added, removed or moved since the previous frame modify the scene graph
+            JavaFXRendererUtils.updateChildren(mainGroupOfObjectsToRender.getChildren(), nodes);
             if (config.showFrameNumbers) {
                 showDebugFrame(frameCount, 1d * frameCount / config.getFps());
             }
@@ -334,18 +368,19 @@ public class JavaFXRenderer extends Renderer {
             params.setViewport(new Rectangle2D(0, 0, config.getMediaWidth(), config.getMediaHeight()));
             params.setCamera(fxScene.getCamera());
 
-            return fxScene.getRoot().snapshot(params, null);
+            return fxScene.getRoot().snapshot(params, snapshotImage);
         });
         Platform.runLater(task);
+        WritableImage snapshot = null;
         try {
-            img2 = task.get();
-            bufferedImage = SwingFXUtils.fromFXImage(img2, null);
+            snapshot = task.get();
+            snapshotImage = snapshot;
         } catch (InterruptedException | ExecutionException ex) {
             Logger.getLogger(JavaFXRenderer.class.getName()).log(Level.SEVERE, null, ex);
         }
 //        fxnodes.clear();
         debugFXnodes.clear();
-        return bufferedImage;
+        return snapshot;
     }
 
     @Override
@@ -396,6 +431,11 @@ public class JavaFXRenderer extends Renderer {
     private Node retrieveFXNodeForRenderCommand(JavaFXRenderCommand renderCommand) {
         if (drawablesToNodes.containsKey(renderCommand.object)) {
             Node node = drawablesToNodes.get(renderCommand.object);
+            //The node keeps what was applied in the previous frame, if the object was drawn
+            JavaFXRenderCommand previous = previousFrame.drawableToRenderCommand.get(renderCommand.object);
+            if ((previous != null) && (previous.type == renderCommand.type)) {
+                renderCommand.copyNodeStateFrom(previous);
+            }
             updateRendererCommandNode(node, renderCommand);
             return node;
         } else {
@@ -417,21 +457,35 @@ public class JavaFXRenderer extends Renderer {
             case SHAPE_ABSOLUTE:
                 AbstractShape<?> shape = (AbstractShape<?>) rc.object;
                 JMPath path = shape.getPath();
-                if (path.getVersion() > rc.pathVersion) {//Different path, must update everything
+                //Points may have changed after the path was updated
+                if (path.getMaxVersion() > rc.pathVersion) {//Different path, must update everything
 //                    System.out.println("Regenerando PATH completo");
                     generateFullShapeObject((Path) node, rc);
                 }
-                if (((AbstractShape<?>) rc.object).getCamera().getVersion() > rc.cameraVersion) {
+                boolean cameraChanged = (shape.getCamera().getVersion() > rc.cameraVersion)
+                        || (rc.camera.getVersion() > rc.cameraVersion);
+                if (cameraChanged) {
+                    //Dash arrays and gradients not relative to the shape depend on the camera
+                    rc.mpVersion = -1;
+                }
+                if (shape.getMp().getVersion() > rc.mpVersion) {
+//                    System.out.println("Actualizando MP de PATH");
+                    applyDrawingStyles((Path) node, rc);
+                    //Thickness is applied with the camera
+                    rc.cameraVersion = -1;
+                    cameraChanged = true;
+                }
+                if (cameraChanged) {
 //                    System.out.println("Actualizando camera de PATH");
                     applyCameraToNode(node, rc, config.getMediaWidth(), config.getMediaHeight());
                 }
-                if (rc.previous_shiftVector_x != rc.shiftVector_x || rc.previous_shiftVector_y != rc.shiftVector_y) {
+                if (cameraChanged || rc.previous_shiftVector_x != rc.shiftVector_x || rc.previous_shiftVector_y != rc.shiftVector_y) {
 //                    System.out.println("Actualizando shiftVector de PATH");
                     JavaFXRendererUtils.applyShiftVectorToNode(node, rc);
                 }
-                if (shape.getMp().getVersion() > rc.mpVersion) {
-//                    System.out.println("Actualizando MP de PATH");
-                    applyDrawingStyles((Path) node, rc);
+                if ((rc.rendererEffectsKey == null) || !rc.rendererEffectsKey.matches(shape.getRendererEffects())) {
+                    JavaFXRendererUtils.applyRendererEffects(node, shape.getRendererEffects());
+                    rc.rendererEffectsKey = JavaFXRendererUtils.RendererEffectsKey.of(shape.getRendererEffects());
                 }
                 break;
 //                return makePath(rc);
@@ -469,7 +523,7 @@ public class JavaFXRenderer extends Renderer {
         }
         JMPath objectPath = mobj.getPath();
         JavaFXRendererUtils.createFXPathGeometryFromJMPath(objectPath, fxPath);
-        rc.pathVersion = objectPath.getVersion();//Updates path
+        rc.pathVersion = objectPath.getMaxVersion();//Updates path
 
         JavaFXRendererUtils.applyShiftVectorToNode(fxPath, rc);
 
@@ -478,8 +532,8 @@ public class JavaFXRenderer extends Renderer {
         rc.mpVersion = mobj.getMp().getVersion();
 
         //Renderer effects:
-        //TODO: Add versions to this
         JavaFXRendererUtils.applyRendererEffects(fxPath, mobj.getRendererEffects());
+        rc.rendererEffectsKey = JavaFXRendererUtils.RendererEffectsKey.of(mobj.getRendererEffects());
 
         applyCameraToNode(fxPath, rc, config.getMediaWidth(), config.getMediaHeight());
 
@@ -540,6 +594,7 @@ public class JavaFXRenderer extends Renderer {
         path.setFill(JavaFXRendererUtils.getFXPaint(mobj.getMp().getFillColor(), this, camera));
 
         // Dash pattern
+        path.getStrokeDashArray().clear();
         switch (mobj.getMp().getDashStyle()) {
             case SOLID:
                 break;
@@ -29,6 +29,7 @@ import com.jmathanim.Utils.AffineJTransform;
 import com.jmathanim.Utils.Rect;
 import com.jmathanim.Utils.Vec;
 import com.jmathanim.jmathanim.JMathAnimScene;
+import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.effect.GaussianBlur;
@@ -40,7 +41,7 @@ import javafx.scene.text.Text;
 import javafx.scene.transform.Affine;
 import javafx.scene.transform.NonInvertibleTransformException;
 
-import java.util.TreeMap;
+import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -219,10 +220,10 @@ public class JavaFXRendererUtils {
      * ty tz}} Where x,y,z is the image of (0,0,0) and v,w,t are the images of canonical vectors.
      */
     public static Affine affineJToAffine(AffineJTransform tr) {
-        double[] orig = tr.getMatrix().getRow(0);
-        double[] vx = tr.getMatrix().getRow(1);
-        double[] vy = tr.getMatrix().getRow(2);
-        double[] vz = tr.getMatrix().getRow(3);
+        double[] orig = tr.getRow(0);
+        double[] vx = tr.getRow(1);
+        double[] vy = tr.getRow(2);
+        double[] vz = tr.getRow(3);
         return new Affine(
                 vx[1], vy[1], vz[1], orig[1],
                 vx[2], vy[2], vz[2], orig[2],
@@ -509,6 +510,7 @@ public class JavaFXRendererUtils {
     }
 
     public static void applyRendererEffects(Node node, RendererEffects rendererEffects) {
+        node.setEffect(null);
         if (rendererEffects.getGaussianBlurRadius() > 0) {
             node.setEffect(new GaussianBlur(rendererEffects.getGaussianBlurRadius()));
         }
@@ -523,6 +525,179 @@ public class JavaFXRendererUtils {
         }
     }
 
+    /**
+     * Values used by {@link #applyRendererEffects}, stored so that effects are only created again when any of them
+     * changes
+     */
+    public static final class RendererEffectsKey {
+
+        private final double[] values;
+
+        private RendererEffectsKey(double[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Stores the current values of the given effects
+         *
+         * @param rendererEffects Renderer effects
+         * @return A new key
+         */
+        public static RendererEffectsKey of(RendererEffects rendererEffects) {
+            JMColor color = rendererEffects.getShadowColor();
+            double[] values = new double[(color == null) ? 4 : 8];
+            values[0] = rendererEffects.getGaussianBlurRadius();
+            values[1] = rendererEffects.getShadowKernelSize();
+            values[2] = rendererEffects.getShadowOffsetX();
+            values[3] = rendererEffects.getShadowOffsetY();
+            if (color != null) {
+                values[4] = color.getRed();
+                values[5] = color.getGreen();
+                values[6] = color.getBlue();
+                values[7] = color.getAlpha();
+            }
+            return new RendererEffectsKey(values);
+        }
+
+        /**
+         * Returns true if the given effects have the values stored in this key. Same as comparing with a new key,
+         * without creating it.
+         *
+         * @param rendererEffects Renderer effects
+         * @return True if the values are equal
+         */
+        public boolean matches(RendererEffects rendererEffects) {
+            JMColor color = rendererEffects.getShadowColor();
+            if (values.length != ((color == null) ? 4 : 8)) {
+                return false;
+            }
+            return same(0, rendererEffects.getGaussianBlurRadius())
+                    && same(1, rendererEffects.getShadowKernelSize())
+                    && same(2, rendererEffects.getShadowOffsetX())
+                    && same(3, rendererEffects.getShadowOffsetY())
+                    && ((color == null)
+                    || (same(4, color.getRed()) && same(5, color.getGreen())
+                    && same(6, color.getBlue()) && same(7, color.getAlpha())));
+        }
+
+        private boolean same(int index, double value) {
+            return Double.doubleToLongBits(values[index]) == Double.doubleToLongBits(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof RendererEffectsKey) && Arrays.equals(values, ((RendererEffectsKey) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * Updates a list of children so that it holds the given nodes, in the same order. The longest sequence of nodes
+     * that keep their relative order is not touched. Nodes no longer present or out of order are removed in a single
+     * operation, and new or moved nodes are then inserted at their position. If too many nodes changed, the list is
+     * replaced at once.
+     *
+     * @param children List to update, like the children of a Group
+     * @param nodes    Nodes to hold, with no duplicates
+     * @param <T>      Type of the elements
+     * @return Number of nodes removed or inserted
+     */
+    public static <T> int updateChildren(List<T> children, List<T> nodes) {
+        final int size = nodes.size();
+        if (children.size() == size) {
+            int i = 0;
+            while ((i < size) && (children.get(i) == nodes.get(i))) {
+                i++;
+            }
+            if (i == size) {
+                return 0;
+            }
+        }
+        IdentityHashMap<T, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < children.size(); i++) {
+            positions.put(children.get(i), i);
+        }
+        //Positions in the current list of the nodes to hold, -1 for new nodes
+        int[] pos = new int[size];
+        for (int i = 0; i < size; i++) {
+            Integer p = positions.get(nodes.get(i));
+            pos[i] = (p == null) ? -1 : p;
+        }
+        Set<T> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i : longestIncreasingSubsequence(pos)) {
+            kept.add(nodes.get(i));
+        }
+        final int changes = (children.size() - kept.size()) + (size - kept.size());
+        if (changes > 16 + size / 8) {
+            if (children instanceof ObservableList) {
+                ((ObservableList<T>) children).setAll(nodes);
+            } else {
+                children.clear();
+                children.addAll(nodes);
+            }
+            return changes;
+        }
+        //Identity set, so that removing is linear in the number of children
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (T node : children) {
+            if (!kept.contains(node)) {
+                removed.add(node);
+            }
+        }
+        if (!removed.isEmpty()) {
+            children.removeAll(removed);
+        }
+        //Kept nodes are already in the right order, so the others are inserted at their final position
+        for (int i = 0; i < size; i++) {
+            T node = nodes.get(i);
+            if ((i >= children.size()) || (children.get(i) != node)) {
+                children.add(i, node);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the indices of a longest strictly increasing subsequence of the given values, ignoring negative ones
+     *
+     * @param values Values
+     * @return Indices of the subsequence, in increasing order
+     */
+    private static int[] longestIncreasingSubsequence(int[] values) {
+        //tails[k] is the index of the smallest tail of an increasing subsequence of length k+1
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0) {
+                continue;
+            }
+            int lo = 0, hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = (lo > 0) ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        int[] result = new int[length];
+        for (int k = length - 1, i = (length > 0) ? tails[length - 1] : -1; k >= 0; k--, i = previous[i]) {
+            result[k] = i;
+        }
+        return result;
+    }
+
     public static void applyShiftVectorToNode(Node node, JavaFXRenderCommand rc) {
         //Creates shiftVector
         node.setTranslateX(rc.shiftVector_x * rc.camera.getScreenWidth() / rc.camera.getMathView().getWidth());
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.MovieEncoders;
+
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A video encoder that performs the actual encoding in a dedicated thread. Frames are passed through a bounded queue
+ * to another encoder (usually a {@link XugglerVideoEncoder}), so that the scene can update and draw the next frame
+ * while the previous ones are being encoded.
+ * <p>
+ * Frames are always encoded in the order they were written. When the queue is full, {@link #writeFrame} blocks until
+ * the encoding thread makes room, so memory used is bounded. Frame buffers obtained with {@link #acquireFrameBuffer}
+ * are recycled once encoded.
+ * <p>
+ * If the wrapped encoder fails, the remaining frames are discarded and the first error is thrown, wrapped into an
+ * {@link IllegalStateException}, by the next call to {@link #writeFrame} or {@link #finish}.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class AsyncVideoEncoder extends VideoEncoder {
+
+    private static final QueuedFrame END_OF_STREAM = new QueuedFrame(null, -1);
+
+    private final VideoEncoder encoder;
+    private final int queueSize;
+    private final BlockingQueue<QueuedFrame> frameQueue;
+    private FrameBufferPool framePool;
+    private Thread encoderThread;
+    private volatile Throwable encoderError;
+    private volatile int errorFrameCount;
+    private boolean errorReported;
+
+    /**
+     * Creates a new asynchronous encoder
+     *
+     * @param encoder   Encoder that will receive the frames, in the encoding thread
+     * @param queueSize Maximum number of frames waiting to be encoded. Must be at least 1
+     */
+    public AsyncVideoEncoder(VideoEncoder encoder, int queueSize) {
+        super();
+        this.encoder = encoder;
+        this.queueSize = Math.max(1, queueSize);
+        frameQueue = new ArrayBlockingQueue<>(this.queueSize);
+    }
+
+    /**
+     * Wraps the given encoder into an asynchronous one if the frame queue size defined in the config is greater than
+     * 0. Otherwise, the same encoder is returned.
+     *
+     * @param encoder Encoder to wrap
+     * @param config  Config class
+     * @return The encoder to be used by the renderer
+     */
+    public static VideoEncoder wrap(VideoEncoder encoder, JMathAnimConfig config) {
+        if (config.getEncoderQueueSize() <= 0) {
+            return encoder;
+        }
+        return new AsyncVideoEncoder(encoder, config.getEncoderQueueSize());
+    }
+
+    @Override
+    public void createEncoder(JMathAnimConfig config) throws IOException {
+        encoder.createEncoder(config);
+        //One buffer more than the queue size, the one being filled by the renderer
+        framePool = new FrameBufferPool(queueSize + 1, config.getMediaWidth(), config.getMediaHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        encoderThread = new Thread(this::encodingLoop, "JMathAnim video encoder");
+        encoderThread.setDaemon(true);
+        encoderThread.start();
+        JMathAnimScene.logger.debug("Asynchronous video encoder started with a queue of " + queueSize + " frames");
+    }
+
+    /**
+     * Returns a free frame buffer from the pool. If all buffers are waiting to be encoded, this method blocks until
+     * one of them is released by the encoding thread. The buffer should be passed to {@link #writeFrame} once filled.
+     *
+     * @param width  Width of the frame
+     * @param height Height of the frame
+     * @return A TYPE_3BYTE_BGR image
+     */
+    @Override
+    public BufferedImage acquireFrameBuffer(int width, int height) {
+        if ((framePool == null) || (!framePool.matches(width, height, BufferedImage.TYPE_3BYTE_BGR))) {
+            return super.acquireFrameBuffer(width, height);
+        }
+        try {
+            return framePool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return super.acquireFrameBuffer(width, height);
+        }
+    }
+
+    @Override
+    public void writeFrame(BufferedImage image, int frameCount) {
+        if (encoderError != null) {
+            releaseBuffer(image);
+            reportError();
+            return;
+        }
+        try {
+            frameQueue.put(new QueuedFrame(image, frameCount));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            JMathAnimScene.logger.error("Interrupted while queuing frame " + frameCount);
+            releaseBuffer(image);
+        }
+    }
+
+    private void encodingLoop() {
+        while (true) {
+            QueuedFrame frame;
+            try {
+                frame = frameQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (frame == END_OF_STREAM) {
+                return;
+            }
+            //If a previous frame failed, frames are discarded so that the renderer never blocks
+            if (encoderError == null) {
+                try {
+                    encoder.writeFrame(frame.image, frame.frameCount);
+                } catch (Throwable t) {
+                    errorFrameCount = frame.frameCount;
+                    encoderError = t;
+                    JMathAnimScene.logger.error("Error encoding frame " + frame.frameCount + ": " + t.getMessage());
+                }
+            }
+            releaseBuffer(frame.image);
+        }
+    }
+
+    /**
+     * Throws the first error of the encoding thread, if it was not thrown before
+     */
+    private void reportError() {
+        Throwable t = encoderError;
+        if ((t != null) && !errorReported) {
+            errorReported = true;
+            throw new IllegalStateException("Error encoding frame " + errorFrameCount, t);
+        }
+    }
+
+    private void releaseBuffer(BufferedImage image) {
+        if (framePool != null) {
+            framePool.release(image);
+        }
+    }
+
+    /**
+     * Waits until all queued frames are encoded and finishes the wrapped encoder. If a frame could not be encoded, the
+     * error is thrown once the wrapped encoder is finished.
+     */
+    @Override
+    public void finish() {
+        if (encoderThread != null) {
+            try {
+                frameQueue.put(END_OF_STREAM);
+                encoderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                JMathAnimScene.logger.error("Interrupted while waiting for the video encoder to finish");
+            }
+            encoderThread = null;
+        }
+        encoder.finish();
+        reportError();
+    }
+
+    @Override
+    public boolean isFramesGenerated() {
+        return encoder.isFramesGenerated();
+    }
+
+    @Override
+    public void addSound(URL soundURL, long miliSeconds) {
+        encoder.addSound(soundURL, miliSeconds);
+    }
+
+    @Override
+    public void addSound(SoundItem soundItem) {
+        encoder.addSound(soundItem);
+    }
+
+    private static class QueuedFrame {
+
+        final BufferedImage image;
+        final int frameCount;
+
+        QueuedFrame(BufferedImage image, int frameCount) {
+            this.image = image;
+            this.frameCount = frameCount;
+        }
+    }
+}
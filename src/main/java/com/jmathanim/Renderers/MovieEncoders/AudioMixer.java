@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.MovieEncoders;
+
+import com.jmathanim.jmathanim.JMathAnimScene;
+import com.jmathanim.jmathanim.LogUtils;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Mixes the sounds of a scene into a single PCM stream, without external processes. Each sound file is decoded only
+ * once, with the audio formats supported by the Java sound API, like WAV, AIFF or AU. Every occurrence is resampled to
+ * the output sample rate, applying the pitch of its {@link SoundItem}, and added to the mix at its time stamp.
+ * <p>
+ * The mix is not stored: adding a sound only records where it is placed, and samples are mixed when a range of the
+ * mix is requested, in chunks of {@link #CHUNK_FRAMES} frames. This way memory does not grow with the length of the
+ * scene. Overlapping sounds may exceed the [-1, 1] range. The method {@link #normalize()} scales the whole mix down when
+ * this happens, before converting it to 16 bit samples.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class AudioMixer {
+
+    /**
+     * Number of frames mixed at once
+     */
+    public static final int CHUNK_FRAMES = 48000;
+
+    private final int sampleRate;
+    private final int channels;
+    private final HashMap<String, DecodedSound> decodedSounds;
+    private final ArrayList<PlacedSound> placedSounds;
+    private final float[] chunk;
+    private int frames;
+    private float gain;
+    private float peak;
+
+    /**
+     * Creates a new, empty mixer
+     *
+     * @param sampleRate Output sample rate, in Hz
+     * @param channels   Number of output channels
+     */
+    public AudioMixer(int sampleRate, int channels) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        decodedSounds = new HashMap<>();
+        placedSounds = new ArrayList<>();
+        chunk = new float[CHUNK_FRAMES * channels];
+        frames = 0;
+        gain = 1;
+        peak = -1;
+    }
+
+    /**
+     * Adds all the given sounds to the mix
+     *
+     * @param soundItems Sounds to add
+     * @return True if all sounds were added, false if any of them could not be decoded
+     */
+    public boolean addAll(List<SoundItem> soundItems) {
+        for (SoundItem soundItem : soundItems) {
+            if (!add(soundItem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given sound to the mix, starting at its time stamp
+     *
+     * @param soundItem Sound to add
+     * @return True if the sound was added, false if it could not be decoded
+     */
+    public boolean add(SoundItem soundItem) {
+        DecodedSound sound = decode(soundItem.getSoundUrl());
+        if (sound == null) {
+            return false;
+        }
+        //A pitch p plays the sound p times faster, so each output frame advances p source frames, in source rate
+        double step = sound.sampleRate * soundItem.getPitch() / sampleRate;
+        if ((step <= 0) || (sound.frames == 0)) {
+            return true;
+        }
+        int length = (int) Math.ceil(sound.frames / step);
+        int offset = (int) Math.round(soundItem.getTimeStamp() * (double) sampleRate / 1000);
+        placedSounds.add(new PlacedSound(sound, offset, length, step));
+        frames = Math.max(frames, offset + length);
+        peak = -1;
+        return true;
+    }
+
+    /**
+     * Returns the maximum absolute value of the mixed samples, after normalization if it was applied. The whole mix is
+     * computed the first time, chunk by chunk.
+     *
+     * @return The peak value. Values greater than 1 will clip if not normalized
+     */
+    public float getPeak() {
+        if (peak < 0) {
+            float max = 0;
+            for (int start = 0; start < frames; start += CHUNK_FRAMES) {
+                int numFrames = Math.min(CHUNK_FRAMES, frames - start);
+                mix(start, numFrames);
+                for (int i = 0; i < numFrames * channels; i++) {
+                    max = Math.max(max, Math.abs(chunk[i]));
+                }
+            }
+            peak = max;
+        }
+        return peak * gain;
+    }
+
+    /**
+     * Scales down the mix so that its peak is 1, if it is greater than 1. Mixes that do not clip are not modified.
+     */
+    public void normalize() {
+        gain = 1;
+        float max = getPeak();
+        if (max > 1) {
+            gain = 1 / max;
+        }
+    }
+
+    /**
+     * Converts a range of the mix to interleaved 16 bit samples. Values outside the [-1, 1] range are clipped.
+     *
+     * @param startFrame First frame to convert
+     * @param numFrames  Number of frames to convert
+     * @param dest       Array to store the samples, with at least numFrames*channels elements
+     * @return The dest array
+     */
+    public short[] toPCM16(int startFrame, int numFrames, short[] dest) {
+        for (int done = 0; done < numFrames; done += CHUNK_FRAMES) {
+            int n = Math.min(CHUNK_FRAMES, numFrames - done);
+            mix(startFrame + done, n);
+            int base = done * channels;
+            for (int i = 0; i < n * channels; i++) {
+                float v = Math.max(-1, Math.min(1, chunk[i] * gain));
+                dest[base + i] = (short) Math.round(v * Short.MAX_VALUE);
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * Writes the mix to a 16 bit PCM WAV file. The mix is converted and written chunk by chunk.
+     *
+     * @param file Output file
+     * @throws IOException If the file cannot be written
+     */
+    public void writeWav(File file) throws IOException {
+        AudioFormat format = new AudioFormat(sampleRate, 16, channels, true, false);
+        try (AudioInputStream in = new AudioInputStream(new PCMInputStream(), format, frames)) {
+            AudioSystem.write(in, AudioFileFormat.Type.WAVE, file);
+        }
+    }
+
+    /**
+     * Returns the length of the mix
+     *
+     * @return Number of frames. Each frame has one sample per channel
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the output sample rate
+     *
+     * @return The sample rate, in Hz
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the number of output channels
+     *
+     * @return Number of channels
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Mixes a range of at most {@link #CHUNK_FRAMES} frames into the chunk buffer, without gain
+     */
+    private void mix(int startFrame, int numFrames) {
+        Arrays.fill(chunk, 0, numFrames * channels, 0);
+        int endFrame = startFrame + numFrames;
+        for (PlacedSound placed : placedSounds) {
+            int from = Math.max(startFrame, placed.offset);
+            int to = Math.min(endFrame, placed.offset + placed.length);
+            DecodedSound sound = placed.sound;
+            for (int frame = from; frame < to; frame++) {
+                double pos = (frame - placed.offset) * placed.step;
+                int i0 = (int) pos;
+                int i1 = Math.min(i0 + 1, sound.frames - 1);
+                float alpha = (float) (pos - i0);
+                int dst = (frame - startFrame) * channels;
+                for (int c = 0; c < channels; c++) {
+                    //Mono sounds are copied to all channels
+                    int sc = c % sound.channels;
+                    float s0 = sound.samples[i0 * sound.channels + sc];
+                    float s1 = sound.samples[i1 * sound.channels + sc];
+                    chunk[dst + c] += s0 + alpha * (s1 - s0);
+                }
+            }
+        }
+    }
+
+    private DecodedSound decode(URL url) {
+        String key = url.toString();
+        if (decodedSounds.containsKey(key)) {
+            return decodedSounds.get(key);
+        }
+        DecodedSound sound = null;
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat sourceFormat = source.getFormat();
+            AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(), 16,
+                    sourceFormat.getChannels(), 2 * sourceFormat.getChannels(), sourceFormat.getSampleRate(), false);
+            try (AudioInputStream pcm = AudioSystem.getAudioInputStream(pcmFormat, source)) {
+                byte[] bytes = pcm.readAllBytes();
+                float[] samples = new float[bytes.length / 2];
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8)) / 32768f;
+                }
+                sound = new DecodedSound(samples, pcmFormat.getChannels(), pcmFormat.getSampleRate());
+            }
+        } catch (Exception ex) {
+            JMathAnimScene.logger.warn("Could not decode sound " + LogUtils.fileName(key) + ": " + ex.getMessage());
+        }
+        decodedSounds.put(key, sound);
+        return sound;
+    }
+
+    private static class PlacedSound {
+
+        final DecodedSound sound;
+        final int offset;
+        final int length;
+        final double step;
+
+        PlacedSound(DecodedSound sound, int offset, int length, double step) {
+            this.sound = sound;
+            this.offset = offset;
+            this.length = length;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Little endian 16 bit samples of the mix, converted one chunk at a time
+     */
+    private class PCMInputStream extends InputStream {
+
+        private final byte[] bytes = new byte[CHUNK_FRAMES * channels * 2];
+        private final short[] samples = new short[CHUNK_FRAMES * channels];
+        private int nextFrame;
+        private int pos;
+        private int available;
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return bytes[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, available - pos);
+            System.arraycopy(bytes, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        private boolean fill() {
+            if (pos < available) {
+                return true;
+            }
+            if (nextFrame >= frames) {
+                return false;
+            }
+            int numFrames = Math.min(CHUNK_FRAMES, frames - nextFrame);
+            toPCM16(nextFrame, numFrames, samples);
+            for (int i = 0; i < numFrames * channels; i++) {
+                bytes[2 * i] = (byte) samples[i];
+                bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+            }
+            nextFrame += numFrames;
+            pos = 0;
+            available = numFrames * channels * 2;
+            return true;
+        }
+    }
+
+    private static class DecodedSound {
+
+        final float[] samples;
+        final int channels;
+        final int frames;
+        final double sampleRate;
+
+        DecodedSound(float[] samples, int channels, double sampleRate) {
+            this.samples = samples;
+            this.channels = channels;
+            this.frames = samples.length / channels;
+            this.sampleRate = sampleRate;
+        }
+    }
+}
@@ -82,31 +82,13 @@ public class FFmpegAudioEncoder {
             FileUtils.copyFile(config.getSaveFilePath(), tmpFile);
             FileUtils.forceDeleteOnExit(tmpFile);
 
-            //Create 2 temporary wav audio files that will be deleted
-            File sound1 = new File(dir + tempAudioFileName + "0.wav");
-            File sound2 = new File(dir + tempAudioFileName + "1.wav");
-            FileUtils.forceDeleteOnExit(sound1);
-            FileUtils.forceDeleteOnExit(sound2);
-
-            //Ok, prepare to encode
-            //First, encode first audio file within tempSoundName1.wav
-            JMathAnimScene.logger.debug("Processing sound: [1/" + soundItems.size() + "]: ");
-            runFirstFfmpegCommand(soundItems.get(0), tempAudioFileName + "1.wav");
-
-            //Now run a loop where encoding tempSoundName1+sound(1) to tempSoundName0
-            //                              tempSoundName0+sound(2) to tempSoundName1
-            //                              tempSoundName1+sound(3) to tempSoundName0...
-            int index = 1;
-            for (int i = 1; i < soundItems.size(); i++) {
-                JMathAnimScene.logger.debug("Processing sound: [" + (i + 1) + "/" + soundItems.size() + "]");
-                runIntermediateFfmpegCommand(soundItems.get(i), tempAudioFileName + index + ".wav", tempAudioFileName + (1 - index) + ".wav");
-                index = 1 - index;
-            }
+            //Mix all sounds in a single wav file. If any sound cannot be decoded, mix them with chained ffmpeg calls
+            String mixedAudioFileName = mixSounds(soundItems, tempAudioFileName);
 
             //And finally, do the final encoding
             //mixing tempVideoFile, tempAudioFile to finalVideoFile
             JMathAnimScene.logger.debug("Joining sounds and video...");
-            runFinalFFmpegCommand(tempVideoFileName, tempAudioFileName + index + ".wav", finalOutputFileName);
+            runFinalFFmpegCommand(tempVideoFileName, mixedAudioFileName, finalOutputFileName);
             if (conversionOk) {
                 JMathAnimScene.logger.info("Sounds added succesfully");
             } else {
@@ -121,6 +103,59 @@ public class FFmpegAudioEncoder {
 
     }
 
+    /**
+     * Mixes the sounds into a wav file, in the output dir
+     *
+     * @param soundItems        Sounds to mix
+     * @param tempAudioFileName Base name of the temporary wav files
+     * @return Name of the wav file with the mixed sounds
+     */
+    private String mixSounds(ArrayList<SoundItem> soundItems, String tempAudioFileName) throws IOException, InterruptedException {
+        AudioMixer mixer = new AudioMixer(XugglerVideoEncoder.BITRATE, XugglerVideoEncoder.NUM_CHANNELS);
+        if (mixer.addAll(soundItems)) {
+            mixer.normalize();
+            File mixed = new File(dir + tempAudioFileName + ".wav");
+            FileUtils.forceDeleteOnExit(mixed);
+            mixer.writeWav(mixed);
+            JMathAnimScene.logger.debug("Mixed " + soundItems.size() + " sounds");
+            return mixed.getName();
+        }
+        return mixSoundsWithFfmpeg(soundItems, tempAudioFileName);
+    }
+
+    /**
+     * Mixes the sounds into a wav file, adding them one by one to the previous mix with ffmpeg calls. Used for sound
+     * formats not supported by {@link AudioMixer}.
+     *
+     * @param soundItems        Sounds to mix
+     * @param tempAudioFileName Base name of the temporary wav files
+     * @return Name of the wav file with the mixed sounds
+     */
+    private String mixSoundsWithFfmpeg(ArrayList<SoundItem> soundItems, String tempAudioFileName) throws IOException, InterruptedException {
+        //Create 2 temporary wav audio files that will be deleted
+        File sound1 = new File(dir + tempAudioFileName + "0.wav");
+        File sound2 = new File(dir + tempAudioFileName + "1.wav");
+        FileUtils.forceDeleteOnExit(sound1);
+        FileUtils.forceDeleteOnExit(sound2);
+
+        //Ok, prepare to encode
+        //First, encode first audio file within tempSoundName1.wav
+        JMathAnimScene.logger.debug("Processing sound: [1/" + soundItems.size() + "]: ");
+        runFirstFfmpegCommand(soundItems.get(0), tempAudioFileName + "1.wav");
+
+        //Now run a loop where encoding tempSoundName1+sound(1) to tempSoundName0
+        //                              tempSoundName0+sound(2) to tempSoundName1
+        //                              tempSoundName1+sound(3) to tempSoundName0...
+        int index = 1;
+        for (int i = 1; i < soundItems.size(); i++) {
+            JMathAnimScene.logger.debug("Processing sound: [" + (i + 1) + "/" + soundItems.size() + "]");
+            runIntermediateFfmpegCommand(soundItems.get(i), tempAudioFileName + index + ".wav", tempAudioFileName + (1 - index) + ".wav");
+            index = 1 - index;
+        }
+
+        return tempAudioFileName + index + ".wav";
+    }
+
     private void runFirstFfmpegCommand(SoundItem soundItem, String outputName) throws IOException, InterruptedException {
         double pitch = Math.round(soundItem.getPitch() * 100) / 100d;
         final String cmd = config.getFfmpegBinExecutable()
@@ -208,7 +243,12 @@ public class FFmpegAudioEncoder {
 //            conversionOk = false;
 //        }
     }
-    private String findFfmpegDefaultPaths() {
+    /**
+     * Returns the path of the ffmpeg executable in the usual install locations
+     *
+     * @return The path of the executable, or an empty string if not found
+     */
+    public static String findFfmpegDefaultPaths() {
         String os = System.getProperty("os.name").toLowerCase();
         String[] paths;
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.MovieEncoders;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed set of frame images of the same size and type, that are reused frame after frame instead of creating new
+ * ones. Images are handed out in the same order they were released, so that a released image is reused as late as
+ * possible.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class FrameBufferPool {
+
+    private final int width;
+    private final int height;
+    private final int imageType;
+    private final Set<BufferedImage> buffers;
+    private final BlockingQueue<BufferedImage> freeBuffers;
+
+    /**
+     * Creates a new pool, allocating all the images
+     *
+     * @param size      Number of images of the pool
+     * @param width     Width of the images
+     * @param height    Height of the images
+     * @param imageType Type of the images, like BufferedImage.TYPE_3BYTE_BGR or BufferedImage.TYPE_INT_ARGB
+     */
+    public FrameBufferPool(int size, int width, int height, int imageType) {
+        this.width = width;
+        this.height = height;
+        this.imageType = imageType;
+        buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+        freeBuffers = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            BufferedImage buffer = new BufferedImage(width, height, imageType);
+            buffers.add(buffer);
+            freeBuffers.add(buffer);
+        }
+    }
+
+    /**
+     * Returns a free image, waiting until one is released if all of them are in use
+     *
+     * @return The image
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public BufferedImage acquire() throws InterruptedException {
+        return freeBuffers.take();
+    }
+
+    /**
+     * Returns the given image to the pool, so it can be acquired again. Images not created by this pool are ignored.
+     *
+     * @param image Image to release
+     * @return True if the image belongs to this pool, false otherwise
+     */
+    public boolean release(BufferedImage image) {
+        if (!buffers.contains(image)) {
+            return false;
+        }
+        freeBuffers.offer(image);
+        return true;
+    }
+
+    /**
+     * Checks if this pool can provide images with the given parameters
+     *
+     * @param width     Width of the image
+     * @param height    Height of the image
+     * @param imageType Type of the image
+     * @return True if images of this pool have the given size and type
+     */
+    public boolean matches(int width, int height, int imageType) {
+        return (this.width == width) && (this.height == height) && (this.imageType == imageType);
+    }
+}
@@ -46,6 +46,19 @@ public abstract class VideoEncoder {
      */
     public abstract void writeFrame(BufferedImage image, int frameCount);
 
+    /**
+     * Returns an image where the renderer can store the next frame, before passing it to
+     * {@link #writeFrame(BufferedImage, int)}. Encoders that recycle frame buffers override this method. By default, a
+     * new image is created.
+     *
+     * @param width  Width of the frame
+     * @param height Height of the frame
+     * @return A TYPE_3BYTE_BGR image
+     */
+    public BufferedImage acquireFrameBuffer(int width, int height) {
+        return new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    }
+
     /**
      * Finish the encoding, closing the file and doing all necessary operations.
      * If sounds were added to the scene, they are processed now.
@@ -40,6 +40,10 @@ public class XugglerVideoEncoder extends VideoEncoder {
     private boolean framesGenerated;
     public static int BITRATE = 48000;
     public static int NUM_CHANNELS = 2;
+    /**
+     * Number of audio frames passed to the writer in each call
+     */
+    private static final int AUDIO_CHUNK_FRAMES = 4096;
     private final ArrayList<SoundItem> soundItems;
     private JMathAnimConfig config;
     private FFmpegAudioEncoder FfmpegAudioEncoder;
@@ -75,14 +79,17 @@ public class XugglerVideoEncoder extends VideoEncoder {
     public void writeFrame(BufferedImage image, int frameCount) {
         framesGenerated = true;
         BufferedImage bgrScreen = convertToType(image, BufferedImage.TYPE_3BYTE_BGR);
-        long nanosecondsElapsed = (long) (1000000000d * frameCount / fps);
+        //Segments rendered in shards start at time 0
+        long nanosecondsElapsed = (long) (1000000000d * (frameCount - config.getShardStartFrame()) / fps);
         writer.encodeVideo(0, bgrScreen, nanosecondsElapsed, TimeUnit.NANOSECONDS);
 
     }
 
     @Override
     public void finish() {
+        boolean soundsEncoded = false;
         if (framesGenerated) {
+            soundsEncoded = encodeSounds();
             writer.flush();
             writer.close();
 
@@ -90,7 +97,36 @@ public class XugglerVideoEncoder extends VideoEncoder {
             JMathAnimScene.logger.info("No frames generated. Empty movie created.");
         }
 
-        processSounds();
+        if (!soundsEncoded) {
+            processSounds();
+        }
+    }
+
+    /**
+     * Mixes the sounds in memory and writes them to the audio stream of the movie
+     *
+     * @return True if the sounds were written, false if any of them could not be decoded and ffmpeg should be used
+     */
+    private boolean encodeSounds() {
+        if (soundItems.isEmpty()) {
+            return true;
+        }
+        AudioMixer mixer = new AudioMixer(BITRATE, NUM_CHANNELS);
+        if (!mixer.addAll(soundItems)) {
+            return false;
+        }
+        mixer.normalize();
+        short[] samples = new short[AUDIO_CHUNK_FRAMES * NUM_CHANNELS];
+        for (int start = 0; start < mixer.getFrames(); start += AUDIO_CHUNK_FRAMES) {
+            int numFrames = Math.min(AUDIO_CHUNK_FRAMES, mixer.getFrames() - start);
+            if (numFrames < AUDIO_CHUNK_FRAMES) {
+                samples = new short[numFrames * NUM_CHANNELS];
+            }
+            long nanoseconds = start * 1000000000L / BITRATE;
+            writer.encodeAudio(1, mixer.toPCM16(start, numFrames, samples), nanoseconds, TimeUnit.NANOSECONDS);
+        }
+        JMathAnimScene.logger.info(soundItems.size() + " sounds added");
+        return true;
     }
 
     private void processSounds() {
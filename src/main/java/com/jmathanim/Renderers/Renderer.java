@@ -191,6 +191,18 @@ public abstract class Renderer {
 //        }
     };
 
+    /**
+     * Draws an object of the scene. The scene calls this method once per frame for every visible object not already
+     * drawn. By default it simply calls the draw method of the object. Renderers may override it to reuse the drawing
+     * of objects that did not change.
+     *
+     * @param obj   Object to draw
+     * @param scene Scene being drawn
+     */
+    public void drawSceneObject(MathObject<?> obj, JMathAnimScene scene) {
+        obj.draw(scene, this, obj.getCamera());
+    }
+
     /**
      * Draws the path of a JMPathObject This method will draw most of the
      * objects in the screen
@@ -2,10 +2,13 @@ package com.jmathanim.Renderers.SkijaRenderer;
 
 import com.jmathanim.Cameras.Camera;
 import com.jmathanim.MathObjects.AbstractShape;
+import com.jmathanim.MathObjects.Drawable;
+import com.jmathanim.MathObjects.hasShapes;
 import com.jmathanim.Styling.DrawStyleProperties;
 import com.jmathanim.Styling.PaintStyle;
 import com.jmathanim.Utils.Vec;
 import com.jmathanim.jmathanim.JMathAnimConfig;
+import com.jmathanim.jmathanim.JMathAnimScene;
 import io.github.humbleui.skija.*;
 
 import java.awt.image.BufferedImage;
@@ -21,6 +24,8 @@ public abstract class SkijaHandler {
     protected Camera camera;
     protected Camera fixedCamera;
     protected SkijaRenderer renderer;
+    protected SkijaToBufferedImage pixelReader;
+    protected SkijaPictureCache pictureCache;
 
 
     public SkijaHandler(JMathAnimConfig config) {
@@ -56,7 +61,7 @@ public abstract class SkijaHandler {
     protected void applyPaintCommands(AbstractShape<?> mobj) {
         PaintStyle drawStyle = mobj.getMp().getDrawColor();
         PaintStyle fillStyle = mobj.getMp().getFillColor();
-        Path path = skijaUtils.convertJMPathToSkijaPath(mobj.getPath());
+        Path path = skijaUtils.getSkijaPath(mobj.getPath());
         if (drawStyle.equals(fillStyle)) {
             Paint paint = skijaUtils.createFillAndDrawPaint(mobj,mobj.getMp());
             canvas.drawPath(path, paint);
@@ -86,6 +91,8 @@ public abstract class SkijaHandler {
         this.camera=config.getCamera();
         this.fixedCamera=config.getFixedCamera();
         skijaUtils = new SkijaUtils(this);
+        pixelReader = new SkijaToBufferedImage();
+        pictureCache = new SkijaPictureCache(this);
     }
 
     protected abstract void closeWindow();
@@ -122,11 +129,21 @@ public abstract class SkijaHandler {
 //    }
     protected abstract  BufferedImage getRenderedImage(int frameCount);
 
+    /**
+     * Copies the current rendered frame into the given image, avoiding the creation of a new one
+     *
+     * @param image A TYPE_3BYTE_BGR image with the same size as the surface
+     */
+    protected void copyRenderedImage(BufferedImage image) {
+        pixelReader.readTo3ByteBGR(surface, image);
+    }
+
 
     protected void clearAndPrepareCanvasForAnotherFrame() {
         //This should be done in Skija Thread
         canvas.clear(0xFFFFFFFF);//TODO: Add colors or background images
         cameraMatrix.clear();//Clear transform matrices from all cameras
+        pictureCache.newFrame();
     }
 
     protected abstract boolean isPreviewWindowVisible();
@@ -138,8 +155,37 @@ public abstract class SkijaHandler {
         this.renderer=skijaRenderer;
     }
 
+    /**
+     * Releases the resources cached for an object removed from the scene
+     *
+     * @param drawable The removed object
+     */
+    public void removeObject(Drawable drawable) {
+        if (skijaUtils == null) {
+            return;
+        }
+        pictureCache.evict(drawable);
+        if (drawable instanceof hasShapes) {
+            for (AbstractShape<?> sh : ((hasShapes) drawable).toShapesArray()) {
+                skijaUtils.evictSkijaPath(sh.getPath());
+            }
+        }
+    }
+
     public void finish() {
+        SkijaPathCache pathCache = skijaUtils.getPathCache();
+        JMathAnimScene.logger.debug("Skija path cache: " + pathCache.getHits() + " hits, "
+                + pathCache.getMisses() + " misses, " + pathCache.getEvictions() + " evictions");
+        pathCache.clear();
+        SkijaPaintCache paintCache = skijaUtils.getPaintCache();
+        JMathAnimScene.logger.debug("Skija paint cache: " + paintCache.getHits() + " hits, "
+                + paintCache.getMisses() + " misses");
+        paintCache.clear();
+        JMathAnimScene.logger.debug("Skija picture cache: " + pictureCache.getTotalRecorded() + " recorded, "
+                + pictureCache.getTotalReplayed() + " replayed");
+        pictureCache.clear();
         closeWindow();
+        pixelReader.close();
     }
 }
 
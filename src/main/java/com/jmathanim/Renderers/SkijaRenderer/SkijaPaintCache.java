@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import io.github.humbleui.skija.Paint;
+import io.github.humbleui.skija.PaintMode;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of Skija paints, keyed by the values that define them: paint mode, stroke width and color or gradient. Shapes
+ * with the same style share the same native paint, and gradient shaders are built only when a new key is found.
+ * <p>
+ * The number of paints is bounded. When the limit is exceeded, the least recently used paints are closed, so native
+ * memory does not grow with animations that change colors or thickness every frame. Paints returned by this cache are
+ * owned by it and should not be closed by the caller.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+class SkijaPaintCache {
+
+    /**
+     * Default maximum number of cached paints
+     */
+    public static final int DEFAULT_MAX_PAINTS = 512;
+
+    private final LinkedHashMap<Key, Paint> entries;
+    private final int maxPaints;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxPaints Maximum number of cached paints
+     */
+    SkijaPaintCache(int maxPaints) {
+        this.maxPaints = maxPaints;
+        entries = new LinkedHashMap<>(64, .75f, true);
+    }
+
+    /**
+     * Returns the paint for the given key, creating it if it is not cached
+     *
+     * @param key     Values that define the paint
+     * @param factory Function that creates a new paint from the key
+     * @return The paint. It should not be closed by the caller.
+     */
+    Paint get(Key key, Function<Key, Paint> factory) {
+        Paint paint = entries.get(key);
+        if (paint != null) {
+            hits++;
+            return paint;
+        }
+        misses++;
+        paint = factory.apply(key);
+        entries.put(key, paint);
+        trim();
+        return paint;
+    }
+
+    /**
+     * Closes and removes all cached paints
+     */
+    void clear() {
+        for (Paint paint : entries.values()) {
+            paint.close();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of times a cached paint was reused
+     *
+     * @return Number of hits
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of times a paint had to be created
+     *
+     * @return Number of misses
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of cached paints
+     *
+     * @return Number of paints
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Key, Paint>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxPaints) && it.hasNext()) {
+            it.next().getValue().close();
+            it.remove();
+        }
+    }
+
+    /**
+     * Kind of color of a paint
+     */
+    enum ColorKind {
+        /**
+         * No color is set, Skija default is used
+         */
+        NONE,
+        /**
+         * Plain color. Values are red, green, blue and alpha
+         */
+        COLOR,
+        /**
+         * Linear gradient. Values are x, y of start and end points
+         */
+        LINEAR_GRADIENT,
+        /**
+         * Radial gradient. Values are x, y of center and radius
+         */
+        RADIAL_GRADIENT
+    }
+
+    /**
+     * Immutable set of values that define a paint
+     */
+    static final class Key {
+
+        final PaintMode mode;
+        final float strokeWidth;
+        final ColorKind colorKind;
+        final float[] values;
+        final int[] colors;
+        final float[] stops;
+        private final int hash;
+
+        /**
+         * Creates a new key. Arrays are not copied, and should not be modified after
+         *
+         * @param mode        Paint mode
+         * @param strokeWidth Stroke width
+         * @param colorKind   Kind of color
+         * @param values      Color components or gradient geometry, as defined in {@link ColorKind}
+         * @param colors      Colors of the gradient stops, or null for plain colors
+         * @param stops       Positions of the gradient stops, or null for plain colors
+         */
+        Key(PaintMode mode, float strokeWidth, ColorKind colorKind, float[] values, int[] colors, float[] stops) {
+            this.mode = mode;
+            this.strokeWidth = strokeWidth;
+            this.colorKind = colorKind;
+            this.values = values;
+            this.colors = colors;
+            this.stops = stops;
+            int h = mode.hashCode();
+            h = 31 * h + Float.hashCode(strokeWidth);
+            h = 31 * h + colorKind.hashCode();
+            h = 31 * h + Arrays.hashCode(values);
+            h = 31 * h + Arrays.hashCode(colors);
+            h = 31 * h + Arrays.hashCode(stops);
+            hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return (hash == key.hash)
+                    && (mode == key.mode)
+                    && (Float.compare(strokeWidth, key.strokeWidth) == 0)
+                    && (colorKind == key.colorKind)
+                    && Arrays.equals(values, key.values)
+                    && Arrays.equals(colors, key.colors)
+                    && Arrays.equals(stops, key.stops);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
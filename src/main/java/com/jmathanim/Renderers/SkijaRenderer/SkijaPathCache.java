@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import io.github.humbleui.skija.Path;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of Skija paths, so that paths that do not change, like axes, grids or LaTeX glyphs, are converted only once.
+ * A cached path is reused while the version of its JMPath and its points is unchanged (see
+ * {@link JMPath#getMaxVersion()}), so the path itself is never updated while drawing.
+ * <p>
+ * Native memory is bounded by the total number of points of the cached paths. When the limit is exceeded, the least
+ * recently used paths are closed and removed. Paths returned by this cache are owned by it and should not be closed by
+ * the caller.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+class SkijaPathCache {
+
+    /**
+     * Default maximum number of points of all cached paths
+     */
+    public static final int DEFAULT_MAX_POINTS = 1_000_000;
+
+    private final LinkedHashMap<JMPath, CachedPath> entries;
+    private final int maxPoints;
+    private long cachedPoints;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxPoints Maximum number of points of all cached paths
+     */
+    SkijaPathCache(int maxPoints) {
+        this.maxPoints = maxPoints;
+        //JMPath does not override equals and hashCode, so keys are compared by identity. Access order gives LRU.
+        entries = new LinkedHashMap<>(256, .75f, true);
+    }
+
+    /**
+     * Returns the Skija path for the given JMPath, converting it only if it is not cached or its version changed
+     *
+     * @param jmpath    Path to convert
+     * @param converter Function that creates a new Skija path from the JMPath
+     * @return The Skija path. It should not be closed by the caller.
+     */
+    Path get(JMPath jmpath, Function<JMPath, Path> converter) {
+        final long version = jmpath.getMaxVersion();
+        CachedPath cached = entries.get(jmpath);
+        if ((cached != null) && (cached.version == version) && (cached.size == jmpath.size())) {
+            hits++;
+            return cached.path;
+        }
+        misses++;
+        if (cached != null) {
+            remove(jmpath);
+        }
+        cached = new CachedPath(converter.apply(jmpath), version, jmpath.size());
+        entries.put(jmpath, cached);
+        cachedPoints += cached.size;
+        trim(jmpath);
+        return cached.path;
+    }
+
+    /**
+     * Closes and removes the cached path of the given JMPath, if any
+     *
+     * @param jmpath The JMPath
+     */
+    void evict(JMPath jmpath) {
+        if (remove(jmpath)) {
+            evictions++;
+        }
+    }
+
+    /**
+     * Closes and removes all cached paths
+     */
+    void clear() {
+        for (CachedPath cached : entries.values()) {
+            cached.path.close();
+        }
+        entries.clear();
+        cachedPoints = 0;
+    }
+
+    /**
+     * Returns the number of times a cached path was reused
+     *
+     * @return Number of hits
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of times a path had to be converted
+     *
+     * @return Number of misses
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of paths removed because of the memory limit or because their objects were removed from the
+     * scene
+     *
+     * @return Number of evictions
+     */
+    long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of cached paths
+     *
+     * @return Number of paths
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private boolean remove(JMPath jmpath) {
+        CachedPath cached = entries.remove(jmpath);
+        if (cached == null) {
+            return false;
+        }
+        cachedPoints -= cached.size;
+        cached.path.close();
+        return true;
+    }
+
+    private void trim(JMPath keep) {
+        Iterator<Map.Entry<JMPath, CachedPath>> it = entries.entrySet().iterator();
+        while ((cachedPoints > maxPoints) && it.hasNext()) {
+            Map.Entry<JMPath, CachedPath> entry = it.next();
+            if (entry.getKey() == keep) {
+                continue;
+            }
+            cachedPoints -= entry.getValue().size;
+            entry.getValue().path.close();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static class CachedPath {
+
+        final Path path;
+        final long version;
+        final int size;
+
+        CachedPath(Path path, long version, int size) {
+            this.path = path;
+            this.version = version;
+            this.size = size;
+        }
+    }
+}
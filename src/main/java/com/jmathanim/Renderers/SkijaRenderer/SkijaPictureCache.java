@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import com.jmathanim.Cameras.Camera;
+import com.jmathanim.MathObjects.AbstractMultiShapeObject;
+import com.jmathanim.MathObjects.AbstractShape;
+import com.jmathanim.MathObjects.MathObject;
+import com.jmathanim.jmathanim.JMathAnimScene;
+import io.github.humbleui.skija.Canvas;
+import io.github.humbleui.skija.Picture;
+import io.github.humbleui.skija.PictureRecorder;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Records the drawing of scene objects that do not change into Skija pictures, and replays them in a single draw call
+ * in the next frames. This saves converting and drawing every shape of static objects with many shapes, like grids,
+ * axes with ticks and labels, or formulas.
+ * <p>
+ * While an object is drawn, the shapes it draws and the cameras used are collected. The object is recorded when these
+ * are unchanged from the previous frame, and the picture is replayed while they remain unchanged: same object and
+ * style versions, same versions of each shape, its style and its path, and same version of each camera, which
+ * changes with its math view.
+ * <p>
+ * Shapes drawn through this cache are marked as already drawn in the scene, both when drawn and when replayed, so that
+ * a shape added to the scene and also contained in a recorded object is drawn only once. Objects with shapes already
+ * drawn in the current frame by other objects are neither recorded nor replayed, as those shapes must be skipped.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+class SkijaPictureCache {
+
+    /**
+     * Minimum number of shapes drawn by an object to be recorded. Simpler objects are drawn directly.
+     */
+    public static final int MIN_SHAPES_TO_RECORD = 8;
+
+    private final SkijaHandler handler;
+    private final IdentityHashMap<MathObject<?>, Entry> entries;
+    private Entry collecting;
+    private int recordedInFrame;
+    private int replayedInFrame;
+    private long totalRecorded;
+    private long totalReplayed;
+
+    /**
+     * Creates a new cache
+     *
+     * @param handler Handler whose canvas is used to draw
+     */
+    SkijaPictureCache(SkijaHandler handler) {
+        this.handler = handler;
+        entries = new IdentityHashMap<>();
+    }
+
+    /**
+     * Draws the given object, replaying its recorded picture if it did not change
+     *
+     * @param obj   Object to draw
+     * @param scene Scene being drawn
+     */
+    void draw(MathObject<?> obj, JMathAnimScene scene) {
+        Entry entry = entries.get(obj);
+        if (entry == null) {
+            entry = new Entry(obj);
+            entries.put(obj, entry);
+        }
+        boolean unchanged = entry.isUnchanged();
+        boolean sharesDrawnShapes = entry.hasShapesAlreadyDrawn(scene);
+        if (unchanged && !sharesDrawnShapes && (entry.picture != null)) {
+            handler.canvas.drawPicture(entry.picture);
+            entry.markShapesAsDrawn(scene);
+            replayedInFrame++;
+            totalReplayed++;
+            return;
+        }
+        entry.closePicture();
+        entry.clearFingerprint();
+        collecting = entry;
+        if (unchanged && !sharesDrawnShapes && !entry.uncacheable
+                && (entry.numberOfShapesDrawn >= MIN_SHAPES_TO_RECORD)) {
+            Canvas canvas = handler.canvas;
+            try (PictureRecorder recorder = new PictureRecorder()) {
+                handler.canvas = recorder.beginRecording(io.github.humbleui.types.Rect.makeWH(
+                        handler.config.getMediaWidth(), handler.config.getMediaHeight()));
+                try {
+                    obj.draw(scene, handler.renderer, obj.getCamera());
+                } finally {
+                    handler.canvas = canvas;
+                    entry.picture = recorder.finishRecordingAsPicture();
+                }
+            } finally {
+                collecting = null;
+            }
+            canvas.drawPicture(entry.picture);
+            recordedInFrame++;
+            totalRecorded++;
+        } else {
+            try {
+                obj.draw(scene, handler.renderer, obj.getCamera());
+            } finally {
+                collecting = null;
+            }
+        }
+        entry.markShapesAsDrawn(scene);
+        entry.computeFingerprint();
+    }
+
+    /**
+     * Registers a shape drawn with the given camera, if an object is being drawn through this cache
+     *
+     * @param shape  Drawn shape
+     * @param camera Camera used
+     */
+    void shapeDrawn(AbstractShape<?> shape, Camera camera) {
+        if (collecting != null) {
+            collecting.drawnShapes.add(shape);
+            if (!collecting.cameras.contains(camera)) {
+                collecting.cameras.add(camera);
+            }
+        }
+    }
+
+    /**
+     * Marks the object being drawn through this cache, if any, as not recordable. This is used for drawings that
+     * depend on values not covered by the versions checked, like the anchor of absolute copies.
+     */
+    void uncacheableDrawn() {
+        if (collecting != null) {
+            collecting.uncacheable = true;
+        }
+    }
+
+    /**
+     * Closes and removes the recorded picture of the given object, if any
+     *
+     * @param obj The object
+     */
+    void evict(Object obj) {
+        Entry entry = entries.remove(obj);
+        if (entry != null) {
+            entry.closePicture();
+        }
+    }
+
+    /**
+     * Starts a new frame, resetting the frame counters
+     */
+    void newFrame() {
+        recordedInFrame = 0;
+        replayedInFrame = 0;
+    }
+
+    /**
+     * Closes and removes all recorded pictures
+     */
+    void clear() {
+        for (Entry entry : entries.values()) {
+            entry.closePicture();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of objects recorded in the current frame
+     *
+     * @return Number of recorded objects
+     */
+    int getRecordedInFrame() {
+        return recordedInFrame;
+    }
+
+    /**
+     * Returns the number of objects replayed from their recorded picture in the current frame
+     *
+     * @return Number of replayed objects
+     */
+    int getReplayedInFrame() {
+        return replayedInFrame;
+    }
+
+    /**
+     * Returns the total number of objects recorded
+     *
+     * @return Number of recordings
+     */
+    long getTotalRecorded() {
+        return totalRecorded;
+    }
+
+    /**
+     * Returns the total number of objects replayed from their recorded picture
+     *
+     * @return Number of replays
+     */
+    long getTotalReplayed() {
+        return totalReplayed;
+    }
+
+    private static class Entry {
+
+        final MathObject<?> obj;
+        final List<AbstractShape<?>> drawnShapes;
+        final List<AbstractShape<?>> shapes;
+        final List<Camera> cameras;
+        Picture picture;
+        int numberOfShapesDrawn;
+        boolean hasFingerprint;
+        boolean uncacheable;
+        long objVersion;
+        long objStyleVersion;
+        long[] shapeVersions;
+        long[] cameraVersions;
+
+        Entry(MathObject<?> obj) {
+            this.obj = obj;
+            drawnShapes = new ArrayList<>();
+            shapes = new ArrayList<>();
+            cameras = new ArrayList<>();
+            shapeVersions = new long[0];
+            cameraVersions = new long[0];
+        }
+
+        void clearFingerprint() {
+            hasFingerprint = false;
+            uncacheable = false;
+            drawnShapes.clear();
+            shapes.clear();
+            cameras.clear();
+        }
+
+        void computeFingerprint() {
+            numberOfShapesDrawn = drawnShapes.size();
+            shapes.clear();
+            if (obj instanceof AbstractMultiShapeObject) {
+                //Hidden shapes are not drawn, but they may be shown later without changing the object version
+                shapes.addAll(((AbstractMultiShapeObject<?, ?>) obj).getShapes());
+            } else {
+                shapes.addAll(drawnShapes);
+            }
+            objVersion = obj.getVersion();
+            objStyleVersion = obj.getMp().getVersion();
+            if (shapeVersions.length != 3 * shapes.size()) {
+                shapeVersions = new long[3 * shapes.size()];
+            }
+            for (int i = 0; i < shapes.size(); i++) {
+                AbstractShape<?> sh = shapes.get(i);
+                shapeVersions[3 * i] = sh.getVersion();
+                shapeVersions[3 * i + 1] = sh.getMp().getVersion();
+                shapeVersions[3 * i + 2] = sh.getPath().getMaxVersion();
+            }
+            //Cameras change their version when their math view changes
+            cameraVersions = new long[cameras.size()];
+            for (int i = 0; i < cameras.size(); i++) {
+                cameraVersions[i] = cameras.get(i).getVersion();
+            }
+            hasFingerprint = true;
+        }
+
+        boolean isUnchanged() {
+            if (!hasFingerprint) {
+                return false;
+            }
+            if ((obj.getVersion() != objVersion) || (obj.getMp().getVersion() != objStyleVersion)) {
+                return false;
+            }
+            if ((obj instanceof AbstractMultiShapeObject)
+                    && (((AbstractMultiShapeObject<?, ?>) obj).getShapes().size() != shapes.size())) {
+                return false;
+            }
+            for (int i = 0; i < shapes.size(); i++) {
+                AbstractShape<?> sh = shapes.get(i);
+                if ((sh.getVersion() != shapeVersions[3 * i])
+                        || (sh.getMp().getVersion() != shapeVersions[3 * i + 1])
+                        || (sh.getPath().getMaxVersion() != shapeVersions[3 * i + 2])) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < cameras.size(); i++) {
+                if (cameras.get(i).getVersion() != cameraVersions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns true if any shape of the object was already drawn in the current frame by another object. Those
+         * shapes are skipped when drawing the object, so a picture recorded without them, or with them, would not match.
+         */
+        boolean hasShapesAlreadyDrawn(JMathAnimScene scene) {
+            List<? extends AbstractShape<?>> candidates = (obj instanceof AbstractMultiShapeObject)
+                    ? ((AbstractMultiShapeObject<?, ?>) obj).getShapes()
+                    : drawnShapes;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (scene.isAlreadydrawn(candidates.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void markShapesAsDrawn(JMathAnimScene scene) {
+            for (int i = 0; i < drawnShapes.size(); i++) {
+                scene.markAsAlreadydrawn(drawnShapes.get(i));
+            }
+        }
+
+        void closePicture() {
+            if (picture != null) {
+                picture.close();
+                picture = null;
+            }
+        }
+    }
+}
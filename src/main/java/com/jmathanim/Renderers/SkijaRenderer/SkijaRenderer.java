@@ -6,7 +6,9 @@ import com.jmathanim.MathObjects.AbstractShape;
 import com.jmathanim.MathObjects.Drawable;
 import com.jmathanim.MathObjects.MathObject;
 import com.jmathanim.Renderers.FXRenderer.JavaFXRenderer;
+import com.jmathanim.Renderers.MovieEncoders.AsyncVideoEncoder;
 import com.jmathanim.Renderers.MovieEncoders.SoundItem;
+import com.jmathanim.Renderers.MovieEncoders.VideoEncoder;
 import com.jmathanim.Renderers.MovieEncoders.XugglerVideoEncoder;
 import com.jmathanim.Renderers.Renderer;
 import com.jmathanim.Styling.RendererEffects;
@@ -30,7 +32,7 @@ public class SkijaRenderer extends Renderer {
     private final Camera fixedCamera;
     private final AtomicBoolean keepRunning = new AtomicBoolean(true);
     private final SkijaHandler skijaHandler;
-    private XugglerVideoEncoder videoEncoder;
+    private VideoEncoder videoEncoder;
     private File saveFilePath;
 
     public SkijaRenderer(JMathAnimScene parentScene) {
@@ -68,11 +70,11 @@ public class SkijaRenderer extends Renderer {
     private void prepareEncoder() throws Exception {
         if (config.isCreateMovie()) {
             JMathAnimScene.logger.debug("Preparing video encoder");
-            videoEncoder = new XugglerVideoEncoder();
+            videoEncoder = AsyncVideoEncoder.wrap(new XugglerVideoEncoder(), config);
             File tempPath = new File(config.getOutputDir().getCanonicalPath());
             tempPath.mkdirs();
             saveFilePath = new File(config.getOutputDir().getCanonicalPath() + File.separator
-                    + config.getOutputFileName() + "_" + config.getMediaHeight() + ".mp4");
+                    + config.getOutputFileName() + "_" + config.getMediaHeight() + config.getShardSuffix() + ".mp4");
             JMathAnimScene.logger.info("Creating movie encoder for " + LogUtils.fileName(saveFilePath.toString()));
             config.setSaveFilePath(saveFilePath);
             videoEncoder.createEncoder(config);
@@ -111,22 +113,67 @@ public class SkijaRenderer extends Renderer {
 
     @Override
     public void removeObject(Drawable drawable) {
+        skijaHandler.removeObject(drawable);
+    }
+
+    /**
+     * Returns the number of times a Skija path was reused because its JMPath did not change
+     *
+     * @return Number of cache hits
+     */
+    public long getPathCacheHits() {
+        return skijaHandler.skijaUtils.getPathCache().getHits();
+    }
+
+    /**
+     * Returns the number of times a JMPath had to be converted into a new Skija path
+     *
+     * @return Number of cache misses
+     */
+    public long getPathCacheMisses() {
+        return skijaHandler.skijaUtils.getPathCache().getMisses();
+    }
 
+    /**
+     * Returns the number of objects recorded into a picture in the current frame
+     *
+     * @return Number of recorded objects
+     */
+    public int getRecordedObjectsInFrame() {
+        return skijaHandler.pictureCache.getRecordedInFrame();
+    }
+
+    /**
+     * Returns the number of objects drawn by replaying their recorded picture in the current frame
+     *
+     * @return Number of replayed objects
+     */
+    public int getReplayedObjectsInFrame() {
+        return skijaHandler.pictureCache.getReplayedInFrame();
     }
 
     @Override
     public void saveFrame(int frameCount) {
-        BufferedImage renderedImage = getRenderedImage(frameCount);
-        if (config.isShowPreview() && skijaHandler.isPreviewWindowVisible()) {
-            skijaHandler.updateImagePreviewWindow(renderedImage);
-        }
+        BufferedImage renderedImage;
         if (config.isCreateMovie()) {
-            videoEncoder.writeFrame(renderedImage, frameCount);
+            //The encoder provides the buffer, which blocks if too many frames are waiting to be encoded
+            renderedImage = videoEncoder.acquireFrameBuffer(config.getMediaWidth(), config.getMediaHeight());
+            skijaHandler.copyRenderedImage(renderedImage);
+        } else {
+            renderedImage = getRenderedImage(frameCount);
+        }
+        if (config.isShowPreview() && skijaHandler.isPreviewWindowVisible()) {
+            //The preview window paints its image later, so it cannot be given a buffer recycled by the encoder
+            skijaHandler.updateImagePreviewWindow(config.isCreateMovie() ? getRenderedImage(frameCount) : renderedImage);
         }
         if (config.isSaveToPNG()) {
             String filename = config.getOutputFileName() + String.format("%06d", frameCount) + ".png";
             writeImageToPNG(filename, renderedImage, "png");
         }
+        //This should be the last operation, as the buffer may be recycled once encoded
+        if (config.isCreateMovie()) {
+            videoEncoder.writeFrame(renderedImage, frameCount);
+        }
     }
 
     @Override
@@ -175,13 +222,24 @@ public class SkijaRenderer extends Renderer {
         drawPath(mobj, cam);
     }
 
+    @Override
+    public void drawSceneObject(MathObject<?> obj, JMathAnimScene scene) {
+        if (config.isCacheStaticObjects()) {
+            skijaHandler.pictureCache.draw(obj, scene);
+        } else {
+            super.drawSceneObject(obj, scene);
+        }
+    }
+
     @Override
     public void drawPath(AbstractShape<?> mobj, Vec shiftVector, Camera camera) {
+        skijaHandler.pictureCache.shapeDrawn(mobj, camera);
         skijaHandler.drawPath(mobj, camera);
     }
 
     @Override
     public void drawAbsoluteCopy(AbstractShape<?> sh, Vec anchor) {
+        skijaHandler.pictureCache.uncacheableDrawn();
         skijaHandler.drawAbsoluteCopy(sh, anchor, fixedCamera);
     }
 
@@ -17,6 +17,12 @@ public class SkijaSwingHandler extends SkijaHandler {
     private final AtomicBoolean keepRunning;
     private SkijaSwingPreviewWindow previewWindow;
     AtomicReference<JFrame> frameRef = new AtomicReference<>();
+    /**
+     * Two images are used alternately, so that the preview window can still paint the previous frame while the next
+     * one is read
+     */
+    private final BufferedImage[] frameImages = new BufferedImage[2];
+    private int currentFrameImage = 0;
 
 
     public SkijaSwingHandler(JMathAnimConfig config, AtomicBoolean keepRunning) {
@@ -87,7 +93,14 @@ public class SkijaSwingHandler extends SkijaHandler {
     }
     @Override
     protected BufferedImage getRenderedImage(int frameCount) {
-        return SkijaToBufferedImage.convertTo3ByteBGR(surface);
+        currentFrameImage = 1 - currentFrameImage;
+        BufferedImage image = frameImages[currentFrameImage];
+        if ((image == null) || (image.getWidth() != surface.getWidth()) || (image.getHeight() != surface.getHeight())) {
+            image = new BufferedImage(surface.getWidth(), surface.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+            frameImages[currentFrameImage] = image;
+        }
+        copyRenderedImage(image);
+        return image;
     }
 
 }
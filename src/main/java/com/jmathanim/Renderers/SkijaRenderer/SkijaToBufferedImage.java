@@ -7,41 +7,33 @@ import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 
-public class SkijaToBufferedImage {
+/**
+ * Reads the pixels of a Skija surface into BufferedImage objects. An instance of this class keeps a Skija bitmap and
+ * a row buffer sized to the surface, so that reading a frame into an existing image allocates nothing. Pixels are
+ * read directly from the surface, with no intermediate snapshot image, and copied in bulk. The static methods create
+ * a temporary reader, for one-time conversions.
+ */
+public class SkijaToBufferedImage implements AutoCloseable {
+    private Bitmap bitmap;
+    private ByteBuffer pixels;
+    private IntBuffer pixelsARGB;
+    private byte[] row;
+    private int width;
+    private int height;
+
     /**
      * Convert Skija image to BGRA Imagebuffer
      * @param surface Skija surface
      * @return BufferImage output
      */
     public static BufferedImage convertTo4ByteRGBA(Surface surface) {
-        int width = surface.getWidth();
-        int height = surface.getHeight();
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
-
-        try (Image snapshot = surface.makeImageSnapshot();
-             Bitmap bitmap = new Bitmap()) {
-
-            bitmap.allocPixels(ImageInfo.makeN32Premul(width, height));
-
-            boolean ok = snapshot.readPixels(null, bitmap, 0, 0, true);
-            if (!ok) throw new RuntimeException("readPixels failed");
-
-            ByteBuffer buffer = bitmap.peekPixels();
-            buffer.rewind();
-
-            for (int i = 0; i < width * height; i++) {
-                int b = buffer.get() & 0xFF;
-                int g = buffer.get() & 0xFF;
-                int r = buffer.get() & 0xFF;
-                int a = buffer.get() & 0xFF;
-                argb[i] = (a << 24) | (r << 16) | (g << 8) | b;
-            }
+        BufferedImage image = new BufferedImage(surface.getWidth(), surface.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        try (SkijaToBufferedImage reader = new SkijaToBufferedImage()) {
+            reader.readTo4ByteARGB(surface, image);
         }
-
         return image;
     }
 
@@ -51,36 +43,93 @@ public class SkijaToBufferedImage {
      * @return BufferImage output
      */
     public static BufferedImage convertTo3ByteBGR(Surface surface) {
-        int width = surface.getWidth();
-        int height = surface.getHeight();
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-
-        try (Image snapshot = surface.makeImageSnapshot();
-             Bitmap bitmap = new Bitmap()) {
-
-            bitmap.allocPixels(ImageInfo.makeN32Premul(width, height));
+        BufferedImage image = new BufferedImage(surface.getWidth(), surface.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        convertTo3ByteBGR(surface, image);
+        return image;
+    }
 
-            boolean ok = snapshot.readPixels(null, bitmap, 0, 0, true);
-            if (!ok) throw new RuntimeException("readPixels failed");
+    /**
+     * Copy Skija image to an existing BGR Imagebuffer, with no alpha channel.
+     * @param surface Skija surface
+     * @param image A TYPE_3BYTE_BGR image with the same size as the surface
+     */
+    public static void convertTo3ByteBGR(Surface surface, BufferedImage image) {
+        try (SkijaToBufferedImage reader = new SkijaToBufferedImage()) {
+            reader.readTo3ByteBGR(surface, image);
+        }
+    }
 
-            ByteBuffer buffer = bitmap.peekPixels();
-            buffer.rewind();
+    /**
+     * Reads the surface pixels into the reusable bitmap. The bitmap is only allocated again if the surface size
+     * changes.
+     *
+     * @param surface Skija surface
+     */
+    private void readSurface(Surface surface) {
+        int w = surface.getWidth();
+        int h = surface.getHeight();
+        if ((bitmap == null) || (w != width) || (h != height)) {
+            close();
+            width = w;
+            height = h;
+            bitmap = new Bitmap();
+            //Explicit BGRA order, so that a little endian int view matches ARGB ints
+            bitmap.allocPixels(new ImageInfo(width, height, ColorType.BGRA_8888, ColorAlphaType.PREMUL));
+            pixels = bitmap.peekPixels().order(ByteOrder.LITTLE_ENDIAN);
+            pixelsARGB = pixels.asIntBuffer();
+            row = new byte[width * 4];
+        }
+        boolean ok = surface.readPixels(bitmap, 0, 0);
+        if (!ok) throw new RuntimeException("readPixels failed");
+    }
 
-            for (int i = 0, j = 0; i < width * height; i++, j += 3) {
-                byte b = buffer.get();   // B
-                byte g = buffer.get();   // G
-                byte r = buffer.get();   // R
-                buffer.get();            // A → lo ignoramos
-                data[j] = b;
-                data[j + 1] = g;
-                data[j + 2] = r;
+    /**
+     * Reads the surface into an existing BGR image, with no alpha channel.
+     *
+     * @param surface Skija surface
+     * @param image   A TYPE_3BYTE_BGR image with the same size as the surface
+     */
+    public void readTo3ByteBGR(Surface surface, BufferedImage image) {
+        readSurface(surface);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final int rowBytes = width * 4;
+        for (int y = 0, j = 0; y < height; y++) {
+            pixels.position(y * rowBytes);
+            pixels.get(row, 0, rowBytes);
+            for (int i = 0; i < rowBytes; i += 4, j += 3) {
+                data[j] = row[i];         // B
+                data[j + 1] = row[i + 1]; // G
+                data[j + 2] = row[i + 2]; // R, alpha is ignored
             }
         }
+    }
 
-        return image;
+    /**
+     * Reads the surface into an existing ARGB image.
+     *
+     * @param surface Skija surface
+     * @param image   A TYPE_INT_ARGB image with the same size as the surface
+     */
+    public void readTo4ByteARGB(Surface surface, BufferedImage image) {
+        readSurface(surface);
+        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        pixelsARGB.position(0);
+        pixelsARGB.get(argb, 0, width * height);
+    }
+
+    /**
+     * Releases the native bitmap used by this reader
+     */
+    @Override
+    public void close() {
+        if (bitmap != null) {
+            bitmap.close();
+            bitmap = null;
+            pixels = null;
+            pixelsARGB = null;
+        }
     }
+
     public static BufferedImage convertGLtoBufferedImage(DirectContext context, Surface surface) {
         // 1. Captura la imagen actual de la Surface
         Image snapshot = surface.makeImageSnapshot();
@@ -10,13 +10,19 @@ import com.jmathanim.Utils.Vec;
 import com.jmathanim.jmathanim.JMathAnimConfig;
 import io.github.humbleui.skija.*;
 
-import java.util.HashMap;
 import java.util.Map;
 
 
 class SkijaUtils {
     private final JMathAnimConfig config;
-    private final HashMap<JMPath, Path> paths;
+    /**
+     * Skija paths of the drawn JMPaths, reused while they do not change
+     */
+    private final SkijaPathCache pathCache;
+    /**
+     * Skija paints of the drawn styles, shared between shapes with the same style
+     */
+    private final SkijaPaintCache paintCache;
     private final Canvas canvas;
     private final SkijaHandler handler;
 
@@ -24,7 +30,8 @@ class SkijaUtils {
         this.config = handler.config;
         this.canvas = handler.canvas;
         this.handler = handler;
-        paths = new HashMap<>();
+        pathCache = new SkijaPathCache(SkijaPathCache.DEFAULT_MAX_POINTS);
+        paintCache = new SkijaPaintCache(SkijaPaintCache.DEFAULT_MAX_PAINTS);
     }
 
     public void clearFrame() {
@@ -56,26 +63,57 @@ class SkijaUtils {
     }
 
     /**
-     * Converts JMPath to format suitable to be drawn by Skija
+     * Returns the Skija path to draw the given JMPath. The path is converted only if it changed since the last time it
+     * was drawn. The returned path is owned by the cache and should not be closed.
+     *
+     * @param jmpath JMPath to draw
+     * @return Skija Path object
+     */
+    protected Path getSkijaPath(JMPath jmpath) {
+        return pathCache.get(jmpath, this::convertJMPathToSkijaPath);
+    }
+
+    /**
+     * Removes from the cache the Skija path of the given JMPath, if any
+     *
+     * @param jmpath The JMPath
+     */
+    protected void evictSkijaPath(JMPath jmpath) {
+        pathCache.evict(jmpath);
+    }
+
+    /**
+     * Returns the cache of Skija paths
+     *
+     * @return The path cache
+     */
+    protected SkijaPathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Converts JMPath to format suitable to be drawn by Skija. A new path is created every time, use
+     * {@link #getSkijaPath(JMPath)} to reuse paths that did not change.
      *
      * @param jmpath JMPath to transform
      * @return Skija Path object
      */
     protected Path convertJMPathToSkijaPath(JMPath jmpath) {
-//        if (paths.containsKey(jmpath)) {
-//            return paths.get(jmpath);
-//        }
-
         Path path = new Path();
-        Vec prev = jmpath.getJmPathPoints().get(0).getV().copy();
+        final int size = jmpath.size();
+        if (size == 0) {
+            return path;
+        }
+        //The path is closed in the same way as JMPath: the segment to the first point is drawn at the end, if visible
+        JMPathPoint previous = jmpath.get(0);
+        Vec prev = previous.getV();
         path.moveTo((float) prev.x, (float) prev.y);
-        for (int n = 1; n < jmpath.size() + 1; n++) {
-            Vec point = jmpath.getJmPathPoints().get(n).getV();
-            Vec cpoint1 = jmpath.getJmPathPoints().get(n - 1).getVExit();
-            Vec cpoint2 = jmpath.getJmPathPoints().get(n).getVEnter();
-
-            if (jmpath.getJmPathPoints().get(n).isSegmentToThisPointVisible()) {
-                JMPathPoint jp = jmpath.getJmPathPoints().get(n);
+        for (int n = 1; n < size + 1; n++) {
+            JMPathPoint jp = jmpath.get(n % size);
+            Vec point = jp.getV();
+            if (jp.isSegmentToThisPointVisible()) {
+                Vec cpoint1 = previous.getVExit();
+                Vec cpoint2 = jp.getVEnter();
                 //Should remove this in Skija?
                 if ((!jp.isSegmentToThisPointCurved()) || ((isAbsEquiv(prev, cpoint1, .1)) && (isAbsEquiv(point, cpoint2, .0001)))) {
                     path.lineTo((float) point.x, (float) point.y);
@@ -85,9 +123,9 @@ class SkijaUtils {
             } else {
                 path.moveTo((float) point.x, (float) point.y);
             }
-            prev.copyCoordinatesFrom(point);
+            previous = jp;
+            prev = point;
         }
-//        paths.put(jmpath, path);
         return path;
     }
 
@@ -97,111 +135,118 @@ class SkijaUtils {
     }
 
     /**
-     * Create skija paint parameters from JMathAnim style properties object
+     * Returns a skija stroke paint from JMathAnim style properties object. Paints are cached and shared between shapes
+     * with the same style, so the returned paint should not be modified or closed.
      *
-     * @param style Shape object to get styles
-     * @return
+     * @param obj   Object to draw, used for gradients relative to the shape
+     * @param style Style properties
+     * @return The paint
      */
     protected Paint createDrawPaint(MathObject obj, DrawStyleProperties style) {
-        Paint paint = new Paint();
-        paint.setMode(PaintMode.STROKE);
-        setColor(paint, obj, style.getDrawColor());
         float th = (float) handler.ThicknessToMathWidth(style);
-        applyThickness(th, paint);
-        return paint;
+        return getPaint(PaintMode.STROKE, th, obj, style.getDrawColor());
     }
 
     protected Paint createFillPaint(MathObject obj, DrawStyleProperties style) {
-        Paint paint = new Paint();
-        paint.setMode(PaintMode.FILL);
-        setColor(paint, obj, style.getFillColor());
-        return paint;
+        return getPaint(PaintMode.FILL, 0, obj, style.getFillColor());
     }
 
     protected Paint createFillAndDrawPaint(MathObject obj, DrawStyleProperties style) {
-        Paint paint = new Paint();
-        paint.setMode(PaintMode.STROKE_AND_FILL);
-        setColor(paint, obj, style.getDrawColor());
         //Stroke width 4=height of media???
         float th = (float) handler.ThicknessToMathWidth(style);
-        applyThickness(th, paint);
-        return paint;
+        return getPaint(PaintMode.STROKE_AND_FILL, th, obj, style.getDrawColor());
     }
 
-    private void applyThickness(float th, Paint paint) {
-        paint.setStrokeWidth(th);
+    /**
+     * Returns the cache of Skija paints
+     *
+     * @return The paint cache
+     */
+    protected SkijaPaintCache getPaintCache() {
+        return paintCache;
     }
 
+    private Paint getPaint(PaintMode mode, float strokeWidth, MathObject obj, PaintStyle color) {
+        return paintCache.get(createPaintKey(mode, strokeWidth, obj, color), this::createPaint);
+    }
 
-    private void setColor(Paint paint, MathObject obj, PaintStyle color) {
+    private SkijaPaintCache.Key createPaintKey(PaintMode mode, float strokeWidth, MathObject obj, PaintStyle color) {
         if (color instanceof JMColor) {
             JMColor jmColor = (JMColor) color;
-            paint.setColor4f(new Color4f((float) jmColor.getRed(), (float) jmColor.getGreen(), (float) jmColor.getBlue(), (float) jmColor.getAlpha()));
+            float[] values = {(float) jmColor.getRed(), (float) jmColor.getGreen(), (float) jmColor.getBlue(), (float) jmColor.getAlpha()};
+            return new SkijaPaintCache.Key(mode, strokeWidth, SkijaPaintCache.ColorKind.COLOR, values, null, null);
         }
         if (color instanceof JMLinearGradient) {
-            paint.setShader(buildLinearGradient(obj, (JMLinearGradient) color));
+            JMLinearGradient jmLinearGradient = (JMLinearGradient) color;
+            Vec vStart, vEnd;
+            if (jmLinearGradient.isRelativeToShape()) {
+                Rect bb = obj.getBoundingBox();
+                vStart = bb.getRelVec(jmLinearGradient.getStart());
+                vEnd = bb.getRelVec(jmLinearGradient.getEnd());
+            } else {
+                vStart = jmLinearGradient.getStart();
+                vEnd = jmLinearGradient.getEnd();
+            }
+            float[] values = {(float) vStart.x, (float) vStart.y, (float) vEnd.x, (float) vEnd.y};
+            return createGradientKey(mode, strokeWidth, SkijaPaintCache.ColorKind.LINEAR_GRADIENT, values, jmLinearGradient.getStops());
         }
         if (color instanceof JMRadialGradient) {
-            paint.setShader(buildRadialGradient(obj, (JMRadialGradient) color));
+            JMRadialGradient jmRadialGradient = (JMRadialGradient) color;
+            Vec vCenter;
+            float radius;
+            if (jmRadialGradient.isRelativeToShape()) {
+                Rect bb = obj.getBoundingBox();
+                radius = (float) Math.max(bb.getHeight(), bb.getWidth());
+                vCenter = bb.getCenter();
+            } else {
+                vCenter = jmRadialGradient.getCenter();
+                radius = (float) jmRadialGradient.getRadius();
+            }
+            float[] values = {(float) vCenter.x, (float) vCenter.y, radius};
+            return createGradientKey(mode, strokeWidth, SkijaPaintCache.ColorKind.RADIAL_GRADIENT, values, jmRadialGradient.getStops());
         }
+        return new SkijaPaintCache.Key(mode, strokeWidth, SkijaPaintCache.ColorKind.NONE, null, null, null);
     }
 
-    private Shader buildRadialGradient(MathObject obj, JMRadialGradient jmRadialGradient) {
-        Vec vCenter;
-        float radius;
-
-        if (jmRadialGradient.isRelativeToShape()) {
-            Rect bb=obj.getBoundingBox();
-             radius = (float) Math.max(bb.getHeight(), bb.getWidth());
-
-            vCenter=bb.getCenter();
-
-        } else {
-            vCenter=jmRadialGradient.getCenter();
-            radius= (float) jmRadialGradient.getRadius();
-        }
-
-
-
-
-
-        GradientStop stops = jmRadialGradient.getStops();
+    private SkijaPaintCache.Key createGradientKey(PaintMode mode, float strokeWidth, SkijaPaintCache.ColorKind kind, float[] values, GradientStop stops) {
         int[] colors = new int[stops.size()];
         float[] stopsf = new float[stops.size()];
-
         int i = 0;
         for (Map.Entry<Double, JMColor> entry : stops.getColorTreeMap().entrySet()) {
             colors[i] = jmColorToInt(entry.getValue());
             stopsf[i] = entry.getKey().floatValue();
             i++;
         }
-
-        return Shader.makeRadialGradient((float) vCenter.x, (float) vCenter.y, radius, colors, stopsf);
-
+        return new SkijaPaintCache.Key(mode, strokeWidth, kind, values, colors, stopsf);
     }
 
-    private Shader buildLinearGradient(MathObject obj, JMLinearGradient jmLinearGradient) {
-        Vec vStart, vEnd;
-        if (jmLinearGradient.isRelativeToShape()) {
-            Rect bb=obj.getBoundingBox();
-            vStart = bb.getRelVec(jmLinearGradient.getStart());
-            vEnd = bb.getRelVec(jmLinearGradient.getEnd());
-
-        } else {
-            vStart = jmLinearGradient.getStart();
-            vEnd = jmLinearGradient.getEnd();
+    private Paint createPaint(SkijaPaintCache.Key key) {
+        Paint paint = new Paint();
+        paint.setMode(key.mode);
+        if (key.mode != PaintMode.FILL) {
+            paint.setStrokeWidth(key.strokeWidth);
         }
-        GradientStop stops = jmLinearGradient.getStops();
-        int[] colors = new int[stops.size()];
-        float[] stopsf = new float[stops.size()];
-
-        int i = 0;
-        for (Map.Entry<Double, JMColor> entry : stops.getColorTreeMap().entrySet()) {
-            colors[i] = jmColorToInt(entry.getValue());
-            stopsf[i] = entry.getKey().floatValue();
-            i++;
+        final float[] v = key.values;
+        Shader shader = null;
+        switch (key.colorKind) {
+            case COLOR:
+                paint.setColor4f(new Color4f(v[0], v[1], v[2], v[3]));
+                break;
+            case LINEAR_GRADIENT:
+                shader = Shader.makeLinearGradient(v[0], v[1], v[2], v[3], key.colors, key.stops);
+                break;
+            case RADIAL_GRADIENT:
+                shader = Shader.makeRadialGradient(v[0], v[1], v[2], key.colors, key.stops);
+                break;
+            default:
+                break;
+        }
+        if (shader != null) {
+            paint.setShader(shader);
+            //The paint keeps its own reference to the native shader
+            shader.close();
         }
-        return Shader.makeLinearGradient((float) vStart.x, (float) vStart.y, (float) vEnd.x, (float) vEnd.y, colors, stopsf);
+        return paint;
     }
 
 
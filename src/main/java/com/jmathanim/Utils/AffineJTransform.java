@@ -19,12 +19,13 @@ package com.jmathanim.Utils;
 
 import com.jmathanim.MathObjects.Coordinates;
 import com.jmathanim.MathObjects.MathObject;
+import com.jmathanim.MathObjects.Shapes.JMPathPoint;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationOrder;
-import org.apache.commons.math3.linear.LUDecomposition;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularMatrixException;
 
 /**
  * This class handles affine transform, both in 2D and 3D To restrict transforms
@@ -32,24 +33,39 @@ import org.apache.commons.math3.linear.RealMatrix;
  * Affine transform Matrix has the following form: 1 x y z 0 vx vy vz 0 wx wy wz
  * 0 tx ty tz Where x,y,z is the image of (0,0,0) and v,w,z are the images of
  * canonical vectors
+ * <p>
+ * The matrix is stored as a primitive array, and transforms are applied in place, without creating intermediate
+ * objects. A commons-math {@link RealMatrix} can be obtained with {@link #getMatrix()}.
  *
  * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
  */
 public class AffineJTransform  {
 
     /**
-     * Matrix that stores the transform, with the following form: {{1, x, y, z},
+     * Pivots smaller than this value are considered zero when computing inverse transforms
+     */
+    private static final double SINGULARITY_THRESHOLD = 1e-11;
+
+    /**
+     * Matrix that stores the transform, in row-major order, with the following form: {{1, x, y, z},
      * {0, vx, vy, vz},{0, wx, wy, wz},{0 tx ty tz}} Where x,y,z is the image of
      * (0,0,0) and v,w,t are the images of canonical vectors.
      */
-    public RealMatrix matrix;
-    public RealMatrix matrixBackup;
+    private final double[] m;
 
     /**
      * Creates a new Identity transform
      */
     public AffineJTransform() {
-        this(MatrixUtils.createRealIdentityMatrix(4));
+        m = new double[]{
+                1, 0, 0, 0,
+                0, 1, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1};
+    }
+
+    private AffineJTransform(double[] m) {
+        this.m = m;
     }
 
     /**
@@ -60,20 +76,118 @@ public class AffineJTransform  {
      * v,w,z are the images of canonical vectors.
      */
     public AffineJTransform(RealMatrix rm) {
-        this.matrix = rm;
+        this.m = new double[16];
+        setMatrix(rm);
     }
 
+    /**
+     * Returns the matrix of this transform, as a commons-math matrix. The returned matrix is a copy, so changes in it
+     * are not reflected in this transform.
+     *
+     * @return A new 4x4 matrix
+     */
     public RealMatrix getMatrix() {
-        return matrix;
+        double[][] data = new double[4][];
+        for (int i = 0; i < 4; i++) {
+            data[i] = getRow(i);
+        }
+        return MatrixUtils.createRealMatrix(data);
     }
 
+    /**
+     * Sets the matrix of this transform, copying the values of the given 4x4 matrix
+     *
+     * @param matrix The matrix
+     */
     public void setMatrix(RealMatrix matrix) {
-        this.matrix = matrix;
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                m[4 * i + j] = matrix.getEntry(i, j);
+            }
+        }
+    }
+
+    /**
+     * Returns an element of the matrix of this transform
+     *
+     * @param row    Row, from 0 to 3
+     * @param column Column, from 0 to 3
+     * @return The element
+     */
+    public double getEntry(int row, int column) {
+        return m[4 * row + column];
+    }
+
+    /**
+     * Returns a copy of a row of the matrix of this transform
+     *
+     * @param row Row, from 0 to 3
+     * @return An array with the 4 elements of the row
+     */
+    public double[] getRow(int row) {
+        double[] resul = new double[4];
+        System.arraycopy(m, 4 * row, resul, 0, 4);
+        return resul;
+    }
+
+    private void setRow(int row, double a, double b, double c, double d) {
+        m[4 * row] = a;
+        m[4 * row + 1] = b;
+        m[4 * row + 2] = c;
+        m[4 * row + 3] = d;
     }
 
     public AffineJTransform copy() {
-        RealMatrix copyMatrix = this.matrix.copy();
-        return new AffineJTransform(copyMatrix);
+        return new AffineJTransform(m.clone());
+    }
+
+    /**
+     * Applies this transform to the given vector, modifying its coordinates. The version of the vector is not changed.
+     *
+     * @param v Vector to transform
+     * @return The same vector
+     */
+    public Vec transform(Vec v) {
+        final double x = v.x, y = v.y, z = v.z;
+        v.x = m[1] + x * m[5] + y * m[9] + z * m[13];
+        v.y = m[2] + x * m[6] + y * m[10] + z * m[14];
+        v.z = m[3] + x * m[7] + y * m[11] + z * m[15];
+        return v;
+    }
+
+    /**
+     * Applies this transform to the point and both control points of the given JMPathPoint, modifying their
+     * coordinates. Versions are not changed.
+     *
+     * @param jmp Point to transform
+     * @return The same point
+     */
+    public JMPathPoint transform(JMPathPoint jmp) {
+        transform(jmp.getV());
+        transform(jmp.getVEnter());
+        transform(jmp.getVExit());
+        return jmp;
+    }
+
+    /**
+     * Applies this transform to an array of packed coordinates x, y, z, modifying it
+     *
+     * @param coords Array of coordinates
+     * @param start  Index of the x coordinate of the first point to transform
+     * @param count  Number of points to transform
+     */
+    public void transformCoordinates(double[] coords, int start, int count) {
+        final double tx = m[1], ty = m[2], tz = m[3];
+        final double xx = m[5], xy = m[6], xz = m[7];
+        final double yx = m[9], yy = m[10], yz = m[11];
+        final double zx = m[13], zy = m[14], zz = m[15];
+        final int end = start + 3 * count;
+        for (int i = start; i < end; i += 3) {
+            final double x = coords[i], y = coords[i + 1], z = coords[i + 2];
+            coords[i] = tx + x * xx + y * yx + z * zx;
+            coords[i + 1] = ty + x * xy + y * yy + z * zy;
+            coords[i + 2] = tz + x * xz + y * yz + z * zz;
+        }
     }
 
     /**
@@ -106,7 +220,7 @@ public class AffineJTransform  {
      * @param z z-coordinate of image of origin (0,0,0)
      */
     public void setOriginImg(double x, double y, double z) {
-        matrix.setRow(0, new double[]{1, x, y, z});
+        setRow(0, 1, x, y, z);
     }
 
     /**
@@ -128,7 +242,7 @@ public class AffineJTransform  {
      * @param z z-coordinate of image of the first canonical vector (1,0,0)
      */
     public void setV1Img(double x, double y, double z) {
-        matrix.setRow(1, new double[]{0, x, y, z});
+        setRow(1, 0, x, y, z);
     }
 
     /**
@@ -161,7 +275,7 @@ public class AffineJTransform  {
      * @param z z-coordinate of image of the second canonical vector (0,1,0)
      */
     public void setV2Img(double x, double y, double z) {
-        matrix.setRow(2, new double[]{0, x, y, z});
+        setRow(2, 0, x, y, z);
     }
 
     /**
@@ -193,7 +307,7 @@ public class AffineJTransform  {
      * @param z z-coordinate of image of the third canonical vector (0,0,1)
      */
     public void setV3Img(double x, double y, double z) {
-        matrix.setRow(3, new double[]{0, x, y, z});
+        setRow(3, 0, x, y, z);
     }
 
     /**
@@ -232,7 +346,6 @@ public class AffineJTransform  {
         // As Area changes in det(A_xy), we change thickness in the root square of
         // det(A_xy)
         if (!mObject.getMp().isAbsoluteThickness()) {
-            double det = matrix.getEntry(1, 1) * matrix.getEntry(2, 2) - matrix.getEntry(2, 1) * matrix.getEntry(1, 2);
             mObject.getMp().multThickness(thicknessCorrectionFactor());
         }
     }
@@ -242,7 +355,7 @@ public class AffineJTransform  {
      * @return The thickness correction
      */
     public double thicknessCorrectionFactor() {
-        double det = matrix.getEntry(1, 1) * matrix.getEntry(2, 2) - matrix.getEntry(2, 1) * matrix.getEntry(1, 2);
+        double det = m[5] * m[10] - m[9] * m[6];
         return Math.sqrt(Math.abs(det));
     }
 
@@ -270,17 +383,64 @@ public class AffineJTransform  {
      * @return The composed AffineTransform
      */
     public AffineJTransform compose(AffineJTransform tr) {
-        return new AffineJTransform(matrix.multiply(tr.matrix));
+        final double[] b = tr.m;
+        double[] resul = new double[16];
+        for (int i = 0; i < 4; i++) {
+            final double a0 = m[4 * i], a1 = m[4 * i + 1], a2 = m[4 * i + 2], a3 = m[4 * i + 3];
+            for (int j = 0; j < 4; j++) {
+                resul[4 * i + j] = a0 * b[j] + a1 * b[4 + j] + a2 * b[8 + j] + a3 * b[12 + j];
+            }
+        }
+        return new AffineJTransform(resul);
     }
 
     /**
      * Gets the inverse transform
      *
      * @return The inverse transform
+     * @throws SingularMatrixException If the transform is not invertible
      */
     public AffineJTransform getInverse() {
-        RealMatrix B = new LUDecomposition(matrix).getSolver().getInverse();
-        return new AffineJTransform(B);
+        //Gauss-Jordan elimination with partial pivoting
+        double[] a = m.clone();
+        double[] inv = new AffineJTransform().m;
+        for (int col = 0; col < 4; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 4; row++) {
+                if (Math.abs(a[4 * row + col]) > Math.abs(a[4 * pivot + col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(a[4 * pivot + col]) < SINGULARITY_THRESHOLD) {
+                throw new SingularMatrixException();
+            }
+            swapRows(a, col, pivot);
+            swapRows(inv, col, pivot);
+            final double p = a[5 * col];
+            for (int j = 0; j < 4; j++) {
+                a[4 * col + j] /= p;
+                inv[4 * col + j] /= p;
+            }
+            for (int row = 0; row < 4; row++) {
+                final double f = a[4 * row + col];
+                if ((row != col) && (f != 0)) {
+                    for (int j = 0; j < 4; j++) {
+                        a[4 * row + j] -= f * a[4 * col + j];
+                        inv[4 * row + j] -= f * inv[4 * col + j];
+                    }
+                }
+            }
+        }
+        return new AffineJTransform(inv);
+    }
+
+    private static void swapRows(double[] a, int r1, int r2) {
+        if (r1 == r2) return;
+        for (int j = 0; j < 4; j++) {
+            double tmp = a[4 * r1 + j];
+            a[4 * r1 + j] = a[4 * r2 + j];
+            a[4 * r2 + j] = tmp;
+        }
     }
 
     /**
@@ -666,31 +826,13 @@ public class AffineJTransform  {
      * @return The interpolated transform
      */
     public AffineJTransform interpolate(AffineJTransform transform, double lambda) {
-//        AffineTransform resul = new AffineTransform();
-        double[] row1_1 = this.matrix.getRow(0);
-        double[] row1_2 = transform.matrix.getRow(0);
-        double interp11 = (1 - lambda) * row1_1[1] + lambda * row1_2[1];
-        double interp12 = (1 - lambda) * row1_1[2] + lambda * row1_2[2];
-        double interp13 = (1 - lambda) * row1_1[3] + lambda * row1_2[3];
-
-        transform.setOriginImg(interp11, interp12, interp13);
-
-        double[] row2_1 = this.matrix.getRow(1);
-        double[] row2_2 = transform.matrix.getRow(1);
-        double interp21 = (1 - lambda) * row2_1[1] + lambda * row2_2[1];
-        double interp22 = (1 - lambda) * row2_1[2] + lambda * row2_2[2];
-        double interp23 = (1 - lambda) * row2_1[3] + lambda * row2_2[3];
-
-        transform.setV1Img(interp21, interp22, interp23);
-
-        double[] row3_1 = this.matrix.getRow(2);
-        double[] row3_2 = transform.matrix.getRow(2);
-        double interp31 = (1 - lambda) * row3_1[1] + lambda * row3_2[1];
-        double interp32 = (1 - lambda) * row3_1[2] + lambda * row3_2[2];
-        double interp33 = (1 - lambda) * row3_1[3] + lambda * row3_2[3];
-
-        transform.setV2Img(interp31, interp32, interp33);
-
+        //Rows of origin, first and second vectors are interpolated, and stored in the given transform
+        final double[] b = transform.m;
+        for (int k = 1; k < 12; k++) {
+            if (k % 4 != 0) {
+                b[k] = (1 - lambda) * m[k] + lambda * b[k];
+            }
+        }
         return transform;
 
     }
@@ -774,7 +916,7 @@ public class AffineJTransform  {
     }
 
     public void copyFrom(AffineJTransform resul) {
-        this.setMatrix(resul.getMatrix().copy());
+        System.arraycopy(resul.m, 0, m, 0, 16);
     }
 
 }
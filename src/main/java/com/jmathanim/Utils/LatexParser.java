@@ -21,8 +21,10 @@ import com.jmathanim.MathObjects.Text.AbstractLatexMathObject;
 import com.jmathanim.jmathanim.JMathAnimScene;
 import org.scilab.forge.jlatexmath.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,6 +38,47 @@ import java.util.logging.Logger;
  */
 public class LatexParser implements Iterable<LatexToken> {
 
+    //Handles to the private members of JLaTeXMath used by the parser. They are resolved only once, instead of looking
+    //up and opening the fields for every atom of every formula.
+    private static final MethodHandle STYLE_ATOM_AT = findGetter(StyleAtom.class, "at");
+    private static final MethodHandle BOLD_ATOM_BASE = findGetter(BoldAtom.class, "base");
+    private static final MethodHandle ROMAN_ATOM_BASE = findGetter(RomanAtom.class, "base");
+    private static final MethodHandle MATH_ATOM_BASE = findGetter(MathAtom.class, "base");
+    private static final MethodHandle JAVA_FONT_RENDERING_ATOM_STR = findGetter(JavaFontRenderingAtom.class, "str");
+    private static final MethodHandle ACCENTED_ATOM_ACCENT = findGetter(AccentedAtom.class, "accent");
+    private static final MethodHandle ACCENTED_ATOM_BASE = findGetter(AccentedAtom.class, "base");
+    private static final MethodHandle ROW_ATOM_ELEMENTS = findGetter(RowAtom.class, "elements");
+    private static final MethodHandle VROW_ATOM_ELEMENTS = findGetter(VRowAtom.class, "elements");
+    private static final MethodHandle FENCED_ATOM_LEFT = findGetter(FencedAtom.class, "left");
+    private static final MethodHandle FENCED_ATOM_BASE = findGetter(FencedAtom.class, "base");
+    private static final MethodHandle FENCED_ATOM_RIGHT = findGetter(FencedAtom.class, "right");
+    private static final MethodHandle FENCED_ATOM_MIDDLE = findGetter(FencedAtom.class, "middle");
+    private static final MethodHandle NTH_ROOT_ROOT = findGetter(NthRoot.class, "root");
+    private static final MethodHandle NTH_ROOT_BASE = findGetter(NthRoot.class, "base");
+    private static final MethodHandle FRACTION_ATOM_NUMERATOR = findGetter(FractionAtom.class, "numerator");
+    private static final MethodHandle FRACTION_ATOM_DENOMINATOR = findGetter(FractionAtom.class, "denominator");
+    private static final MethodHandle OVER_UNDER_DELIMITER_BASE = findGetter(OverUnderDelimiter.class, "base");
+    private static final MethodHandle OVER_UNDER_DELIMITER_SYMBOL = findGetter(OverUnderDelimiter.class, "symbol");
+    private static final MethodHandle OVER_UNDER_DELIMITER_SCRIPT = findGetter(OverUnderDelimiter.class, "script");
+    private static final MethodHandle OVERLINED_ATOM_BASE = findGetter(OverlinedAtom.class, "base");
+    private static final MethodHandle UNDER_OVER_ARROW_ATOM_OVER = findGetter(UnderOverArrowAtom.class, "over");
+    private static final MethodHandle UNDER_OVER_ARROW_ATOM_DBLE = findGetter(UnderOverArrowAtom.class, "dble");
+    private static final MethodHandle UNDER_OVER_ARROW_ATOM_LEFT = findGetter(UnderOverArrowAtom.class, "left");
+    private static final MethodHandle UNDER_OVER_ARROW_ATOM_BASE = findGetter(UnderOverArrowAtom.class, "base");
+    private static final MethodHandle SCRIPTS_ATOM_BASE = findGetter(ScriptsAtom.class, "base");
+    private static final MethodHandle SCRIPTS_ATOM_SUPERSCRIPT = findGetter(ScriptsAtom.class, "superscript");
+    private static final MethodHandle SCRIPTS_ATOM_SUBSCRIPT = findGetter(ScriptsAtom.class, "subscript");
+    private static final MethodHandle BIG_OPERATOR_ATOM_OVER = findGetter(BigOperatorAtom.class, "over");
+    private static final MethodHandle BIG_OPERATOR_ATOM_BASE = findGetter(BigOperatorAtom.class, "base");
+    private static final MethodHandle BIG_OPERATOR_ATOM_UNDER = findGetter(BigOperatorAtom.class, "under");
+    private static final MethodHandle SYMBOL_ATOM_NAME = findGetter(SymbolAtom.class, "name");
+    private static final MethodHandle MATRIX_ATOM_MATRIX = findGetter(MatrixAtom.class, "matrix");
+    private static final MethodHandle OVER_UNDER_BOX_BASE = findGetter(OverUnderBox.class, "base");
+    private static final MethodHandle OVER_UNDER_BOX_DEL = findGetter(OverUnderBox.class, "del");
+    private static final MethodHandle SCALE_BOX_BOX = findGetter(ScaleBox.class, "box");
+    private static final MethodHandle BOX_CHILDREN = findGetter(Box.class, "children");
+    private static final MethodHandle CHAR_BOX_CF = findGetter(CharBox.class, "cf");
+
     public final ArrayList<Box> boxes;
     private final ArrayList<LatexToken> assignedTokens;
     private final AbstractLatexMathObject latex;
@@ -119,15 +162,9 @@ public class LatexParser implements Iterable<LatexToken> {
 
         try {
             icon = formula2.createTeXIcon(TeXConstants.ALIGN_LEFT, 40);
-            DefaultTeXFont font = new DefaultTeXFont(40);
-            TeXEnvironment te = new TeXEnvironment(0, font);
-
-            Class<?>[] cArg = new Class<?>[1];
-            cArg[0] = TeXEnvironment.class;
-            Method method = TeXFormula.class.getDeclaredMethod("createBox", cArg);
-
-            method.setAccessible(true);
-            Box bo = (Box) method.invoke(formula2, te);
+            //The icon is laid out with the same style and font size, so its box is parsed instead of creating
+            //another one
+            Box bo = icon.getBox();
             boxCounter = 0;
 
             parseBox(bo);
@@ -194,7 +231,7 @@ public class LatexParser implements Iterable<LatexToken> {
         }
     }
 
-    private void parseAtom(Object obj) throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
+    private void parseAtom(Object obj) {
         //Some Atom subclasses may have null children (like ScripAtom.subscript), so
         //we have to check if the passed object is really an Atom. If null, do nothing.
         Atom atom;
@@ -204,24 +241,18 @@ public class LatexParser implements Iterable<LatexToken> {
             return;
         }
 
-        Field classField;
-
 //        JMathAnimScene.logger.debug("Parsing " + atom.getClass().getCanonicalName());
         if (atom instanceof StyleAtom) {
             StyleAtom styleAtom = (StyleAtom) atom;
-            classField = StyleAtom.class.getDeclaredField("at");
-            classField.setAccessible(true);
-            Atom field = (Atom) classField.get(styleAtom);
+            Atom field = (Atom) get(STYLE_ATOM_AT, styleAtom);
             parseAtom(field);
             return;
         }
 
         if (atom instanceof BoldAtom) {
             BoldAtom boldAtom = (BoldAtom) atom;
-            classField = BoldAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
             activateSecondaryBit(LatexToken.SEC_BOLD_FONT);
-            Atom field = (Atom) classField.get(boldAtom);
+            Atom field = (Atom) get(BOLD_ATOM_BASE, boldAtom);
             parseAtom(field);
             deactivateSecondaryBit(LatexToken.SEC_BOLD_FONT);
             return;
@@ -233,9 +264,7 @@ public class LatexParser implements Iterable<LatexToken> {
                 modifier = Modifier.RAW_TEXT;
             }
             RomanAtom romanAtom = (RomanAtom) atom;
-            classField = RomanAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            Atom field = (Atom) classField.get(romanAtom);
+            Atom field = (Atom) get(ROMAN_ATOM_BASE, romanAtom);
             parseAtom(field);
             modifier = bkModifier;
             return;
@@ -246,9 +275,7 @@ public class LatexParser implements Iterable<LatexToken> {
             modifier = Modifier.NORMAL;
             isMathMode = true;
             MathAtom mathAtom = (MathAtom) atom;
-            classField = MathAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            Atom field = (Atom) classField.get(mathAtom);
+            Atom field = (Atom) get(MATH_ATOM_BASE, mathAtom);
             parseAtom(field);
             isMathMode = false;
 //            modifier = bkModifier;
@@ -266,9 +293,7 @@ public class LatexParser implements Iterable<LatexToken> {
 
         if (atom instanceof JavaFontRenderingAtom) {//For symbols like º or ª
             JavaFontRenderingAtom javaFontRenderingAtom = (JavaFontRenderingAtom) atom;
-            classField = JavaFontRenderingAtom.class.getDeclaredField("str");
-            classField.setAccessible(true);
-            String str = (String) classField.get(javaFontRenderingAtom);
+            String str = (String) get(JAVA_FONT_RENDERING_ATOM_STR, javaFontRenderingAtom);
 
             LatexTokenType type = LatexTokenType.CHAR;
             addTokenToList(type, str);
@@ -279,25 +304,19 @@ public class LatexParser implements Iterable<LatexToken> {
         if (atom instanceof AccentedAtom) {
             AccentedAtom accentedAtom = (AccentedAtom) atom;
             //First accent
-            classField = AccentedAtom.class.getDeclaredField("accent");
-            classField.setAccessible(true);
-            Atom field = (Atom) classField.get(accentedAtom);
+            Atom field = (Atom) get(ACCENTED_ATOM_ACCENT, accentedAtom);
             this.takesStyleFromNextFlag = true;
             parseAtom(field);
             this.takesStyleFromNextFlag = false;
             //Then base
-            classField = AccentedAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            field = (Atom) classField.get(accentedAtom);
+            field = (Atom) get(ACCENTED_ATOM_BASE, accentedAtom);
             parseAtom(field);
             return;
         }
 
         if (atom instanceof RowAtom) {
             RowAtom rowAtom = (RowAtom) atom;
-            classField = RowAtom.class.getDeclaredField("elements");
-            classField.setAccessible(true);
-            LinkedList<Atom> elements = (LinkedList<Atom>) classField.get(rowAtom);
+            LinkedList<Atom> elements = (LinkedList<Atom>) get(ROW_ATOM_ELEMENTS, rowAtom);
             for (Atom atomElement : elements) {
                 parseAtom(atomElement);
 
@@ -307,9 +326,7 @@ public class LatexParser implements Iterable<LatexToken> {
 
         if (atom instanceof VRowAtom) {
             VRowAtom vRowAtom = (VRowAtom) atom;
-            classField = VRowAtom.class.getDeclaredField("elements");
-            classField.setAccessible(true);
-            LinkedList<Atom> elements = (LinkedList<Atom>) classField.get(vRowAtom);
+            LinkedList<Atom> elements = (LinkedList<Atom>) get(VROW_ATOM_ELEMENTS, vRowAtom);
             for (Atom atomElement : elements) {
                 parseAtom(atomElement);
 
@@ -344,21 +361,13 @@ public class LatexParser implements Iterable<LatexToken> {
 
         if (atom instanceof FencedAtom) {
             FencedAtom fencedAtom = (FencedAtom) atom;
-            classField = FencedAtom.class.getDeclaredField("left");
-            classField.setAccessible(true);
-            parseAtom(classField.get(fencedAtom));
+            parseAtom(get(FENCED_ATOM_LEFT, fencedAtom));
 
-            classField = FencedAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            parseAtom(classField.get(fencedAtom));
+            parseAtom(get(FENCED_ATOM_BASE, fencedAtom));
 
-            classField = FencedAtom.class.getDeclaredField("right");
-            classField.setAccessible(true);
-            parseAtom(classField.get(fencedAtom));
+            parseAtom(get(FENCED_ATOM_RIGHT, fencedAtom));
 
-            classField = FencedAtom.class.getDeclaredField("middle");
-            classField.setAccessible(true);
-            list = (List<MiddleAtom>) classField.get(fencedAtom);
+            list = (List<MiddleAtom>) get(FENCED_ATOM_MIDDLE, fencedAtom);
             for (MiddleAtom middleAtom : list) {
                 parseAtom(middleAtom);
 
@@ -369,33 +378,25 @@ public class LatexParser implements Iterable<LatexToken> {
         if (atom instanceof NthRoot) {
             NthRoot nthRoot = (NthRoot) atom;
 
-            classField = NthRoot.class.getDeclaredField("root");
-            classField.setAccessible(true);
-            parseAtom(classField.get(nthRoot));
+            parseAtom(get(NTH_ROOT_ROOT, nthRoot));
 
 //            tokens.add(new LatexToken(TokenType.SQRT, "sqrt"));//TODO: IMPROVE
             addTokenToList(LatexTokenType.SQRT, "sqrt");
-            classField = NthRoot.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            parseAtom(classField.get(nthRoot));
+            parseAtom(get(NTH_ROOT_BASE, nthRoot));
             return;
         }
 
         if (atom instanceof FractionAtom) {
             FractionAtom fractionAtom = (FractionAtom) atom;
 
-            classField = FractionAtom.class.getDeclaredField("numerator");
-            classField.setAccessible(true);
             activateSecondaryBit(LatexToken.SEC_NUMERATOR);
-            parseAtom(classField.get(fractionAtom));
+            parseAtom(get(FRACTION_ATOM_NUMERATOR, fractionAtom));
             deactivateSecondaryBit(LatexToken.SEC_NUMERATOR);
 
             addTokenToList(LatexTokenType.FRACTION_BAR, "fractionRule");
 
-            classField = FractionAtom.class.getDeclaredField("denominator");
-            classField.setAccessible(true);
             activateSecondaryBit(LatexToken.SEC_DENOMINATOR);
-            parseAtom(classField.get(fractionAtom));
+            parseAtom(get(FRACTION_ATOM_DENOMINATOR, fractionAtom));
             deactivateSecondaryBit(LatexToken.SEC_DENOMINATOR);
 
             return;
@@ -420,16 +421,10 @@ public class LatexParser implements Iterable<LatexToken> {
 
         if (atom instanceof OverUnderDelimiter) {
             OverUnderDelimiter overUnderDelimiter = (OverUnderDelimiter) atom;
-            classField = OverUnderDelimiter.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            parseAtom(classField.get(overUnderDelimiter));
-            classField = OverUnderDelimiter.class.getDeclaredField("symbol");
-            classField.setAccessible(true);
-            parseAtom(classField.get(overUnderDelimiter));
+            parseAtom(get(OVER_UNDER_DELIMITER_BASE, overUnderDelimiter));
+            parseAtom(get(OVER_UNDER_DELIMITER_SYMBOL, overUnderDelimiter));
             //Under/over the brace
-            classField = OverUnderDelimiter.class.getDeclaredField("script");
-            classField.setAccessible(true);
-            parseAtom(classField.get(overUnderDelimiter));
+            parseAtom(get(OVER_UNDER_DELIMITER_SCRIPT, overUnderDelimiter));
             return;
         }
 
@@ -440,36 +435,26 @@ public class LatexParser implements Iterable<LatexToken> {
             addTokenToList(LatexTokenType.SYMBOL, "overbar");
             this.takesStyleFromNextFlag = false;
 
-            classField = OverlinedAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            parseAtom(classField.get(overlinedAtom));
+            parseAtom(get(OVERLINED_ATOM_BASE, overlinedAtom));
         }
 
         if (atom instanceof UnderOverArrowAtom) {
             UnderOverArrowAtom underOverArrowAtom = (UnderOverArrowAtom) atom;
 
-            classField = UnderOverArrowAtom.class.getDeclaredField("over");
-            classField.setAccessible(true);
-            boolean over = (boolean) classField.get(underOverArrowAtom);
+            boolean over = (boolean) get(UNDER_OVER_ARROW_ATOM_OVER, underOverArrowAtom);
 
             //Determine type of arrow
             //dble =true if double arrow
             //left=true if is left arrow
-            classField = UnderOverArrowAtom.class.getDeclaredField("dble");
-            classField.setAccessible(true);
-            boolean dble = (boolean) classField.get(underOverArrowAtom);
+            boolean dble = (boolean) get(UNDER_OVER_ARROW_ATOM_DBLE, underOverArrowAtom);
 
-            classField = UnderOverArrowAtom.class.getDeclaredField("left");
-            classField.setAccessible(true);
-            boolean left = (boolean) classField.get(underOverArrowAtom);
+            boolean left = (boolean) get(UNDER_OVER_ARROW_ATOM_LEFT, underOverArrowAtom);
             String arrowTypeName = "overleftrightarrow";
             if (!dble) {
                 arrowTypeName = (left ? "overleftarrow" : "overrightarrow");
 
             }
-            classField = UnderOverArrowAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            Atom base = (Atom) classField.get(underOverArrowAtom);
+            Atom base = (Atom) get(UNDER_OVER_ARROW_ATOM_BASE, underOverArrowAtom);
 
             if (over) {
                 this.takesStyleFromNextFlag = true;
@@ -484,24 +469,18 @@ public class LatexParser implements Iterable<LatexToken> {
 
         if (atom instanceof ScriptsAtom) {
             ScriptsAtom scriptsAtom = (ScriptsAtom) atom;
-            classField = ScriptsAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            parseAtom(classField.get(scriptsAtom));
+            parseAtom(get(SCRIPTS_ATOM_BASE, scriptsAtom));
 
-            classField = ScriptsAtom.class.getDeclaredField("superscript");
-            classField.setAccessible(true);
             activateSecondaryBit(LatexToken.SEC_SUPERSCRIPT);
             deactivateSecondaryBit(LatexToken.SEC_NORMAL);
-            parseAtom(classField.get(scriptsAtom));
+            parseAtom(get(SCRIPTS_ATOM_SUPERSCRIPT, scriptsAtom));
             deactivateSecondaryBit(LatexToken.SEC_SUPERSCRIPT);
             activateSecondaryBit(LatexToken.SEC_NORMAL);
 
-            classField = ScriptsAtom.class.getDeclaredField("subscript");
-            classField.setAccessible(true);
 
             activateSecondaryBit(LatexToken.SEC_SUBSCRIPT);
             deactivateSecondaryBit(LatexToken.SEC_NORMAL);
-            parseAtom(classField.get(scriptsAtom));
+            parseAtom(get(SCRIPTS_ATOM_SUBSCRIPT, scriptsAtom));
             deactivateSecondaryBit(LatexToken.SEC_SUBSCRIPT);
             activateSecondaryBit(LatexToken.SEC_NORMAL);
             return;
@@ -511,17 +490,11 @@ public class LatexParser implements Iterable<LatexToken> {
             String opName = null;
             BigOperatorAtom bigOperatorAtom = (BigOperatorAtom) atom;
 
-            classField = BigOperatorAtom.class.getDeclaredField("over");
-            classField.setAccessible(true);
-            Atom overAtom = (Atom) classField.get(bigOperatorAtom);
+            Atom overAtom = (Atom) get(BIG_OPERATOR_ATOM_OVER, bigOperatorAtom);
 
-            classField = BigOperatorAtom.class.getDeclaredField("base");
-            classField.setAccessible(true);
-            Atom baseAtom = (Atom) classField.get(bigOperatorAtom);
+            Atom baseAtom = (Atom) get(BIG_OPERATOR_ATOM_BASE, bigOperatorAtom);
 
-            classField = BigOperatorAtom.class.getDeclaredField("under");
-            classField.setAccessible(true);
-            Atom underAtom = (Atom) classField.get(bigOperatorAtom);
+            Atom underAtom = (Atom) get(BIG_OPERATOR_ATOM_UNDER, bigOperatorAtom);
 
             if (baseAtom instanceof TypedAtom) {//Its something like \\sin^2
                 TypedAtom typedAtom = (TypedAtom) baseAtom;
@@ -542,9 +515,7 @@ public class LatexParser implements Iterable<LatexToken> {
 
             } else {
                 //Retrieve the command name for the big operator
-                classField = SymbolAtom.class.getDeclaredField("name");
-                classField.setAccessible(true);
-                opName = (String) classField.get(baseAtom);
+                opName = (String) get(SYMBOL_ATOM_NAME, baseAtom);
             }
 
             //Depending on the specific operator command, shape order is altered
@@ -585,9 +556,7 @@ public class LatexParser implements Iterable<LatexToken> {
         }
         if (atom instanceof MatrixAtom) {
             MatrixAtom matrixAtom = (MatrixAtom) atom;
-            classField = MatrixAtom.class.getDeclaredField("matrix");
-            classField.setAccessible(true);
-            ArrayOfAtoms arrayofAtoms = (ArrayOfAtoms) classField.get(matrixAtom);
+            ArrayOfAtoms arrayofAtoms = (ArrayOfAtoms) get(MATRIX_ATOM_MATRIX, matrixAtom);
             LinkedList<LinkedList<Atom>> array = arrayofAtoms.array;
             for (LinkedList<Atom> linkedList : array) {
                 for (Atom atom1 : linkedList) {
@@ -600,6 +569,40 @@ public class LatexParser implements Iterable<LatexToken> {
 
     }
 
+    /**
+     * Returns a handle to read the given private field, adapted to take and return Object
+     *
+     * @param cls  Declaring class
+     * @param name Field name
+     * @return The handle, or null if the field cannot be accessed
+     */
+    private static MethodHandle findGetter(Class<?> cls, String name) {
+        try {
+            Field field = cls.getDeclaredField(name);
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            JMathAnimScene.logger.error("Cannot access field " + name + " of JLaTeXMath class " + cls.getSimpleName());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a private field of a JLaTeXMath object
+     *
+     * @param getter Handle returned by {@link #findGetter(Class, String)}
+     * @param obj    Object to read
+     * @return The value of the field
+     */
+    private static Object get(MethodHandle getter, Object obj) {
+        try {
+            return (Object) getter.invokeExact(obj);
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Cannot read JLaTeXMath internals", ex);
+        }
+    }
+
     protected void addTokenToList(LatexTokenType type, String name) {
         if (type == LatexTokenType.CHAR) {
             switch (modifier) {
@@ -622,57 +625,46 @@ public class LatexParser implements Iterable<LatexToken> {
         previousToken = token;
     }
 
-    private void parseBox(Box bo) throws Exception {
-        Field campo;
-
-        if (bo instanceof CharBox) {
-            CharBox charBox = (CharBox) bo;
-            boxes.add(charBox);
-            CharFont bb = getFontFromCharBox(bo);
-//            System.out.println(boxes.size()+" Charbox "+bb.fontId+"  "+((int)bb.c)+"  "+bb.c);
-
-        }
-
-        if (bo instanceof OverUnderBox) {
-            OverUnderBox overUnderBox = (OverUnderBox) bo;
-            campo = OverUnderBox.class.getDeclaredField("base");
-            campo.setAccessible(true);
-            Box baseBox = (Box) campo.get(overUnderBox);
-            parseBox(baseBox);
-            campo = OverUnderBox.class.getDeclaredField("del");
-            campo.setAccessible(true);
-            Box delBox = (Box) campo.get(overUnderBox);
-            parseBox(delBox);
-        }
-
-        if (bo instanceof org.scilab.forge.jlatexmath.HorizontalRule) {
-            boxes.add(bo);
-        }
-
-        if (bo instanceof ScaleBox) {
-            ScaleBox scaleBox = (ScaleBox) bo;
-            campo = ScaleBox.class.getDeclaredField("box");
-            campo.setAccessible(true);
-            Box box = (Box) campo.get(scaleBox);
-            parseBox(box);
+    /**
+     * Adds to the list of boxes the char boxes and horizontal rules of the given box tree, in drawing order. The tree
+     * is walked with an explicit stack, so deeply nested formulas do not grow the call stack.
+     *
+     * @param root Root box
+     */
+    private void parseBox(Box root) {
+        ArrayDeque<Box> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Box bo = stack.pop();
+            if ((bo instanceof CharBox) || (bo instanceof org.scilab.forge.jlatexmath.HorizontalRule)) {
+                boxes.add(bo);
+            }
+            //Pushed in reverse order, so that base, delimiter, scaled box and children are visited in this order
+            LinkedList<Box> children = (LinkedList<Box>) get(BOX_CHILDREN, bo);
+            Iterator<Box> it = children.descendingIterator();
+            while (it.hasNext()) {
+                pushBox(stack, it.next());
+            }
+            if (bo instanceof ScaleBox) {
+                pushBox(stack, (Box) get(SCALE_BOX_BOX, bo));
+            }
+            if (bo instanceof OverUnderBox) {
+                pushBox(stack, (Box) get(OVER_UNDER_BOX_DEL, bo));
+                pushBox(stack, (Box) get(OVER_UNDER_BOX_BASE, bo));
+            }
         }
+    }
 
-        campo = Box.class.getDeclaredField("children");
-        campo.setAccessible(true);
-        LinkedList<Box> children = (LinkedList<Box>) campo.get(bo);
-        for (Box box : children) {
-            parseBox(box);
+    private static void pushBox(ArrayDeque<Box> stack, Box box) {
+        if (box != null) {
+            stack.push(box);
         }
     }
 
     protected CharFont getFontFromCharBox(Box charBox) {
         if (charBox instanceof CharBox) {
             try {
-                CharBox charBox1 = (CharBox) charBox;
-                Field campo;
-                campo = CharBox.class.getDeclaredField("cf");
-                campo.setAccessible(true);
-                return (CharFont) campo.get(charBox1);
+                return (CharFont) get(CHAR_BOX_CF, charBox);
             } catch (Exception ex) {
                 Logger.getLogger(LatexParser.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -1235,6 +1227,19 @@ public class LatexParser implements Iterable<LatexToken> {
         secondaryType &= ~bit;
     }
 
+    /**
+     * Replaces the assigned tokens with the given ones, without parsing. Used when the shapes of the LaTeX object are
+     * restored from a cache instead of being generated.
+     *
+     * @param assigned Tokens assigned to each shape, in order
+     */
+    public void restoreTokens(List<LatexToken> assigned) {
+        this.tokens.clear();
+        this.boxes.clear();
+        this.assignedTokens.clear();
+        this.assignedTokens.addAll(assigned);
+    }
+
     /**
      * Returns the given assigned token
      *
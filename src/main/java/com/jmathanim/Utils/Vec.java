@@ -23,10 +23,9 @@ import com.jmathanim.MathObjects.Coordinates;
 import com.jmathanim.MathObjects.Interpolable;
 import com.jmathanim.MathObjects.Stateable;
 import com.jmathanim.jmathanim.Dependable;
+import com.jmathanim.jmathanim.DependencyGraph;
 import com.jmathanim.jmathanim.JMathAnimConfig;
-import com.jmathanim.jmathanim.JMathAnimScene;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
+import com.jmathanim.jmathanim.VersionCounter;
 
 import java.io.Serializable;
 import java.util.List;
@@ -43,6 +42,7 @@ public class Vec implements Dependable, HasDirection, Coordinates<Vec>, AffineTr
     public double x, y, z;
     public double xState, yState, zState;
     private long version;
+    private transient int graphCount;
 
     /**
      * Returns a new Vec with the given coordinates
@@ -203,12 +203,7 @@ public class Vec implements Dependable, HasDirection, Coordinates<Vec>, AffineTr
      */
     @Override
     public Vec applyAffineTransform(AffineJTransform affineJTransform) {
-        RealMatrix pRow = new Array2DRowRealMatrix(new double[][]{{1d, x, y, z}});
-        RealMatrix pNew = pRow.multiply(affineJTransform.getMatrix());
-
-        x = pNew.getEntry(0, 1);
-        y = pNew.getEntry(0, 2);
-        z = pNew.getEntry(0, 3);
+        affineJTransform.transform(this);
         changeVersionAndMarkDirty();
         return this;
     }
@@ -248,9 +243,54 @@ public class Vec implements Dependable, HasDirection, Coordinates<Vec>, AffineTr
 
     @Override
     public void changeVersionAndMarkDirty() {
-        version = ++JMathAnimScene.globalVersion;
+        version = VersionCounter.next();
+        if (graphCount > 0) {
+            DependencyGraph.notifyChanged(this);
+        }
+    }
+
+    /**
+     * Marks this vector as changed, using a version number previously obtained from {@link VersionCounter#next()}.
+     * Bulk operations use it to mark many objects with a single increment of the counter.
+     *
+     * @param newVersion New version number
+     */
+    public void changeVersionAndMarkDirty(long newVersion) {
+        version = newVersion;
+        if (graphCount > 0) {
+            DependencyGraph.notifyChanged(this);
+        }
+    }
+
+    /**
+     * Sets the version of this vector without notifying the dependency graph. Objects that mark many vectors with the
+     * same version use it, notifying only the vectors that belong to a graph (see {@link #isInDependencyGraph()}).
+     *
+     * @param newVersion New version number, previously obtained from {@link VersionCounter#next()}
+     */
+    public void setVersion(long newVersion) {
+        version = newVersion;
     }
 
+    /**
+     * Returns true if this vector belongs to some dependency graph, so that its changes must be notified to it
+     *
+     * @return True if the vector is in a graph
+     */
+    public boolean isInDependencyGraph() {
+        return graphCount > 0;
+    }
+
+    @Override
+    public void changeGraphCount(int delta) {
+        graphCount += delta;
+    }
+
+
+    @Override
+    public boolean requiresPolling() {
+        return false;
+    }
 
     @Override
     public long getVersion() {
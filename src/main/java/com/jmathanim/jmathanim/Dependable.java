@@ -49,6 +49,31 @@ public interface Dependable {
      * @return the current version of the object.
      */
     long getVersion();
+
+    /**
+     * Returns true if this object can change without notifying the dependency graph with
+     * {@link DependencyGraph#notifyChanged(Dependable)}, for example because its version is computed from objects that
+     * are not dependencies. These objects are checked by the graph in every frame.
+     *
+     * <p>By default, returns true, which is always safe.</p>
+     *
+     * @return true if the object must be polled.
+     */
+    default boolean requiresPolling() {
+        return true;
+    }
+    /**
+     * Called by {@link DependencyGraph} when this object is added to a graph, with +1, and when it is removed from it,
+     * with -1. Objects that change often can keep the count and notify their changes only while it is positive, so
+     * that temporary objects never look up the graph.
+     *
+     * <p>By default, does nothing.</p>
+     *
+     * @param delta +1 if the object was added to a graph, -1 if it was removed
+     */
+    default void changeGraphCount(int delta) {
+    }
+
     /**
      * Returns a human-readable name for this object, useful for debugging
      * or graph visualization purposes.
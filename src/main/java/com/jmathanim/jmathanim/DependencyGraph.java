@@ -3,64 +3,166 @@ package com.jmathanim.jmathanim;
 import com.jmathanim.MathObjects.Updatable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 
 /**
  * Represents a directed acyclic dependency graph for {@link Dependable} objects.
  * It maintains the correct topological order for update propagation.
+ * <p>
+ * The order is maintained incrementally: new nodes are appended after their dependencies, removed nodes leave a
+ * hole that is compacted later, and new edges between existing nodes only reorder the affected region of the graph
+ * (Pearce-Kelly dynamic topological sort). All graph traversals are iterative, so that deep constructions do not
+ * overflow the stack.
+ * <p>
+ * Updates are push based. Objects notify the current graph when they change (see
+ * {@link #notifyChanged(Dependable)}), and {@link #updateAll()} only visits the notified nodes and the nodes that depend
+ * on them, in topological order. Nodes that can change without notifying, as reported by
+ * {@link Dependable#requiresPolling()}, are visited every frame. A graph that is not the current one visits all its
+ * nodes.
+ * <p>
+ * Optionally, nodes can be updated in parallel. The graph is divided into levels, where the level of a node is one more
+ * than the highest level of its dependencies, so that nodes of the same level never depend on each other. Levels are
+ * processed in order, and the nodes of a level are updated in the common ForkJoinPool. Nodes notified while other
+ * nodes are being updated are handled as in sequential mode: they are updated in the same frame if they come after
+ * the notifying node in topological order, and in the next frame otherwise.
  */
 public class DependencyGraph {
 
-    private final Set<Dependable> nodes = new LinkedHashSet<>();
-    private final Map<Dependable, List<Dependable>> dependencies = new HashMap<>();
-    private final Map<Dependable, List<Dependable>> reverseDeps = new HashMap<>();
+    /**
+     * Minimum number of nodes of a level to update them in parallel. Smaller levels are updated in the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 32;
+
+    /**
+     * Graph that receives the change notifications of the objects
+     */
+    private static DependencyGraph current;
+
+    /**
+     * Position of the node being updated by each thread, while updating by levels
+     */
+    private static final ThreadLocal<int[]> updatingIndex = ThreadLocal.withInitial(() -> new int[]{-1});
+
+    private final Map<Dependable, List<Dependable>> dependencies = new IdentityHashMap<>();
+    private final Map<Dependable, List<Dependable>> reverseDeps = new IdentityHashMap<>();
+    /**
+     * Nodes in topological order. Removed nodes are marked with null until the list is compacted.
+     */
     private final List<Dependable> topoOrder = new ArrayList<>();
-    private boolean dirty;
+    /**
+     * Position and update state of each node
+     */
+    private final Map<Dependable, Slot> slots = new IdentityHashMap<>();
+    /**
+     * Nodes explicitly added with addNode, as opposed to nodes added because other nodes depend on them
+     */
+    private final Set<Dependable> explicitNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Positions of the nodes that must be visited in the next update
+     */
+    private final BitSet dirtyNodes = new BitSet();
+    /**
+     * Positions of the nodes that must be visited in every update
+     */
+    private final BitSet polledNodes = new BitSet();
+    /**
+     * Nodes to update in parallel, grouped by level
+     */
+    private final List<ArrayList<Dependable>> levels = new ArrayList<>();
+    /**
+     * Structure changes notified from worker threads, processed once the current level is updated
+     */
+    private final Queue<Dependable> pendingStructureChanges = new ConcurrentLinkedQueue<>();
+    /**
+     * Nodes notified while updating by levels, with the position of the node that was being updated when notified
+     */
+    private final Queue<long[]> lateNotifications = new ConcurrentLinkedQueue<>();
+    private int holes;
+    private int visitedNodesCount;
+    private boolean parallelUpdates;
+    private boolean levelsValid;
+    private volatile boolean updatingInParallel;
+    private volatile boolean updatingByLevels;
 
     public DependencyGraph() {
-        this.dirty = false;
+        this.holes = 0;
     }
 
     /**
-     * Depth-first search for topological sorting (post-order).
+     * Returns the graph that currently receives change notifications, usually the one of the running scene
+     *
+     * @return The current graph, or null if there is none
      */
-    private static void dfsTopo(Dependable node,
-                                Map<Dependable, List<Dependable>> deps,
-                                Set<Dependable> visited,
-                                Set<Dependable> temp,
-                                List<Dependable> result) {
-        if (visited.contains(node)) return;
-        if (temp.contains(node))
-            throw new IllegalStateException("Cycle detected in dependencies: " + node);
+    public static DependencyGraph getCurrent() {
+        return current;
+    }
+
+    /**
+     * Makes this graph the one that receives change notifications from objects
+     */
+    public void makeCurrent() {
+        current = this;
+    }
+
+    /**
+     * Notifies the current graph that the given object changed, so that it and the nodes depending on it are visited
+     * in the next update. Objects not in the graph are ignored. Objects that keep their graph count (see
+     * {@link Dependable#changeGraphCount(int)}) only call this method while they belong to some graph.
+     *
+     * @param node The changed object
+     */
+    public static void notifyChanged(Dependable node) {
+        DependencyGraph graph = current;
+        if (graph != null) {
+            Slot slot = graph.slots.get(node);
+            if (slot != null) {
+                if (graph.updatingByLevels) {
+                    //Queued once the current level is updated
+                    graph.lateNotifications.add(new long[]{slot.index, updatingIndex.get()[0]});
+                } else {
+                    graph.dirtyNodes.set(slot.index);
+                }
+            }
+        }
+    }
 
-        temp.add(node);
-        for (Dependable dep : deps.getOrDefault(node, Collections.emptyList())) {
-            dfsTopo(dep, deps, visited, temp, result);
+    /**
+     * Notifies the current graph that the dependencies of the given object, or its need to be polled, changed.
+     * Objects not in the graph are ignored.
+     *
+     * @param node The changed object
+     */
+    public static void notifyStructureChanged(Dependable node) {
+        DependencyGraph graph = current;
+        if ((graph != null) && graph.updatingInParallel) {
+            graph.pendingStructureChanges.add(node);
+            return;
+        }
+        if ((graph != null) && graph.contains(node)) {
+            try {
+                graph.refreshDependencies(node);
+            } catch (IllegalStateException e) {
+                JMathAnimScene.logger.warn(e.getMessage());
+            }
         }
-        temp.remove(node);
-        visited.add(node);
-        result.add(node);
     }
 
     /**
      * Adds a node and all its dependencies recursively.
-     * Marks the graph as dirty, requiring resorting.
+     * New nodes are placed after their dependencies, so no resorting is needed.
      *
      * @param node the node to add
      */
     public void addNode(Dependable node) {
-        if (!nodes.contains(node)) {
-            nodes.add(node);
-            for (Dependable dep : node.getDependencies()) {
-                addNode(dep);
-                dependencies.computeIfAbsent(node, k -> new ArrayList<>()).add(dep);
-                reverseDeps.computeIfAbsent(dep, k -> new ArrayList<>()).add(node);
-            }
-            dirty = true;
+        explicitNodes.add(node);
+        if (!slots.containsKey(node)) {
+            insertNewNodes(node);
         }
     }
 
     /**
-     * Adds multiple nodes to the graph without sorting immediately.
+     * Adds multiple nodes to the graph.
      *
      * @param newNodes collection of nodes to add
      */
@@ -68,72 +170,517 @@ public class DependencyGraph {
         for (Dependable node : newNodes) {
             addNode(node);
         }
-        dirty = true;
+    }
+
+    /**
+     * Iterative post-order depth-first search over the nodes not yet in the graph, appending each node once all its
+     * dependencies are in the graph.
+     *
+     * @param root the new node
+     */
+    private void insertNewNodes(Dependable root) {
+        ArrayDeque<Dependable> stack = new ArrayDeque<>();
+        ArrayDeque<Iterator<Dependable>> iterators = new ArrayDeque<>();
+        Set<Dependable> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+        stack.push(root);
+        iterators.push(root.getDependencies().iterator());
+        onStack.add(root);
+        while (!stack.isEmpty()) {
+            Iterator<Dependable> it = iterators.peek();
+            if (it.hasNext()) {
+                Dependable dep = it.next();
+                if (onStack.contains(dep))
+                    throw new IllegalStateException("Cycle detected in dependencies: " + dep);
+                if (!slots.containsKey(dep)) {
+                    stack.push(dep);
+                    iterators.push(dep.getDependencies().iterator());
+                    onStack.add(dep);
+                }
+            } else {
+                Dependable node = stack.pop();
+                iterators.pop();
+                onStack.remove(node);
+                Slot slot = new Slot(topoOrder.size(), node.requiresPolling());
+                slots.put(node, slot);
+                node.changeGraphCount(1);
+                topoOrder.add(node);
+                dirtyNodes.set(slot.index);
+                polledNodes.set(slot.index, slot.polled);
+                levelsValid = false;
+                List<Dependable> deps = new ArrayList<>(node.getDependencies());
+                dependencies.put(node, deps);
+                for (Dependable dep : deps) {
+                    reverseDeps.computeIfAbsent(dep, k -> new ArrayList<>()).add(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a dependency edge between two nodes, so that {@code dep} is updated before {@code node}. Nodes not in the
+     * graph are added, as dependencies of other nodes. If the current order is not compatible with the new edge, only
+     * the nodes between both positions that are connected to them are reordered.
+     *
+     * @param node the dependent node
+     * @param dep  the node it depends on
+     */
+    public void addEdge(Dependable node, Dependable dep) {
+        if (node == dep)
+            throw new IllegalStateException("Cycle detected in dependencies: " + node);
+        if (!slots.containsKey(dep)) insertNewNodes(dep);
+        if (!slots.containsKey(node)) insertNewNodes(node);
+        int lowerBound = slots.get(node).index;
+        int upperBound = slots.get(dep).index;
+        if (upperBound > lowerBound) {
+            reorder(node, dep, lowerBound, upperBound);
+        }
+        dependencies.computeIfAbsent(node, k -> new ArrayList<>()).add(dep);
+        reverseDeps.computeIfAbsent(dep, k -> new ArrayList<>()).add(node);
+        dirtyNodes.set(slots.get(node).index);
+        levelsValid = false;
+    }
+
+    /**
+     * Removes a dependency edge between two nodes. Nodes are kept in the graph.
+     *
+     * @param node the dependent node
+     * @param dep  the node it depends on
+     */
+    public void removeEdge(Dependable node, Dependable dep) {
+        List<Dependable> deps = dependencies.get(node);
+        if (deps != null) deps.remove(dep);
+        List<Dependable> rdeps = reverseDeps.get(dep);
+        if (rdeps != null) rdeps.remove(node);
+    }
+
+    /**
+     * Synchronizes the edges of a node with its current list of dependencies, for objects whose dependencies change
+     * after they were added to the graph. Whether the node must be polled is checked again too.
+     *
+     * @param node the node to refresh
+     */
+    public void refreshDependencies(Dependable node) {
+        Slot slot = slots.get(node);
+        if (slot == null) {
+            addNode(node);
+            return;
+        }
+        slot.polled = node.requiresPolling();
+        polledNodes.set(slot.index, slot.polled);
+        dirtyNodes.set(slot.index);
+        List<Dependable> current = node.getDependencies();
+        List<Dependable> stored = new ArrayList<>(dependencies.getOrDefault(node, Collections.emptyList()));
+        for (Dependable dep : stored) {
+            if (!current.contains(dep)) removeEdge(node, dep);
+        }
+        for (Dependable dep : current) {
+            if (!stored.contains(dep)) addEdge(node, dep);
+        }
+    }
+
+    /**
+     * Pearce-Kelly reordering. Computes the nodes that depend on {@code node} placed before {@code upperBound} and the
+     * nodes {@code dep} depends on placed after {@code lowerBound}, and reassigns their positions so that the
+     * latter come first.
+     */
+    private void reorder(Dependable node, Dependable dep, int lowerBound, int upperBound) {
+        //Forward search, from node through its dependents
+        List<Dependable> forward = collect(node, reverseDeps, n -> slots.get(n).index <= upperBound, dep);
+        //Backward search, from dep through its dependencies
+        List<Dependable> backward = collect(dep, dependencies, n -> slots.get(n).index >= lowerBound, null);
+
+        Comparator<Dependable> byIndex = Comparator.comparingInt(n -> slots.get(n).index);
+        forward.sort(byIndex);
+        backward.sort(byIndex);
+        List<Dependable> moved = new ArrayList<>(backward);
+        moved.addAll(forward);
+        int[] positions = new int[moved.size()];
+        boolean[] dirty = new boolean[moved.size()];
+        for (int k = 0; k < positions.length; k++) {
+            positions[k] = slots.get(moved.get(k)).index;
+            dirty[k] = dirtyNodes.get(positions[k]);
+        }
+        Arrays.sort(positions);
+        for (int k = 0; k < positions.length; k++) {
+            place(moved.get(k), positions[k], dirty[k]);
+        }
+    }
+
+    private List<Dependable> collect(Dependable start, Map<Dependable, List<Dependable>> edges,
+                                     Predicate<Dependable> inRegion, Dependable forbidden) {
+        List<Dependable> result = new ArrayList<>();
+        Set<Dependable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Dependable> stack = new ArrayDeque<>();
+        stack.push(start);
+        visited.add(start);
+        while (!stack.isEmpty()) {
+            Dependable n = stack.pop();
+            result.add(n);
+            for (Dependable next : edges.getOrDefault(n, Collections.emptyList())) {
+                if (next == forbidden)
+                    throw new IllegalStateException("Cycle detected in dependencies: " + next);
+                if (!visited.contains(next) && inRegion.test(next)) {
+                    visited.add(next);
+                    stack.push(next);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void place(Dependable node, int position, boolean dirty) {
+        Slot slot = slots.get(node);
+        topoOrder.set(position, node);
+        slot.index = position;
+        dirtyNodes.set(position, dirty);
+        polledNodes.set(position, slot.polled);
     }
 
     /**
      * Removes a node and all edges referencing it.
+     * Only the adjacency lists of its neighbours are visited.
      *
      * @param node the node to remove
      */
     public void removeNode(Dependable node) {
-        nodes.remove(node);
-        dependencies.remove(node);
-        reverseDeps.remove(node);
-        dependencies.values().forEach(list -> list.remove(node));
-        reverseDeps.values().forEach(list -> list.remove(node));
-        dirty = true;
+        Slot slot = slots.remove(node);
+        explicitNodes.remove(node);
+        if (slot == null) return;
+        node.changeGraphCount(-1);
+        topoOrder.set(slot.index, null);
+        dirtyNodes.clear(slot.index);
+        polledNodes.clear(slot.index);
+        holes++;
+        List<Dependable> deps = dependencies.remove(node);
+        if (deps != null) {
+            for (Dependable dep : deps) {
+                List<Dependable> rdeps = reverseDeps.get(dep);
+                if (rdeps != null) rdeps.remove(node);
+            }
+        }
+        List<Dependable> rdeps = reverseDeps.remove(node);
+        if (rdeps != null) {
+            for (Dependable dependent : rdeps) {
+                List<Dependable> ddeps = dependencies.get(dependent);
+                if (ddeps != null) ddeps.remove(node);
+            }
+        }
     }
 
     /**
-     * Performs a full topological sort if the graph is dirty.
-     * This ensures dependencies are processed before dependents.
+     * Releases a node explicitly added with {@link #addNode(Dependable)}. The node is removed only if no other node
+     * depends on it. Dependencies of removed nodes that were not explicitly added and are no longer needed are
+     * removed too.
+     *
+     * @param node the node to release
      */
-    public void sort() {
-        if (!dirty) return;
-        topoOrder.clear();
-        topoOrder.addAll(topologicalSort());
-        dirty = false;
+    public void releaseNode(Dependable node) {
+        explicitNodes.remove(node);
+        ArrayDeque<Dependable> candidates = new ArrayDeque<>();
+        candidates.push(node);
+        while (!candidates.isEmpty()) {
+            Dependable n = candidates.pop();
+            if (!slots.containsKey(n) || explicitNodes.contains(n)) continue;
+            List<Dependable> rdeps = reverseDeps.get(n);
+            if (rdeps != null && !rdeps.isEmpty()) continue;
+            List<Dependable> deps = dependencies.get(n);
+            if (deps != null) candidates.addAll(deps);
+            removeNode(n);
+        }
     }
 
     /**
-     * Computes a full topological ordering of the graph nodes.
+     * Returns true if the given node is in the graph
      *
-     * @return a list of nodes in topological order
+     * @param node the node to check
+     * @return true if the node belongs to the graph
      */
-    private List<Dependable> topologicalSort() {
-        List<Dependable> result = new ArrayList<>();
-        Set<Dependable> visited = new HashSet<>();
-        Set<Dependable> temp = new HashSet<>();
-        for (Dependable node : nodes) {
-            dfsTopo(node, dependencies, visited, temp, result);
+    public boolean contains(Dependable node) {
+        return slots.containsKey(node);
+    }
+
+    /**
+     * Returns the number of nodes in the graph
+     *
+     * @return number of nodes
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Compacts the topological order, removing the holes left by removed nodes.
+     * The order itself is always valid, so no resorting is done.
+     */
+    public void sort() {
+        if (holes == 0) return;
+        int k = 0;
+        for (int i = 0; i < topoOrder.size(); i++) {
+            Dependable node = topoOrder.get(i);
+            if (node != null) {
+                boolean dirty = dirtyNodes.get(i);
+                topoOrder.set(k, node);
+                Slot slot = slots.get(node);
+                slot.index = k;
+                dirtyNodes.set(k, dirty);
+                polledNodes.set(k, slot.polled);
+                k++;
+            }
         }
-        return result;
+        topoOrder.subList(k, topoOrder.size()).clear();
+        dirtyNodes.clear(k, dirtyNodes.length());
+        polledNodes.clear(k, polledNodes.length());
+        holes = 0;
     }
 
     /**
-     * Updates all updatable nodes in topological order.
-     * Each node's dependencies are guaranteed to be updated first.
+     * Updates the nodes that changed since the last update, and all nodes depending on them, in topological order.
+     * Each node's dependencies are guaranteed to be updated first. A node propagates the update to its dependents only
+     * if its version changed. Nodes that require polling are always visited.
      */
     public void updateAll() {
-        if (dirty) sort();
-        for (Dependable dep : topoOrder) {
-            if (dep instanceof Updatable) {
-                Updatable dep1 = (Updatable) dep;
-                dep1.update();
+        if (holes > 64 && holes > topoOrder.size() / 2) sort();
+        if (current == this) {
+            dirtyNodes.or(polledNodes);
+        } else {
+            dirtyNodes.set(0, topoOrder.size());
+        }
+        visitedNodesCount = 0;
+        if (parallelUpdates) {
+            updateByLevels();
+        } else {
+            updateSequentially();
+        }
+    }
+
+    private void updateSequentially() {
+        for (int i = dirtyNodes.nextSetBit(0); i >= 0; i = dirtyNodes.nextSetBit(i + 1)) {
+            dirtyNodes.clear(i);
+            Dependable node = topoOrder.get(i);
+            if (node == null) continue;
+            visitedNodesCount++;
+            update(node);
+            afterUpdate(node, false);
+        }
+    }
+
+    /**
+     * Updates the dirty nodes level by level. Nodes are queued in their level once per frame, as marked in their slot.
+     * Nodes notified while updating a level are queued when the level finishes, going back to a previous level if
+     * needed.
+     */
+    private void updateByLevels() {
+        computeLevels();
+        for (int i = dirtyNodes.nextSetBit(0); i >= 0; i = dirtyNodes.nextSetBit(i + 1)) {
+            Dependable node = topoOrder.get(i);
+            if (node == null) {
+                dirtyNodes.clear(i);
+                continue;
+            }
+            queue(node);
+        }
+        Comparator<Dependable> byIndex = Comparator.comparingInt(n -> slots.get(n).index);
+        updatingByLevels = true;
+        try {
+            int numLevel = 0;
+            while (numLevel < levels.size()) {
+                ArrayList<Dependable> level = levels.get(numLevel);
+                if (level.isEmpty()) {
+                    numLevel++;
+                    continue;
+                }
+                level.sort(byIndex);
+                visitedNodesCount += level.size();
+                if (level.size() >= PARALLEL_THRESHOLD) {
+                    updatingInParallel = true;
+                    try {
+                        level.parallelStream().forEach(this::updateInLevel);
+                    } finally {
+                        updatingInParallel = false;
+                    }
+                } else {
+                    level.forEach(this::updateInLevel);
+                }
+                ArrayList<Dependable> updated = new ArrayList<>(level);
+                level.clear();
+                for (Dependable node : updated) {
+                    Slot slot = slots.get(node);
+                    if (slot != null) slot.queued = false;
+                    afterUpdate(node, true);
+                }
+                int nextLevel = queueLateNotifications(numLevel + 1);
+                Dependable changed;
+                while ((changed = pendingStructureChanges.poll()) != null) {
+                    notifyStructureChanged(changed);
+                }
+                numLevel = nextLevel;
+            }
+        } finally {
+            updatingByLevels = false;
+        }
+    }
+
+    private void updateInLevel(Dependable node) {
+        int[] index = updatingIndex.get();
+        index[0] = slots.get(node).index;
+        try {
+            update(node);
+        } finally {
+            index[0] = -1;
+        }
+    }
+
+    /**
+     * Marks the nodes notified while updating the last level as dirty. Those placed after the node that was being
+     * updated are queued, as they would be updated in the same frame in sequential mode. The rest are updated in the
+     * next frame.
+     *
+     * @param nextLevel Level to process next if no previous level needs to be processed again
+     * @return The level to process next
+     */
+    private int queueLateNotifications(int nextLevel) {
+        long[] notification;
+        while ((notification = lateNotifications.poll()) != null) {
+            int index = (int) notification[0];
+            if (index == notification[1]) {
+                //Notifications of the node itself while updating are already handled
+                continue;
+            }
+            dirtyNodes.set(index);
+            if (index > notification[1]) {
+                Dependable node = topoOrder.get(index);
+                if ((node != null) && queue(node)) {
+                    nextLevel = Math.min(nextLevel, slots.get(node).level);
+                }
+            }
+        }
+        return nextLevel;
+    }
+
+    /**
+     * Adds a node to its level, if it is not already queued
+     *
+     * @param node The node
+     * @return True if the node was queued, false if it already was
+     */
+    private boolean queue(Dependable node) {
+        Slot slot = slots.get(node);
+        if (slot.queued) return false;
+        slot.queued = true;
+        levels.get(slot.level).add(node);
+        return true;
+    }
+
+    private static void update(Dependable node) {
+        if (node instanceof Updatable) {
+            ((Updatable) node).update();
+        }
+    }
 
+    /**
+     * Clears the dirty flag of an updated node and, if its version changed, marks its dependents
+     *
+     * @param node          the updated node
+     * @param queueInLevels if true, marked dependents are queued in their levels too
+     */
+    private void afterUpdate(Dependable node, boolean queueInLevels) {
+        Slot slot = slots.get(node);
+        if (slot == null) return;//Removed while updating
+        //Notifications of the node itself while updating are already handled
+        dirtyNodes.clear(slot.index);
+        long version = node.getVersion();
+        if (version == slot.seenVersion) return;
+        slot.seenVersion = version;
+        for (Dependable dependent : reverseDeps.getOrDefault(node, Collections.emptyList())) {
+            Slot dependentSlot = slots.get(dependent);
+            if (queueInLevels) {
+                queue(dependent);
             }
+            dirtyNodes.set(dependentSlot.index);
         }
     }
 
+    /**
+     * Computes the level of each node, if the structure of the graph changed since the last time
+     */
+    private void computeLevels() {
+        if (levelsValid) return;
+        int maxLevel = 0;
+        for (Dependable node : topoOrder) {
+            if (node == null) continue;
+            int level = 0;
+            for (Dependable dep : dependencies.getOrDefault(node, Collections.emptyList())) {
+                level = Math.max(level, slots.get(dep).level + 1);
+            }
+            slots.get(node).level = level;
+            maxLevel = Math.max(maxLevel, level);
+        }
+        while (levels.size() <= maxLevel) {
+            levels.add(new ArrayList<>());
+        }
+        levelsValid = true;
+    }
+
+    /**
+     * Enables or disables the parallel update of the nodes of each level
+     *
+     * @param parallelUpdates True to update in parallel
+     */
+    public void setParallelUpdates(boolean parallelUpdates) {
+        this.parallelUpdates = parallelUpdates;
+    }
+
+    public boolean isParallelUpdates() {
+        return parallelUpdates;
+    }
+
+    /**
+     * Returns the number of nodes visited in the last call to {@link #updateAll()}. Static parts of the scene are not
+     * visited, unless they require polling.
+     *
+     * @return Number of visited nodes
+     */
+    public int getVisitedNodesCount() {
+        return visitedNodesCount;
+    }
+
+    /**
+     * Returns the number of nodes that are visited in every update because they can change without notifying the
+     * graph
+     *
+     * @return Number of polled nodes
+     */
+    public int getPolledNodesCount() {
+        return polledNodes.cardinality();
+    }
+
     /**
      * Returns the list of nodes in current topological order.
-     * The graph is automatically sorted if marked dirty.
      *
      * @return ordered list of nodes
      */
     public List<Dependable> getTopologicalOrder() {
-        if (dirty) sort();
+        sort();
         return Collections.unmodifiableList(topoOrder);
     }
+
+    private static class Slot {
+
+        int index;
+        int level;
+        boolean polled;
+        /**
+         * True if the node is queued in its level, while updating by levels
+         */
+        boolean queued;
+        /**
+         * Version of the node when it was last visited
+         */
+        long seenVersion = Long.MIN_VALUE;
+
+        Slot(int index, boolean polled) {
+            this.index = index;
+            this.polled = polled;
+        }
+    }
 }
@@ -138,6 +138,47 @@ public class JMathAnimConfig {
      * If true, the current renderer should render the result into a movie
      */
     private boolean createMovie = false;
+    /**
+     * Maximum number of frames waiting to be encoded by the video encoder thread. A value of 0 encodes each frame
+     * synchronously in the scene thread.
+     */
+    private int encoderQueueSize = 4;
+    /**
+     * If true, objects of the dependency graph with no mutual dependencies are updated in parallel
+     */
+    private boolean parallelUpdates = false;
+    /**
+     * If true, renderers that support it reuse the drawing of objects that did not change since the previous frame
+     */
+    private boolean cacheStaticObjects = true;
+    /**
+     * If true, objects whose bounding box is out of the view of their camera are not drawn
+     */
+    private boolean viewCulling = true;
+    /**
+     * If true, shapes generated by JLaTeXMath are saved to disk and reused in later executions
+     */
+    private boolean latexDiskCache = false;
+    /**
+     * Command used to compile LaTeX files in the CompileFile mode
+     */
+    private String latexCommand = "latex";
+    /**
+     * Command used to convert dvi files to svg in the CompileFile mode
+     */
+    private String dvisvgmCommand = "dvisvgm";
+    /**
+     * Maximum number of LaTeX files compiled at the same time by {@link com.jmathanim.MathObjects.Text.LatexBatchCompiler}
+     */
+    private int latexCompileThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * First frame rendered by this process, when the scene is rendered in shards
+     */
+    private int shardStartFrame = 0;
+    /**
+     * Frame after the last one rendered by this process, when the scene is rendered in shards
+     */
+    private int shardEndFrame = Integer.MAX_VALUE;
 
     // Shadow parameters
     /**
@@ -384,7 +425,8 @@ public class JMathAnimConfig {
     }
 
     public boolean isCreateMovie() {
-        return createMovie;
+        //No movie is created if the shard range is empty, as when only counting the frames of a scene
+        return createMovie && (shardStartFrame < shardEndFrame);
     }
 
     public void setCreateMovie(boolean createMovie) {
@@ -395,6 +437,232 @@ public class JMathAnimConfig {
         this.createMovie = createMovie;
     }
 
+    /**
+     * Returns the size of the frame queue used by the video encoder
+     *
+     * @return Maximum number of frames waiting to be encoded. 0 means synchronous encoding.
+     */
+    public int getEncoderQueueSize() {
+        return encoderQueueSize;
+    }
+
+    /**
+     * Sets the size of the frame queue used by the video encoder. Frames are encoded in a separate thread while the
+     * scene computes the next ones. Bigger values use more memory but absorb peaks in drawing or encoding times.
+     *
+     * @param encoderQueueSize Maximum number of frames waiting to be encoded. A value of 0 encodes each frame
+     *                         synchronously in the scene thread.
+     */
+    public void setEncoderQueueSize(int encoderQueueSize) {
+        if (getStatus()!= JMathAnimScene.SCENE_STATUS.CONFIG) {
+            logger.warn("Cannot change this setting when the sketch is running.");
+            return;
+        }
+        this.encoderQueueSize = Math.max(0, encoderQueueSize);
+    }
+
+    /**
+     * Returns true if independent objects are updated in parallel
+     *
+     * @return True if parallel updates are enabled
+     */
+    public boolean isParallelUpdates() {
+        return parallelUpdates;
+    }
+
+    /**
+     * Enables or disables parallel updates. When enabled, the objects of each level of the dependency graph, which do
+     * not depend on each other, are updated in parallel. The result is the same as with sequential updates, provided
+     * that updaters do not modify objects other than their own. Useful for scenes with thousands of constructions.
+     *
+     * @param parallelUpdates True to update in parallel, false to update sequentially (default)
+     */
+    public void setParallelUpdates(boolean parallelUpdates) {
+        this.parallelUpdates = parallelUpdates;
+    }
+
+    /**
+     * Returns true if the drawing of objects that do not change is cached
+     *
+     * @return True if static objects are cached
+     */
+    public boolean isCacheStaticObjects() {
+        return cacheStaticObjects;
+    }
+
+    /**
+     * Enables or disables the cache of static objects. When enabled, renderers that support it record the drawing of
+     * complex objects that did not change since the previous frame, like grids, axes or formulas, and replay it in
+     * the next frames while they remain unchanged. Currently only the Skija renderer supports it.
+     *
+     * @param cacheStaticObjects True to cache static objects (default), false to draw all objects every frame
+     */
+    public void setCacheStaticObjects(boolean cacheStaticObjects) {
+        this.cacheStaticObjects = cacheStaticObjects;
+    }
+
+    /**
+     * Returns true if objects out of the view of their camera are skipped when drawing
+     *
+     * @return True if view culling is enabled
+     */
+    public boolean isViewCulling() {
+        return viewCulling;
+    }
+
+    /**
+     * Enables or disables view culling. When enabled, shapes and multishapes whose bounding box, expanded by their
+     * stroke thickness, is out of the view of their camera are not drawn, and neither are the shapes of a multishape
+     * that are out of view. Objects whose drawing is not bounded by their bounding box, like lines or objects with
+     * absolute size, are always drawn.
+     *
+     * @param viewCulling True to skip objects out of view (default), false to draw all objects
+     */
+    public void setViewCulling(boolean viewCulling) {
+        this.viewCulling = viewCulling;
+    }
+
+    /**
+     * Returns true if shapes generated by JLaTeXMath are saved to disk
+     *
+     * @return True if the disk cache is enabled
+     */
+    public boolean isLatexDiskCache() {
+        return latexDiskCache;
+    }
+
+    /**
+     * Enables or disables the disk cache of LaTeX shapes. Shapes generated by JLaTeXMath are always cached in memory
+     * during an execution. When the disk cache is enabled, they are also saved to the tex/glyphs directory and reused
+     * in later executions, avoiding typesetting again the formulas of a scene.
+     *
+     * @param latexDiskCache True to save shapes to disk, false to keep them only in memory (default)
+     */
+    public void setLatexDiskCache(boolean latexDiskCache) {
+        this.latexDiskCache = latexDiskCache;
+    }
+
+    /**
+     * Returns the command used to compile LaTeX files in the CompileFile mode
+     *
+     * @return The command. Default is "latex"
+     */
+    public String getLatexCommand() {
+        return latexCommand;
+    }
+
+    /**
+     * Sets the command used to compile LaTeX files in the CompileFile mode. It is invoked with the arguments
+     * -output-directory=DIR FILE.tex
+     *
+     * @param latexCommand Name or full path of the executable
+     */
+    public void setLatexCommand(String latexCommand) {
+        this.latexCommand = latexCommand;
+    }
+
+    /**
+     * Returns the command used to convert dvi files to svg in the CompileFile mode
+     *
+     * @return The command. Default is "dvisvgm"
+     */
+    public String getDvisvgmCommand() {
+        return dvisvgmCommand;
+    }
+
+    /**
+     * Sets the command used to convert dvi files to svg in the CompileFile mode. It is invoked with the arguments -n1
+     * FILE.dvi
+     *
+     * @param dvisvgmCommand Name or full path of the executable
+     */
+    public void setDvisvgmCommand(String dvisvgmCommand) {
+        this.dvisvgmCommand = dvisvgmCommand;
+    }
+
+    /**
+     * Returns the maximum number of LaTeX files compiled at the same time
+     *
+     * @return Number of threads. Default is the number of available processors
+     */
+    public int getLatexCompileThreads() {
+        return latexCompileThreads;
+    }
+
+    /**
+     * Sets the maximum number of LaTeX files compiled at the same time by
+     * {@link com.jmathanim.MathObjects.Text.LatexBatchCompiler}
+     *
+     * @param latexCompileThreads Number of threads. Values smaller than 1 are treated as 1
+     */
+    public void setLatexCompileThreads(int latexCompileThreads) {
+        this.latexCompileThreads = Math.max(1, latexCompileThreads);
+    }
+
+    /**
+     * Restricts the rendering to the frames in the range [startFrame, endFrame). Frames are numbered from 0. The whole
+     * timeline of the scene is still computed up to endFrame, so that the rendered frames are identical to those of a
+     * full run, but frames outside the range are not drawn or saved, and the scene stops when endFrame is reached. The
+     * movie is saved into a segment file with the start frame in its name. Used by {@link ShardedRendering}.
+     *
+     * @param startFrame First frame to render
+     * @param endFrame   Frame after the last one to render
+     */
+    public void setShard(int startFrame, int endFrame) {
+        if (getStatus() != JMathAnimScene.SCENE_STATUS.CONFIG) {
+            logger.warn("Shard range should be set before the scene starts playing");
+        }
+        this.shardStartFrame = Math.max(0, startFrame);
+        this.shardEndFrame = Math.max(this.shardStartFrame, endFrame);
+    }
+
+    /**
+     * Returns the first frame rendered by this process
+     *
+     * @return The first frame. 0 if the scene is not rendered in shards
+     */
+    public int getShardStartFrame() {
+        return shardStartFrame;
+    }
+
+    /**
+     * Returns the frame after the last one rendered by this process
+     *
+     * @return The end frame, excluded. Integer.MAX_VALUE if the scene is not rendered in shards
+     */
+    public int getShardEndFrame() {
+        return shardEndFrame;
+    }
+
+    /**
+     * Returns true if only a range of frames of the scene is rendered
+     *
+     * @return True if the scene is rendered in shards
+     */
+    public boolean isSharded() {
+        return (shardStartFrame > 0) || (shardEndFrame < Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns true if the given frame should be rendered by this process
+     *
+     * @param frame Frame number, starting from 0
+     * @return True if the frame is in the shard range
+     */
+    public boolean isFrameInShard(int frame) {
+        return (frame >= shardStartFrame) && (frame < shardEndFrame);
+    }
+
+    /**
+     * Returns the suffix added to the movie file name when only a range of frames is rendered, so that every shard
+     * writes its own segment
+     *
+     * @return The suffix, or an empty string if the scene is not rendered in shards
+     */
+    public String getShardSuffix() {
+        return isSharded() ? String.format("_shard%08d", shardStartFrame) : "";
+    }
+
     public boolean isShowPreview() {
         return showPreview;
     }
@@ -46,7 +46,6 @@ import java.util.stream.Collectors;
 public abstract class JMathAnimScene {
 
     public static final double THICKNESS_EQUIVALENT_TO_MATH_UNIT = 1000;
-    public static long globalVersion = 0;
     /**
      * Logger class
      */
@@ -88,8 +87,15 @@ public abstract class JMathAnimScene {
     /**
      * List of sceneObjects which needs to be drawn on the screen
      */
-    private final ArrayList<MathObject<?>> sceneObjects;
-    private final HashSet<MathObject<?>> objectsAlreadydrawn;
+    private final SceneDrawList sceneObjects;
+    /**
+     * Stamp of the frame being drawn. Objects drawn in this frame have this stamp
+     */
+    private long drawStamp;
+    /**
+     * Skips objects out of the view of their camera
+     */
+    private final ViewCuller viewCuller;
     /**
      * Links to be executed, right before the updates
      */
@@ -145,6 +151,10 @@ public abstract class JMathAnimScene {
     private boolean animationIsDisabled;
     private long startTime;
     private final DependencyGraph dependencyGraph;
+    /**
+     * Sounds played when the scene is rendered in shards. They are added to the movie after merging the segments
+     */
+    private final ArrayList<SoundItem> shardSoundItems;
 
     /**
      * Creates a new Scene with default settings.
@@ -152,9 +162,11 @@ public abstract class JMathAnimScene {
     public JMathAnimScene() {
         scene = this;
         status = SCENE_STATUS.CONFIG;
-        sceneObjects = new ArrayList<>();
-        objectsAlreadydrawn = new HashSet<>();
+        sceneObjects = new SceneDrawList();
+        drawStamp = VersionCounter.next();
         dependencyGraph = new DependencyGraph();
+        dependencyGraph.makeCurrent();
+        shardSoundItems = new ArrayList<>();
 
         camera = new Camera(scene, 800, 600);
         fixedCamera = new Camera(scene, 800, 600);
@@ -163,6 +175,7 @@ public abstract class JMathAnimScene {
 
         config = JMathAnimConfig.getConfig();
         config.setScene(this);
+        viewCuller = new ViewCuller(config);
         config.setLowQuality();
         linksToBeDone = new ArrayList<>();
         objectsToBeRemoved = new ArrayList<>();
@@ -217,10 +230,19 @@ public abstract class JMathAnimScene {
         exitCode = 0;
         // In the global variable store Scene, Renderer and main Camera
         config.setScene(this);
+        if (config.isSharded()) {
+            //Shards are rendered in background processes
+            config.setShowPreviewWindow(false);
+        }
         try {
-            runSketch();
+            try {
+                runSketch();
+            } catch (ShardFinishedException e) {
+                logger.debug("Shard finished at frame " + LogUtils.number(frameCount, 0));
+            }
             if (renderer != null)
                 renderer.finish(frameCount);
+            logger.debug("View culling: " + LogUtils.number(viewCuller.getTotalCulled(), 0) + " objects skipped");
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -259,12 +281,23 @@ public abstract class JMathAnimScene {
     }
 
     /**
-     * Returns the list of sceneObjects to be drawn
+     * Returns the list of sceneObjects to be drawn, in drawing order. The list should not be modified.
      *
      * @return An ArrayList of MathObject<?>
      */
     public ArrayList<MathObject<?>> getMathObjects() {
-        return sceneObjects;
+        return sceneObjects.asList();
+    }
+
+    /**
+     * Moves the given object to its place in the drawing order, if its layer changed. Objects call this method when
+     * their layer is changed with their own methods, like {@link MathObject#layer(int)}. Layers changed in any other
+     * way, like directly in the drawing style, are detected before the next frame is drawn.
+     *
+     * @param obj Object whose layer may have changed
+     */
+    public void updateLayer(MathObject<?> obj) {
+        sceneObjects.updateLayer(obj);
     }
 
 
@@ -362,7 +395,6 @@ public abstract class JMathAnimScene {
         for (MathObject<?> obj : objs) {
             if (obj != null) {
                 if (obj instanceof AbstractMultiShapeObject<?, ?>) {
-                    sceneObjects.remove(obj);
                     AbstractMultiShapeObject<?, ?> msh = (AbstractMultiShapeObject<?, ?>) obj;
                     msh.isAddedToScene = false;
                     for (AbstractShape<?> o : msh) {
@@ -378,7 +410,9 @@ public abstract class JMathAnimScene {
                 }
 
                 sceneObjects.remove(obj);
+                dependencyGraph.releaseNode(obj);
                 renderer.removeObject(obj);
+                viewCuller.evict(obj);
 
                 DebugTools.removedFromSceneHook(obj, this);
             }
@@ -390,25 +424,30 @@ public abstract class JMathAnimScene {
 
     /**
      * This method performs the necessary drawing methods. First updates all updateable objects, apply links, and draw
-     * all objects added to the scene. Objects are sorted by layer, so that lower layers means drawing under.
+     * all objects added to the scene. Objects are drawn by layer, so that lower layers means drawing under.
      */
     protected final void doDraws() {
-        objectsAlreadydrawn.clear();
+        doDraws(!animationIsDisabled);
+    }
+
+    private void doDraws(boolean draw) {
+        drawStamp = VersionCounter.next();
+        viewCuller.newFrame();
         doLinks();
         doUpdates();
 
 
-        if (!animationIsDisabled) {
-            // Objects to be drawn on screen. Sort them by layer
-            sceneObjects.sort((MathObject<?> o1, MathObject<?> o2) -> o1.getLayer().compareTo(o2.getLayer()));
-            for (MathObject<?> obj : sceneObjects) {
+        sceneObjects.refresh();
+        if (draw) {
+            // Objects to be drawn on screen, by layer
+            sceneObjects.forEachInDrawingOrder(obj -> {
                 if (obj.isVisible()) {
-                    if (!isAlreadydrawn(obj)) {
-                        obj.draw(this, renderer, obj.getCamera());
+                    if (!isAlreadydrawn(obj) && !viewCuller.isOutsideView(obj, obj.getCamera())) {
+                        renderer.drawSceneObject(obj, this);
                         markAsAlreadydrawn(obj);
                     }
                 }
-            }
+            });
         }
 
         // Now remove all marked sceneObjects from the scene
@@ -424,6 +463,16 @@ public abstract class JMathAnimScene {
         }
     }
 
+    /**
+     * Returns the object that decides which objects are out of view and are not drawn. The number of objects skipped
+     * in the current frame is given by {@link ViewCuller#getCulledInFrame()}.
+     *
+     * @return The view culler
+     */
+    public ViewCuller getViewCuller() {
+        return viewCuller;
+    }
+
     public DependencyGraph getDependencyGraph() {
         return dependencyGraph;
     }
@@ -436,6 +485,7 @@ public abstract class JMathAnimScene {
 //            System.out.println("Updating "+obj);
 //            obj.update(this);
 //        }
+        dependencyGraph.setParallelUpdates(config.isParallelUpdates());
         dependencyGraph.updateAll();
     }
 
@@ -447,17 +497,23 @@ public abstract class JMathAnimScene {
 
 
         long now = System.currentTimeMillis();
+        //Frames outside the shard range are computed but not drawn
+        final boolean drawFrame = !animationIsDisabled && config.isFrameInShard(frameCount);
 
-
-        if (!animationIsDisabled) {
+        if (drawFrame) {
             renderer.clearAndPrepareCanvasForAnotherFrame();
         }
 
         //This method performs all updates and drawings needed
-        doDraws();
-
+        doDraws(drawFrame);
 
-        if (!animationIsDisabled) {
+        if (!animationIsDisabled && !drawFrame) {
+            frameCount++;
+            if (frameCount >= config.getShardEndFrame()) {
+                throw new ShardFinishedException();
+            }
+        }
+        if (drawFrame) {
             frameCount++;
             saveMPFrame();
             previousNanoTime = nanoTime;
@@ -475,6 +531,9 @@ public abstract class JMathAnimScene {
                 }
                 lastTimeMillis = System.currentTimeMillis();
             }
+            if (frameCount >= config.getShardEndFrame()) {
+                throw new ShardFinishedException();
+            }
         }
     }
 
@@ -565,6 +624,11 @@ public abstract class JMathAnimScene {
         long miliSeconds = (frameCount * 1000L) / config.fps;
 
         SoundItem soundItem = SoundItem.make(soundURL, miliSeconds, pitch);
+        if (config.isSharded()) {
+            //Sounds are added to the merged movie, with their time stamps in the whole timeline
+            shardSoundItems.add(soundItem);
+            return;
+        }
         renderer.addSound(soundItem);
     }
 
@@ -655,6 +719,8 @@ public abstract class JMathAnimScene {
 
                 advanceFrame();
 
+            } catch (ShardFinishedException ex) {
+                throw ex;
             } catch (Exception ex) {
                 java.util.logging.Logger.getLogger(JMathAnimScene.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -718,6 +784,27 @@ public abstract class JMathAnimScene {
         this.animationIsDisabled = false;
     }
 
+    /**
+     * Returns the sounds played when the scene is rendered in shards
+     *
+     * @return The list of sounds, with time stamps relative to the start of the scene
+     */
+    ArrayList<SoundItem> getShardSoundItems() {
+        return shardSoundItems;
+    }
+
+    /**
+     * Thrown when the last frame of the shard range is reached, to stop the scene
+     */
+    static class ShardFinishedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ShardFinishedException() {
+            super("Last frame of shard reached", null, false, false);
+        }
+    }
+
     /**
      * Gets the current visible area, in math coordinates
      *
@@ -772,7 +859,7 @@ public abstract class JMathAnimScene {
      * @return True if is already drawn, false otherwise
      */
     public boolean isAlreadydrawn(MathObject<?> obj) {
-        return objectsAlreadydrawn.contains(obj);
+        return obj.getDrawnStamp() == drawStamp;
     }
 
     /**
@@ -781,7 +868,7 @@ public abstract class JMathAnimScene {
      * @param obj MathObject<?> to mark
      */
     public void markAsAlreadydrawn(MathObject<?> obj) {
-        objectsAlreadydrawn.add(obj);
+        obj.setDrawnStamp(drawStamp);
     }
 
     /**
@@ -848,7 +935,7 @@ public abstract class JMathAnimScene {
             return resul;
         }
         //Other case
-        return getMathObjects().contains(mathObject);
+        return sceneObjects.contains(mathObject);
     }
 
     public Link registerLink(Link link) {
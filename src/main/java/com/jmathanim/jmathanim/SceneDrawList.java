@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.MathObjects.MathObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Objects of a scene, kept in drawing order. Objects are stored in one bucket per layer, and inside a bucket in the
+ * order they were added, which is the same order given by a stable sort by layer. Adding an object or changing its
+ * layer only touches its bucket, so the list does not need to be sorted every frame. Layer changes reported with
+ * {@link #updateLayer(MathObject)} are applied at once, and any other change is detected in {@link #refresh()}.
+ * <p>
+ * Membership is checked by identity. Removed objects are only marked as dead, and buckets are compacted in
+ * {@link #refresh()}, so removing is constant time.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+final class SceneDrawList {
+
+    private final IdentityHashMap<MathObject<?>, Entry> entries;
+    private final TreeMap<Integer, Bucket> buckets;
+    private final ArrayList<MathObject<?>> ordered;
+    private boolean orderedIsValid;
+    private long nextSequence;
+    private int deadEntries;
+
+    SceneDrawList() {
+        entries = new IdentityHashMap<>();
+        buckets = new TreeMap<>();
+        ordered = new ArrayList<>();
+        orderedIsValid = true;
+    }
+
+    /**
+     * Adds an object at the end of its layer, if it is not already in the list
+     *
+     * @param obj Object to add
+     * @return True if the object was added, false if it was already in the list
+     */
+    boolean add(MathObject<?> obj) {
+        if (entries.containsKey(obj)) {
+            return false;
+        }
+        Entry entry = new Entry(obj, nextSequence++, layerOf(obj));
+        entries.put(obj, entry);
+        bucket(entry.layer).insert(entry);
+        orderedIsValid = false;
+        return true;
+    }
+
+    /**
+     * Removes an object from the list
+     *
+     * @param obj Object to remove
+     * @return True if the object was in the list, false otherwise
+     */
+    boolean remove(MathObject<?> obj) {
+        Entry entry = entries.remove(obj);
+        if (entry == null) {
+            return false;
+        }
+        kill(entry);
+        orderedIsValid = false;
+        return true;
+    }
+
+    /**
+     * Returns true if the given object is in the list
+     *
+     * @param obj Object to check
+     * @return True if the object is in the list
+     */
+    boolean contains(MathObject<?> obj) {
+        return entries.containsKey(obj);
+    }
+
+    /**
+     * Returns the number of objects in the list
+     *
+     * @return Number of objects
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the given object to the bucket of its current layer, keeping its insertion order. Objects not in the list
+     * or whose layer did not change are ignored.
+     *
+     * @param obj Object whose layer may have changed
+     */
+    void updateLayer(MathObject<?> obj) {
+        Entry entry = entries.get(obj);
+        if (entry != null) {
+            move(entry, layerOf(obj));
+        }
+    }
+
+    /**
+     * Moves the objects whose layer changed to their new bucket, and compacts buckets with removed objects. Layers are
+     * stored in the drawing styles, which may be changed in many ways, so the layer of every object is checked. This
+     * should be called before each frame is drawn.
+     */
+    void refresh() {
+        ArrayList<Entry> moved = null;
+        for (Entry entry : entries.values()) {
+            if (layerOf(entry.obj) != entry.layer) {
+                if (moved == null) {
+                    moved = new ArrayList<>();
+                }
+                moved.add(entry);
+            }
+        }
+        if (moved != null) {
+            for (Entry entry : moved) {
+                move(entry, layerOf(entry.obj));
+            }
+        }
+        if (deadEntries > 0) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                Bucket bucket = it.next();
+                bucket.compact();
+                if (bucket.entries.isEmpty()) {
+                    it.remove();
+                }
+            }
+            deadEntries = 0;
+        }
+    }
+
+    /**
+     * Performs the given action on every object, in drawing order. Objects removed while iterating are skipped.
+     *
+     * @param action Action to perform
+     */
+    void forEachInDrawingOrder(Consumer<MathObject<?>> action) {
+        for (Bucket bucket : buckets.values()) {
+            ArrayList<Entry> bucketEntries = bucket.entries;
+            for (int i = 0; i < bucketEntries.size(); i++) {
+                Entry entry = bucketEntries.get(i);
+                if (!entry.dead) {
+                    action.accept(entry.obj);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the objects in drawing order. The list is rebuilt only when objects are added, removed or moved to
+     * another layer, and should not be modified.
+     *
+     * @return The objects
+     */
+    ArrayList<MathObject<?>> asList() {
+        if (!orderedIsValid) {
+            ordered.clear();
+            ordered.ensureCapacity(entries.size());
+            forEachInDrawingOrder(ordered::add);
+            orderedIsValid = true;
+        }
+        return ordered;
+    }
+
+    private void move(Entry entry, int layer) {
+        if (layer == entry.layer) {
+            return;
+        }
+        //The old entry may be being iterated, so it is only marked as dead
+        kill(entry);
+        Entry movedEntry = new Entry(entry.obj, entry.sequence, layer);
+        entries.put(entry.obj, movedEntry);
+        bucket(layer).insert(movedEntry);
+        orderedIsValid = false;
+    }
+
+    private void kill(Entry entry) {
+        entry.dead = true;
+        deadEntries++;
+    }
+
+    private Bucket bucket(int layer) {
+        Bucket bucket = buckets.get(layer);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(layer, bucket);
+        }
+        return bucket;
+    }
+
+    private static int layerOf(MathObject<?> obj) {
+        Integer layer = obj.getLayer();
+        return (layer == null) ? 0 : layer;
+    }
+
+    private static final class Entry {
+
+        final MathObject<?> obj;
+        final long sequence;
+        final int layer;
+        boolean dead;
+
+        Entry(MathObject<?> obj, long sequence, int layer) {
+            this.obj = obj;
+            this.sequence = sequence;
+            this.layer = layer;
+        }
+    }
+
+    private static final class Bucket {
+
+        final ArrayList<Entry> entries = new ArrayList<>();
+
+        /**
+         * Inserts an entry keeping the bucket sorted by sequence. New objects go at the end.
+         */
+        void insert(Entry entry) {
+            int n = entries.size();
+            if ((n == 0) || (entries.get(n - 1).sequence < entry.sequence)) {
+                entries.add(entry);
+                return;
+            }
+            int lo = 0, hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (entries.get(mid).sequence < entry.sequence) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            entries.add(lo, entry);
+        }
+
+        void compact() {
+            int k = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (!entry.dead) {
+                    entries.set(k++, entry);
+                }
+            }
+            entries.subList(k, entries.size()).clear();
+        }
+    }
+}
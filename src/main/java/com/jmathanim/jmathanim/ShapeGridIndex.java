@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Cameras.ViewFrustum;
+import com.jmathanim.MathObjects.AbstractShape;
+import com.jmathanim.Styling.DrawStyleProperties;
+import com.jmathanim.Utils.EmptyRect;
+import com.jmathanim.Utils.Rect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the bounding boxes of a list of shapes, used to find the shapes in view without testing all of
+ * them. The grid has about one cell per shape, and each shape is stored in the cells its bounding box overlaps. Shapes
+ * that overlap too many cells are stored apart and always tested.
+ * <p>
+ * The index stores the versions of the shapes and their styles, and must be built again when
+ * {@link #isValidFor(List)} returns false. Stroke margins are computed when querying, so the index is still valid when
+ * the camera changes.
+ *
+ * @param <T> Type of the shapes
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+final class ShapeGridIndex<T extends AbstractShape<?>> {
+
+    /**
+     * Shapes overlapping more cells than this are not stored in the grid
+     */
+    private static final int MAX_CELLS_PER_SHAPE = 64;
+
+    private final ArrayList<T> shapes;
+    private final ArrayList<T> result;
+    private long[] versions;
+    private double[] boxes;
+    private double[] thickness;
+    private boolean[] absoluteThickness;
+    private double maxRelativeThickness;
+    private double maxAbsoluteThickness;
+    private double gridX, gridY, cellWidth, cellHeight;
+    private int cols, rows;
+    private int[] cellStart;
+    private int[] cellItems;
+    private int[] large;
+    private int numLarge;
+    private int[] marks;
+    private int mark;
+    private int[] hits;
+
+    ShapeGridIndex() {
+        shapes = new ArrayList<>();
+        result = new ArrayList<>();
+    }
+
+    /**
+     * Returns true if the index was built for the given shapes and none of them, or their styles, changed since
+     *
+     * @param list Shapes
+     * @return True if the index can be used, false if it should be built again
+     */
+    boolean isValidFor(List<T> list) {
+        final int size = list.size();
+        if (size != shapes.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            T sh = list.get(i);
+            if (sh != shapes.get(i)) {
+                return false;
+            }
+            sh.update();
+            if ((sh.getVersion() != versions[2 * i]) || (sh.getMp().getVersion() != versions[2 * i + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the index for the given shapes
+     *
+     * @param list Shapes
+     */
+    void build(List<T> list) {
+        final int size = list.size();
+        shapes.clear();
+        shapes.addAll(list);
+        versions = new long[2 * size];
+        boxes = new double[4 * size];
+        thickness = new double[size];
+        absoluteThickness = new boolean[size];
+        marks = new int[size];
+        mark = 0;
+        hits = new int[size];
+        large = new int[size];
+        numLarge = 0;
+        maxRelativeThickness = 0;
+        maxAbsoluteThickness = 0;
+        double xmin = Double.POSITIVE_INFINITY, ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            T sh = list.get(i);
+            Rect box = sh.getBoundingBox();
+            versions[2 * i] = sh.getVersion();
+            versions[2 * i + 1] = sh.getMp().getVersion();
+            if (box instanceof EmptyRect) {
+                //Marked as empty, it is never drawn
+                boxes[4 * i] = Double.NaN;
+                continue;
+            }
+            boxes[4 * i] = box.xmin;
+            boxes[4 * i + 1] = box.ymin;
+            boxes[4 * i + 2] = box.xmax;
+            boxes[4 * i + 3] = box.ymax;
+            xmin = Math.min(xmin, box.xmin);
+            ymin = Math.min(ymin, box.ymin);
+            xmax = Math.max(xmax, box.xmax);
+            ymax = Math.max(ymax, box.ymax);
+            DrawStyleProperties mp = sh.getMp();
+            thickness[i] = (mp.getThickness() == null) ? 0 : mp.getThickness();
+            absoluteThickness[i] = Boolean.TRUE.equals(mp.isAbsoluteThickness());
+            if (absoluteThickness[i]) {
+                maxAbsoluteThickness = Math.max(maxAbsoluteThickness, thickness[i]);
+            } else {
+                maxRelativeThickness = Math.max(maxRelativeThickness, thickness[i]);
+            }
+        }
+        if (xmin > xmax) {
+            //Nothing to draw
+            cols = rows = 0;
+            cellStart = new int[1];
+            cellItems = new int[0];
+            return;
+        }
+        //About one cell per shape, with the aspect ratio of the covered region
+        double width = Math.max(xmax - xmin, 1e-9);
+        double height = Math.max(ymax - ymin, 1e-9);
+        cols = (int) Math.max(1, Math.min(size, Math.round(Math.sqrt(size * width / height))));
+        rows = (int) Math.max(1, Math.min(size, Math.round((double) size / cols)));
+        gridX = xmin;
+        gridY = ymin;
+        cellWidth = width / cols;
+        cellHeight = height / rows;
+
+        //Two passes: count the shapes of each cell, then fill them
+        cellStart = new int[cols * rows + 1];
+        for (int pass = 0; pass < 2; pass++) {
+            int[] fill = (pass == 1) ? cellStart.clone() : null;
+            if (pass == 1) {
+                cellItems = new int[cellStart[cols * rows]];
+            }
+            for (int i = 0; i < size; i++) {
+                if (Double.isNaN(boxes[4 * i])) {
+                    continue;
+                }
+                int c0 = col(boxes[4 * i]), c1 = col(boxes[4 * i + 2]);
+                int r0 = row(boxes[4 * i + 1]), r1 = row(boxes[4 * i + 3]);
+                if ((c1 - c0 + 1) * (r1 - r0 + 1) > MAX_CELLS_PER_SHAPE) {
+                    if (pass == 0) {
+                        large[numLarge++] = i;
+                    }
+                    continue;
+                }
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        if (pass == 0) {
+                            cellStart[r * cols + c + 1]++;
+                        } else {
+                            cellItems[fill[r * cols + c]++] = i;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int k = 0; k < cols * rows; k++) {
+                    cellStart[k + 1] += cellStart[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shapes that may be seen with the given frustum, in their original order. The returned list is reused
+     * by the next query.
+     *
+     * @param frustum A frustum that is not perspective
+     * @return The shapes in view
+     */
+    List<T> query(ViewFrustum frustum) {
+        result.clear();
+        if (cols == 0) {
+            return result;
+        }
+        if (++mark == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            mark = 1;
+        }
+        final double margin = Math.max(frustum.getStrokeMargin(maxRelativeThickness, false),
+                frustum.getStrokeMargin(maxAbsoluteThickness, true));
+        int numHits = 0;
+        int c0 = col(frustum.getXmin() - margin), c1 = col(frustum.getXmax() + margin);
+        int r0 = row(frustum.getYmin() - margin), r1 = row(frustum.getYmax() + margin);
+        if ((frustum.getXmax() + margin >= gridX) && (frustum.getXmin() - margin <= gridX + cols * cellWidth)
+                && (frustum.getYmax() + margin >= gridY) && (frustum.getYmin() - margin <= gridY + rows * cellHeight)) {
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cell = r * cols + c;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = cellItems[k];
+                        if (marks[i] != mark) {
+                            marks[i] = mark;
+                            if (isInView(i, frustum)) {
+                                hits[numHits++] = i;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < numLarge; k++) {
+            if (isInView(large[k], frustum)) {
+                hits[numHits++] = large[k];
+            }
+        }
+        //Keep the drawing order
+        Arrays.sort(hits, 0, numHits);
+        for (int k = 0; k < numHits; k++) {
+            result.add(shapes.get(hits[k]));
+        }
+        return result;
+    }
+
+    private boolean isInView(int i, ViewFrustum frustum) {
+        double margin = frustum.getStrokeMargin(thickness[i], absoluteThickness[i]);
+        return frustum.intersects(boxes[4 * i], boxes[4 * i + 1], boxes[4 * i + 2], boxes[4 * i + 3], margin);
+    }
+
+    private int col(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor((x - gridX) / cellWidth)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - gridY) / cellHeight)));
+    }
+}
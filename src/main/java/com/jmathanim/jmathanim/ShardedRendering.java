@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Renderers.MovieEncoders.FFmpegAudioEncoder;
+import com.jmathanim.Renderers.MovieEncoders.SoundItem;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Renders a scene in several processes, each one rendering a range of frames into its own movie segment, and merges
+ * the segments into the final movie without re-encoding them.
+ * <p>
+ * Every process runs the whole timeline of the scene up to the end of its range, but only draws and encodes the frames
+ * inside it (see {@link JMathAnimConfig#setShard(int, int)}), so the scene must be deterministic: random numbers
+ * should use a fixed seed and the animation should not depend on the system time. A first process runs the scene
+ * without drawing anything to count the frames and collect the sounds played, which are added to the merged movie.
+ * Merging requires the ffmpeg executable.
+ * <pre>
+ * public static void main(String[] args) throws Exception {
+ *     ShardedRendering.render(MyScene.class, 8);
+ * }
+ * </pre>
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class ShardedRendering {
+
+    private static final String SEGMENT_SUFFIX_REGEX = "_shard\\d{8}\\.mp4$";
+
+    private ShardedRendering() {
+    }
+
+    /**
+     * Entry point of the processes launched by {@link #render(Class, int)}. Arguments are the scene class name, the
+     * first frame, the frame after the last one and the file where the results are written.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the scene cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            System.err.println("Usage: ShardedRendering sceneClass startFrame endFrame infoFile");
+            System.exit(2);
+        }
+        JMathAnimScene scene = (JMathAnimScene) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        scene.getConfig().setShard(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        int exitCode = scene.execute();
+        writeInfo(scene, new File(args[3]));
+        System.exit(exitCode);
+    }
+
+    /**
+     * Renders the given scene in the given number of processes and merges the segments into the movie file that a
+     * normal run would create
+     *
+     * @param sceneClass Class of the scene. It must have a public constructor without arguments
+     * @param numShards  Number of processes. The number of available cores is a good choice
+     * @return Exit code. 0 is no error, not 0 otherwise.
+     * @throws IOException          If the temporary files cannot be created
+     * @throws InterruptedException If interrupted while waiting for the processes
+     */
+    public static int render(Class<? extends JMathAnimScene> sceneClass, int numShards) throws IOException, InterruptedException {
+        File workDir = Files.createTempDirectory("jmathanim-shards").toFile();
+        try {
+            //First, count frames and collect sounds, without drawing
+            File countInfoFile = new File(workDir, "count.properties");
+            JMathAnimScene.logger.info("Counting frames of " + LogUtils.method(sceneClass.getSimpleName()));
+            Process countProcess = createProcess(sceneClass, Integer.MAX_VALUE, Integer.MAX_VALUE, countInfoFile)
+                    .inheritIO().start();
+            if ((countProcess.waitFor() != 0) || !countInfoFile.exists()) {
+                JMathAnimScene.logger.error("Error counting frames of the scene");
+                return 1;
+            }
+            Properties countInfo = readInfo(countInfoFile);
+            int numFrames = Integer.parseInt(countInfo.getProperty("frames"));
+
+            //Launch the shards
+            numShards = Math.max(1, Math.min(numShards, numFrames));
+            JMathAnimScene.logger.info("Rendering " + LogUtils.number(numFrames, 0) + " frames in "
+                    + LogUtils.number(numShards, 0) + " shards");
+            List<Process> processes = new ArrayList<>();
+            List<File> infoFiles = new ArrayList<>();
+            List<File> logFiles = new ArrayList<>();
+            for (int i = 0; i < numShards; i++) {
+                int startFrame = (int) ((long) numFrames * i / numShards);
+                int endFrame = (int) ((long) numFrames * (i + 1) / numShards);
+                File infoFile = new File(workDir, "shard" + i + ".properties");
+                File logFile = new File(workDir, "shard" + i + ".log");
+                ProcessBuilder pb = createProcess(sceneClass, startFrame, endFrame, infoFile);
+                pb.redirectErrorStream(true);
+                pb.redirectOutput(logFile);
+                processes.add(pb.start());
+                infoFiles.add(infoFile);
+                logFiles.add(logFile);
+            }
+            boolean shardsOk = true;
+            for (int i = 0; i < numShards; i++) {
+                if ((processes.get(i).waitFor() != 0) || !infoFiles.get(i).exists()) {
+                    JMathAnimScene.logger.error("Shard " + i + " failed. Output:\n"
+                            + FileUtils.readFileToString(logFiles.get(i), StandardCharsets.UTF_8));
+                    shardsOk = false;
+                }
+            }
+            if (!shardsOk) {
+                return 1;
+            }
+
+            //Merge the segments
+            List<File> segments = new ArrayList<>();
+            for (File infoFile : infoFiles) {
+                String movie = readInfo(infoFile).getProperty("movie");
+                if (movie == null) {
+                    JMathAnimScene.logger.warn("No movie was created. Check that config.setCreateMovie(true) is called");
+                    return 1;
+                }
+                segments.add(new File(movie));
+            }
+            File output = new File(segments.get(0).getPath().replaceAll(SEGMENT_SUFFIX_REGEX, ".mp4"));
+            String ffmpeg = countInfo.getProperty("ffmpeg", "");
+            if ("".equals(ffmpeg)) {
+                ffmpeg = FFmpegAudioEncoder.findFfmpegDefaultPaths();
+            }
+            if (!concat(segments, output, ffmpeg, workDir)) {
+                JMathAnimScene.logger.error("Error merging segments with ffmpeg. Segments are kept in "
+                        + LogUtils.fileName(output.getParent()));
+                return 1;
+            }
+            for (File segment : segments) {
+                FileUtils.deleteQuietly(segment);
+            }
+            addSounds(countInfo, output, ffmpeg);
+            JMathAnimScene.logger.info("Movie created at " + LogUtils.fileName(output.getPath()));
+            return 0;
+        } finally {
+            FileUtils.deleteQuietly(workDir);
+        }
+    }
+
+    /**
+     * Concatenates movie segments into one file, without re-encoding them. All segments should have the same format,
+     * as those created by the shards of a scene.
+     *
+     * @param segments Segment files, in order
+     * @param output   Output file
+     * @param ffmpeg   Path of the ffmpeg executable
+     * @param workDir  Directory for temporary files
+     * @return True if successful, false otherwise
+     * @throws IOException          If the list of segments cannot be written
+     * @throws InterruptedException If interrupted while waiting for ffmpeg
+     */
+    public static boolean concat(List<File> segments, File output, String ffmpeg, File workDir) throws IOException, InterruptedException {
+        if (!new File(ffmpeg).exists()) {
+            JMathAnimScene.logger.warn("ffmpeg executable not found. Set its location with config.setFfmpegExecutable(path)");
+            return false;
+        }
+        File listFile = new File(workDir, "segments.txt");
+        try (PrintWriter writer = new PrintWriter(listFile, StandardCharsets.UTF_8.name())) {
+            for (File segment : segments) {
+                writer.println("file '" + segment.getCanonicalPath().replace("'", "'\\''") + "'");
+            }
+        }
+        Process process = new ProcessBuilder(ffmpeg, "-y", "-loglevel", "quiet",
+                "-f", "concat", "-safe", "0", "-i", listFile.getCanonicalPath(),
+                "-c", "copy", output.getCanonicalPath())
+                .inheritIO()
+                .start();
+        return process.waitFor() == 0;
+    }
+
+    private static ProcessBuilder createProcess(Class<? extends JMathAnimScene> sceneClass, int startFrame, int endFrame, File infoFile) {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                ShardedRendering.class.getName(),
+                sceneClass.getName(),
+                String.valueOf(startFrame),
+                String.valueOf(endFrame),
+                infoFile.getAbsolutePath());
+    }
+
+    private static void writeInfo(JMathAnimScene scene, File infoFile) throws IOException {
+        JMathAnimConfig config = scene.getConfig();
+        Properties info = new Properties();
+        info.setProperty("frames", String.valueOf(scene.getFrameCount()));
+        info.setProperty("outputDir", config.getOutputDir().getCanonicalPath());
+        info.setProperty("outputFileName", config.getOutputFileName());
+        info.setProperty("ffmpeg", config.getFfmpegBinExecutable());
+        if (config.getSaveFilePath() != null) {
+            info.setProperty("movie", config.getSaveFilePath().getCanonicalPath());
+        }
+        ArrayList<SoundItem> sounds = scene.getShardSoundItems();
+        info.setProperty("sounds", String.valueOf(sounds.size()));
+        for (int i = 0; i < sounds.size(); i++) {
+            SoundItem sound = sounds.get(i);
+            info.setProperty("sound." + i + ".url", sound.getSoundUrl().toString());
+            info.setProperty("sound." + i + ".timeStamp", String.valueOf(sound.getTimeStamp()));
+            info.setProperty("sound." + i + ".pitch", String.valueOf(sound.getPitch()));
+        }
+        try (OutputStream out = new FileOutputStream(infoFile)) {
+            info.store(out, "JMathAnim shard");
+        }
+    }
+
+    private static Properties readInfo(File infoFile) throws IOException {
+        Properties info = new Properties();
+        try (InputStream in = new FileInputStream(infoFile)) {
+            info.load(in);
+        }
+        return info;
+    }
+
+    private static void addSounds(Properties countInfo, File movie, String ffmpeg) throws IOException {
+        int numSounds = Integer.parseInt(countInfo.getProperty("sounds", "0"));
+        if (numSounds == 0) {
+            return;
+        }
+        ArrayList<SoundItem> sounds = new ArrayList<>();
+        for (int i = 0; i < numSounds; i++) {
+            sounds.add(SoundItem.make(
+                    new URL(countInfo.getProperty("sound." + i + ".url")),
+                    Long.parseLong(countInfo.getProperty("sound." + i + ".timeStamp")),
+                    Double.parseDouble(countInfo.getProperty("sound." + i + ".pitch"))));
+        }
+        JMathAnimConfig config = JMathAnimConfig.getConfig();
+        config.setOutputDir(countInfo.getProperty("outputDir"));
+        config.setOutputFileName(countInfo.getProperty("outputFileName"));
+        config.setSaveFilePath(movie);
+        config.setFfmpegExecutable(ffmpeg);
+        new FFmpegAudioEncoder(config).processSounds(sounds);
+    }
+}
@@ -0,0 +1,46 @@
+package com.jmathanim.jmathanim;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global source of version numbers for {@link Dependable} objects.
+ * <p>
+ * Versions are compared by taking the maximum version of the dependencies of an object, so every new version must be
+ * greater than any version previously handed out, in any thread. Per-thread blocks of versions would break this, so a
+ * single atomic counter is used. It is padded to its own cache line, so that it does not slow down unrelated fields.
+ * The counter is safe to use from parallel updates and from threads that build paths concurrently.
+ */
+public final class VersionCounter {
+
+    private static final PaddedCounter COUNTER = new PaddedCounter();
+
+    private VersionCounter() {
+    }
+
+    /**
+     * Returns a new version number, greater than all the versions returned before
+     *
+     * @return The new version
+     */
+    public static long next() {
+        return COUNTER.incrementAndGet();
+    }
+
+    /**
+     * Returns the last version handed out
+     *
+     * @return The current version
+     */
+    public static long current() {
+        return COUNTER.get();
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedCounter extends AtomicLong {
+
+        private static final long serialVersionUID = 1L;
+
+        //Fill the rest of the cache line
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
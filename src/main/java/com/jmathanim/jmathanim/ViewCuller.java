@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2020 David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Cameras.Camera;
+import com.jmathanim.Cameras.ViewFrustum;
+import com.jmathanim.MathObjects.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Decides which objects of the scene are out of the view of their camera, so that they are not drawn. Shapes and
+ * multishapes are tested with their bounding box, expanded by their stroke thickness, and the shapes of a multishape
+ * are tested one by one. Multishapes with many shapes keep a {@link ShapeGridIndex}, so that only the shapes near the
+ * view are tested. Objects whose drawing may exceed their bounding box, like lines, dynamic shapes or objects with
+ * absolute size, are never culled.
+ * <p>
+ * The number of objects and shapes skipped is counted for each frame.
+ *
+ * @author David Gutiérrez Rubio davidgutierrezrubio@gmail.com
+ */
+public class ViewCuller {
+
+    /**
+     * Minimum number of shapes of a multishape to use a spatial index
+     */
+    public static final int MIN_SHAPES_TO_INDEX = 64;
+
+    private final JMathAnimConfig config;
+    private final IdentityHashMap<Camera, ViewFrustum> frustums;
+    private final IdentityHashMap<AbstractMultiShapeObject<?, ?>, ShapeGridIndex<?>> indices;
+    private int culledInFrame;
+    private long totalCulled;
+
+    /**
+     * Creates a new culler
+     *
+     * @param config Config, to check if culling is enabled
+     */
+    public ViewCuller(JMathAnimConfig config) {
+        this.config = config;
+        frustums = new IdentityHashMap<>();
+        indices = new IdentityHashMap<>();
+    }
+
+    /**
+     * Starts a new frame. Frustums of the cameras are computed again, and the frame counter is reset.
+     */
+    public void newFrame() {
+        frustums.clear();
+        culledInFrame = 0;
+    }
+
+    /**
+     * Returns the frustum of the given camera in the current frame
+     *
+     * @param camera The camera
+     * @return The frustum
+     */
+    public ViewFrustum getFrustum(Camera camera) {
+        ViewFrustum frustum = frustums.get(camera);
+        if (frustum == null) {
+            frustum = ViewFrustum.of(camera);
+            frustums.put(camera, frustum);
+        }
+        return frustum;
+    }
+
+    /**
+     * Returns true if the given object will not be seen with the given camera, and may be skipped when drawing
+     *
+     * @param obj    Object to draw
+     * @param camera Camera used to draw it
+     * @return True if the object is out of view, false if it may be seen or it cannot be culled
+     */
+    public boolean isOutsideView(MathObject<?> obj, Camera camera) {
+        if (!config.isViewCulling() || (camera == null) || !isCullable(obj)) {
+            return false;
+        }
+        ViewFrustum frustum = getFrustum(camera);
+        if (!frustum.isCullable() || frustum.intersects(obj.getBoundingBox(), frustum.getStrokeMargin(obj.getMp()))) {
+            return false;
+        }
+        culledInFrame++;
+        totalCulled++;
+        return true;
+    }
+
+    /**
+     * Returns the shapes of a multishape that may be seen with the given camera, in their original order. The returned
+     * list should be used before calling this method again for the same object.
+     *
+     * @param msh    The multishape
+     * @param shapes Its shapes
+     * @param camera Camera used to draw it
+     * @param <T>    Type of the shapes
+     * @return The shapes that may be seen. The given list is returned if no shape was culled.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AbstractShape<?>> List<T> getShapesInView(AbstractMultiShapeObject<?, ?> msh, List<T> shapes, Camera camera) {
+        if (!config.isViewCulling() || (camera == null) || msh.absoluteSize) {
+            return shapes;
+        }
+        ViewFrustum frustum = getFrustum(camera);
+        if (!frustum.isCullable()) {
+            return shapes;
+        }
+        List<T> visible;
+        if ((shapes.size() >= MIN_SHAPES_TO_INDEX) && !frustum.isPerspective()) {
+            ShapeGridIndex<T> index = (ShapeGridIndex<T>) indices.get(msh);
+            if (index == null) {
+                index = new ShapeGridIndex<>();
+                indices.put(msh, index);
+            }
+            if (!index.isValidFor(shapes)) {
+                index.build(shapes);
+            }
+            visible = index.query(frustum);
+        } else {
+            visible = null;
+            for (int i = 0; i < shapes.size(); i++) {
+                T sh = shapes.get(i);
+                boolean inView = !isCullable(sh)
+                        || frustum.intersects(sh.getBoundingBox(), frustum.getStrokeMargin(sh.getMp()));
+                if (!inView && (visible == null)) {
+                    visible = new ArrayList<>(shapes.subList(0, i));
+                } else if (inView && (visible != null)) {
+                    visible.add(sh);
+                }
+            }
+            if (visible == null) {
+                return shapes;
+            }
+        }
+        culledInFrame += shapes.size() - visible.size();
+        totalCulled += shapes.size() - visible.size();
+        return visible;
+    }
+
+    /**
+     * Releases the data kept for an object removed from the scene
+     *
+     * @param obj The removed object
+     */
+    public void evict(MathObject<?> obj) {
+        if (obj instanceof AbstractMultiShapeObject) {
+            indices.remove(obj);
+        }
+    }
+
+    /**
+     * Returns the number of objects and shapes not drawn in the current frame because they were out of view
+     *
+     * @return Number of culled objects
+     */
+    public int getCulledInFrame() {
+        return culledInFrame;
+    }
+
+    /**
+     * Returns the total number of objects and shapes not drawn because they were out of view
+     *
+     * @return Number of culled objects
+     */
+    public long getTotalCulled() {
+        return totalCulled;
+    }
+
+    private static boolean isCullable(MathObject<?> obj) {
+        if (obj.absoluteSize || (obj instanceof hasTrivialBoundingBox) || (obj instanceof AbstractDynamicShape)) {
+            return false;
+        }
+        return (obj instanceof AbstractShape) || (obj instanceof AbstractMultiShapeObject);
+    }
+}
@@ -0,0 +1,66 @@
+package com.jmathanim.Animations.Strategies.Transform;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.MathObjects.Shapes.JMPathPoint;
+import com.jmathanim.Utils.Vec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterpolationPlanTest {
+
+    private static JMPath createPath(double shift) {
+        JMPath path = new JMPath();
+        path.addPoint(Vec.to(shift, 0), Vec.to(1 + shift, 0), Vec.to(1 + shift, 1));
+        path.get(1).getVEnter().copyCoordinatesFrom(Vec.to(.5 + shift, -.5));
+        path.get(2).getVExit().copyCoordinatesFrom(Vec.to(1.5 + shift, 1.5));
+        return path;
+    }
+
+    @Test
+    void interpolatesAllPathsIntoTargets() {
+        JMPath from1 = createPath(0), to1 = createPath(2), target1 = createPath(0);
+        JMPath from2 = createPath(10), to2 = createPath(20), target2 = createPath(10);
+        InterpolationPlan plan = InterpolationPlan.make(List.of(target1, target2), List.of(from1, from2),
+                List.of(to1, to2));
+        assertEquals(6, plan.size());
+
+        JMPathPoint firstPoint = target1.get(0);
+        long version = firstPoint.getVersion();
+        plan.apply(.5);
+        assertSame(firstPoint, target1.get(0), "Existing points are modified");
+        assertTrue(firstPoint.getVersion() > version, "Modified points are marked as changed");
+        assertEquals(target1.get(1).getVersion(), target2.get(2).getVersion(), "All points share the frame version");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(from1.get(i).getV().x + 1, target1.get(i).getV().x, 1e-12);
+            assertEquals(from1.get(i).getVEnter().x + 1, target1.get(i).getVEnter().x, 1e-12);
+            assertEquals(from1.get(i).getVExit().x + 1, target1.get(i).getVExit().x, 1e-12);
+            assertEquals(from2.get(i).getV().x + 5, target2.get(i).getV().x, 1e-12);
+            assertEquals(from2.get(i).getVExit().y, target2.get(i).getVExit().y, 1e-12);
+        }
+        plan.apply(1);
+        assertEquals(to2.get(2).getVExit().x, target2.get(2).getVExit().x, 1e-12);
+    }
+
+    @Test
+    void originIsCopiedAndDestinyIsReadEveryFrame() {
+        JMPath from = createPath(0), to = createPath(2), target = createPath(0);
+        InterpolationPlan plan = InterpolationPlan.make(List.of(target), List.of(from), List.of(to));
+
+        //Later changes of the origin do not affect the plan
+        from.get(0).getV().x = -100;
+        plan.apply(0);
+        assertEquals(0, target.get(0).getV().x, 1e-12);
+
+        //The destiny may move during the animation
+        to.get(0).getV().x = 100;
+        to.get(2).getVExit().y = 10;
+        plan.apply(1);
+        assertEquals(100, target.get(0).getV().x, 1e-12);
+        assertEquals(10, target.get(2).getVExit().y, 1e-12);
+        plan.apply(.5);
+        assertEquals(50, target.get(0).getV().x, 1e-12);
+    }
+}
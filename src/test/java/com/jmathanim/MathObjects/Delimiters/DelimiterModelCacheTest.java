@@ -0,0 +1,84 @@
+package com.jmathanim.MathObjects.Delimiters;
+
+import com.jmathanim.Enum.ArrowType;
+import com.jmathanim.Enum.DelimiterType;
+import com.jmathanim.MathObjects.Point;
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
+import com.jmathanim.Utils.ResourceLoader;
+import com.jmathanim.Utils.SVGImport;
+import com.jmathanim.jmathanim.DummyScene;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimiterModelCacheTest {
+
+    @Test
+    void arrowHeadsAreIndependentCopies() throws Exception {
+        JMPath h1 = Arrow.loadArrowHeadPath(ArrowType.SQUARE);
+        JMPath h2 = Arrow.loadArrowHeadPath(ArrowType.SQUARE);
+        assertNotSame(h1, h2);
+        assertEquals(h1.size(), h2.size());
+        assertNotNull(h2.getProperty("gap"));
+        assertEquals(h1.getProperty("gap"), h2.getProperty("gap"));
+        double x = h2.get(0).getV().x;
+        h1.shift(5, 5);
+        JMPath h3 = Arrow.loadArrowHeadPath(ArrowType.SQUARE);
+        assertEquals(x, h3.get(0).getV().x, 1e-12);
+    }
+
+    @Test
+    void rebuiltArrowMatchesNewArrow() {
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+                Point A = Point.at(0, 0);
+                Point B = Point.at(1, 0);
+                Arrow arrow = Arrow.makeDouble(A, B, ArrowType.ARROW1, ArrowType.SQUARE);
+                B.moveTo(2, 1);
+                arrow.rebuildShape();
+                arrow.setCurvature(.5);
+                arrow.setCurvature(0);
+                Arrow fresh = Arrow.makeDouble(Point.at(0, 0), Point.at(2, 1), ArrowType.ARROW1, ArrowType.SQUARE);
+                JMPath p1 = arrow.getArrowShape().getPath();
+                JMPath p2 = fresh.getArrowShape().getPath();
+                assertEquals(p2.size(), p1.size());
+                for (int i = 0; i < p1.size(); i++) {
+                    assertEquals(p2.get(i).getV().x, p1.get(i).getV().x, 1e-9);
+                    assertEquals(p2.get(i).getV().y, p1.get(i).getV().y, 1e-9);
+                    assertEquals(p2.get(i).isSegmentToThisPointVisible(), p1.get(i).isSegmentToThisPointVisible());
+                }
+            }
+        }.execute();
+    }
+
+    @Test
+    void delimitersDoNotShareBodies() {
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+                ShapeDelimiter d1 = ShapeDelimiter.makeShapeDelimiter(Point.at(0, 0), Point.at(1, 0), DelimiterType.BRACE, .1);
+                ShapeDelimiter d2 = ShapeDelimiter.makeShapeDelimiter(Point.at(0, 0), Point.at(1, 0), DelimiterType.BRACE, .1);
+                assertNotNull(d1.body);
+                assertTrue(d1.body.size() >= 4);
+                assertEquals(d1.body.size(), d2.body.size());
+                assertNotSame(d1.body.get(0).getPath(), d2.body.get(0).getPath());
+                assertNotSame(d1.body.get(0).getPath().get(0), d2.body.get(0).getPath().get(0));
+                assertNotSame(d1.body.get(0).getMp(), d2.body.get(0).getMp());
+                //Body shapes keep the styles of the model
+                try {
+                    MultiShapeObject model = new SVGImport(this).importSVG(
+                            new ResourceLoader().getResource("#braces.svg", "shapeResources/delimiters"));
+                    for (int i = 0; i < model.size(); i++) {
+                        assertEquals(model.get(i).getMp().getDrawColor(), d2.body.get(i).getMp().getDrawColor());
+                        assertEquals(model.get(i).getMp().getFillColor(), d2.body.get(i).getMp().getFillColor());
+                        assertEquals(model.get(i).getMp().getThickness(), d2.body.get(i).getMp().getThickness());
+                    }
+                } catch (Exception ex) {
+                    fail(ex);
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,56 @@
+package com.jmathanim.MathObjects.Shapes;
+
+import com.jmathanim.Utils.AffineJTransform;
+import com.jmathanim.Utils.Vec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedPathTest {
+
+    private static JMPath createPath() {
+        JMPath path = new JMPath();
+        path.addPoint(Vec.to(0, 0), Vec.to(1, 0), Vec.to(1, 1), Vec.to(0, 2));
+        path.get(2).setSegmentToThisPointCurved(true);
+        path.get(2).getVEnter().copyCoordinatesFrom(Vec.to(1.5, .5));
+        path.get(3).setSegmentToThisPointVisible(false);
+        return path;
+    }
+
+    @Test
+    void transformMatchesJMPathTransform() {
+        JMPath path = createPath();
+        JMPath expected = path.copy();
+        AffineJTransform tr = AffineJTransform.create2DRotationTransform(Vec.to(1, 2), .7);
+        expected.applyAffineTransform(tr);
+
+        JMPathPoint firstPoint = path.get(0);
+        PackedPath.of(path).applyAffineTransform(tr).storeTo(path);
+        assertSame(firstPoint, path.get(0), "Existing points are reused");
+        for (int i = 0; i < path.size(); i++) {
+            assertEquivalent(expected.get(i).getV(), path.get(i).getV());
+            assertEquivalent(expected.get(i).getVEnter(), path.get(i).getVEnter());
+            assertEquivalent(expected.get(i).getVExit(), path.get(i).getVExit());
+            assertEquals(expected.get(i).isSegmentToThisPointVisible(), path.get(i).isSegmentToThisPointVisible());
+            assertEquals(expected.get(i).isSegmentToThisPointCurved(), path.get(i).isSegmentToThisPointCurved());
+        }
+    }
+
+    @Test
+    void interpolationKeepsFlags() {
+        JMPath path = createPath();
+        PackedPath from = PackedPath.of(path);
+        PackedPath to = PackedPath.of(path).applyAffineTransform(AffineJTransform.createTranslationTransform(Vec.to(2, 4)));
+        PackedPath result = PackedPath.of(path).interpolate(from, to, .25);
+        result.storeTo(path);
+        assertEquivalent(Vec.to(1.5, 2), path.get(2).getV());
+        assertEquivalent(Vec.to(2, 1.5), path.get(2).getVEnter());
+        assertTrue(path.get(2).isSegmentToThisPointCurved());
+        assertFalse(path.get(3).isSegmentToThisPointVisible());
+        assertThrows(IllegalArgumentException.class, () -> result.interpolate(from, new PackedPath(), .5));
+    }
+
+    private static void assertEquivalent(Vec expected, Vec actual) {
+        assertTrue(expected.isEquivalentTo(actual, 1e-9), "Expected " + expected + " but was " + actual);
+    }
+}
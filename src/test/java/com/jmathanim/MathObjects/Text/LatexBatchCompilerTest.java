@@ -0,0 +1,83 @@
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class LatexBatchCompilerTest {
+
+    @TempDir
+    File dir;
+
+    private static File script(File dir, String name, String body) throws IOException {
+        File file = new File(dir, name);
+        Files.writeString(file.toPath(), "#!/bin/sh\n" + body);
+        assertTrue(file.setExecutable(true));
+        return file;
+    }
+
+    @BeforeEach
+    void useStubCommands() throws IOException {
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("win"), "Stub commands are shell scripts");
+        //Stubs write the files that latex and dvisvgm would generate. While running, latex keeps a file in the running
+        //folder and waits a while for other instances, then logs how many instances were running at once.
+        File running = new File(dir, "running");
+        assertTrue(running.mkdir());
+        File latex = script(dir, "latex", "out=${1#-output-directory=}\n"
+                + "name=$(basename \"$2\" .tex)\n"
+                + "touch \"" + running + "/$name\"\n"
+                + "i=0\n"
+                + "while [ $(ls \"" + running + "\" | wc -l) -lt 2 ] && [ $i -lt 20 ]; do sleep 0.1; i=$((i+1)); done\n"
+                + "ls \"" + running + "\" | wc -l >> \"" + new File(dir, "latex.log") + "\"\n"
+                + "sleep 0.1\n"
+                + "rm \"" + running + "/$name\"\n"
+                + "echo dvi > \"$out/$name.dvi\"\n");
+        File dvisvgm = script(dir, "dvisvgm", "echo '<svg xmlns=\"http://www.w3.org/2000/svg\"/>' > \"${2%.dvi}.svg\"\n");
+        JMathAnimConfig.getConfig().setLatexCommand(latex.getAbsolutePath());
+        JMathAnimConfig.getConfig().setDvisvgmCommand(dvisvgm.getAbsolutePath());
+    }
+
+    @AfterEach
+    void restoreCommands() {
+        JMathAnimConfig.getConfig().setLatexCommand("latex");
+        JMathAnimConfig.getConfig().setDvisvgmCommand("dvisvgm");
+    }
+
+    @Test
+    void formulasAreCompiledConcurrentlyAndOnce() throws IOException {
+        File texDir = new File(dir, "tex");
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            texts.add("$x^" + i + "$");
+        }
+        texts.add("$x^0$");
+
+        assertEquals(8, LatexBatchCompiler.compile(texDir, texts, 8));
+        //One latex run per distinct formula, and some of them running at the same time
+        List<String> log = Files.readAllLines(new File(dir, "latex.log").toPath());
+        assertEquals(8, log.size());
+        int maxRunning = 0;
+        for (String line : log) {
+            maxRunning = Math.max(maxRunning, Integer.parseInt(line.trim()));
+        }
+        assertTrue(maxRunning > 1, "Formulas were compiled one at a time");
+
+        for (String text : texts) {
+            String path = AbstractLatexMathObject.writeLaTeXDocument(texDir, text).getPath();
+            assertTrue(new File(path.replace(".tex", ".svg")).exists(), text);
+        }
+        //Already compiled files are skipped
+        assertEquals(0, LatexBatchCompiler.compile(texDir, texts, 8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.jmathanim.DummyScene;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatexGlyphCacheTest {
+
+    private static final String TEXT = "$x^2+\\frac{1}{2}$";
+
+    @BeforeAll
+    static void createScene() {
+        //LaTeX objects are created in the current scene
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+            }
+        }.getRenderer();
+    }
+
+    @AfterEach
+    void disableDiskCache() {
+        JMathAnimConfig.getConfig().setLatexDiskCache(false);
+    }
+
+    private static void assertSameGlyphs(AbstractLatexMathObject<?> expected, AbstractLatexMathObject<?> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            JMPath p1 = expected.get(i).getPath();
+            JMPath p2 = actual.get(i).getPath();
+            assertNotSame(p1, p2, "Shapes must be copies");
+            assertEquals(p1.size(), p2.size());
+            for (int k = 0; k < p1.size(); k++) {
+                assertEquals(p1.get(k).getV().x, p2.get(k).getV().x, 1e-12);
+                assertEquals(p1.get(k).getV().y, p2.get(k).getV().y, 1e-12);
+                assertEquals(p1.get(k).getVEnter().x, p2.get(k).getVEnter().x, 1e-12);
+                assertEquals(p1.get(k).getVExit().y, p2.get(k).getVExit().y, 1e-12);
+                assertEquals(p1.get(k).isSegmentToThisPointCurved(), p2.get(k).isSegmentToThisPointCurved());
+            }
+        }
+        assertEquals(expected.getLatexParser().size(), actual.getLatexParser().size());
+        for (int i = 0; i < expected.getLatexParser().size(); i++) {
+            assertEquals(expected.getLatexParser().get(i).toString(), actual.getLatexParser().get(i).toString());
+        }
+    }
+
+    @Test
+    void sameTextReusesShapesAndTokens() {
+        LatexGlyphCache cache = LatexGlyphCache.getInstance();
+        LatexMathObject first = LatexMathObject.make(TEXT);
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        LatexMathObject second = LatexMathObject.make(TEXT);
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+        assertSameGlyphs(first, second);
+    }
+
+    @Test
+    void entriesAreReadBackFromDisk(@TempDir File dir) {
+        LatexMathObject.make(TEXT);
+        LatexMathObject generated = LatexMathObject.make();
+        String key = LatexGlyphCache.key(TEXT, AbstractLatexMathObject.CompileMode.JLaTexMath, generated.getLatexParser());
+        assertTrue(LatexGlyphCache.getInstance().restore(key, generated));
+        JMathAnimConfig.getConfig().setLatexDiskCache(true);
+        new LatexGlyphCache(16, dir).store(key, generated);
+
+        LatexGlyphCache fromDisk = new LatexGlyphCache(16, dir);
+        LatexMathObject restored = LatexMathObject.make();
+        assertTrue(fromDisk.restore(key, restored));
+        assertEquals(1, fromDisk.getDiskHits());
+        assertSameGlyphs(generated, restored);
+    }
+}
@@ -0,0 +1,66 @@
+package com.jmathanim.MathObjects.Text;
+
+import com.jmathanim.Utils.Rect;
+import com.jmathanim.jmathanim.DummyScene;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.scilab.forge.jlatexmath.ParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberGlyphAtlasTest {
+
+    @BeforeAll
+    static void createScene() {
+        //LaTeX objects are created in the current scene
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+            }
+        }.getRenderer();
+    }
+
+    @Test
+    void composedNumbersMatchTypesetting() throws ParseException {
+        for (String text : new String[]{"-1,234.5", "0.07", "98,760.125", "3", "--", "---", "1--2", "1,,2", "1-2"}) {
+            LatexMathObject typeset = LatexMathObject.make();
+            typeset.generateRawShapes(text);
+            //Texts with ligatures are typeset as usual, as the scene does
+            LatexMathObject composed = LatexMathObject.make();
+            if (!NumberGlyphAtlas.get(composed.getLatexParser()).compose(text, composed)) {
+                composed.generateRawShapes(text);
+            }
+
+            assertEquals(typeset.size(), composed.size(), text);
+            //Raw shapes may be translated, positions are compared relative to the first shape
+            Rect ref1 = typeset.get(0).getBoundingBox();
+            Rect ref2 = composed.get(0).getBoundingBox();
+            double tolerance = 1e-4 * typeset.computeBoundingBox().getWidth();
+            for (int i = 0; i < typeset.size(); i++) {
+                Rect r1 = typeset.get(i).getBoundingBox();
+                Rect r2 = composed.get(i).getBoundingBox();
+                assertEquals(r1.xmin - ref1.xmin, r2.xmin - ref2.xmin, tolerance, text);
+                assertEquals(r1.ymin - ref1.ymin, r2.ymin - ref2.ymin, tolerance, text);
+                assertEquals(r1.xmax - ref1.xmin, r2.xmax - ref2.xmin, tolerance, text);
+                assertEquals(r1.ymax - ref1.ymin, r2.ymax - ref2.ymin, tolerance, text);
+                assertEquals(typeset.getLatexParser().get(i).toString(), composed.getLatexParser().get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    void numbersAreComposedAndOtherTextsTypeset() {
+        NumberGlyphAtlas atlas = NumberGlyphAtlas.get(LatexMathObject.make().getLatexParser());
+        assertFalse(atlas.canCompose("1.5E3"));
+        assertFalse(atlas.canCompose("+3"));
+        assertFalse(atlas.canCompose(""));
+        assertFalse(atlas.canCompose("1--10"));
+        assertFalse(atlas.canCompose("1,,2"));
+        assertTrue(atlas.canCompose("-1,234.5"));
+        long composed = atlas.getComposed();
+        JMNumber number = JMNumber.make(-1234.5);
+        number.setValue(2.25);
+        assertEquals(composed + 2, atlas.getComposed());
+        assertEquals(4, number.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.jmathanim.Renderers.FXRenderer;
+
+import com.jmathanim.Styling.JMColor;
+import com.jmathanim.Styling.RendererEffects;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaFXRendererUtilsTest {
+
+    private static List<Object> nodes(int n) {
+        ArrayList<Object> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new Object());
+        }
+        return nodes;
+    }
+
+    @Test
+    void unchangedChildrenAreNotModified() {
+        List<Object> nodes = nodes(100);
+        List<Object> children = new ArrayList<>(nodes);
+        assertEquals(0, JavaFXRendererUtils.updateChildren(children, new ArrayList<>(nodes)));
+        assertEquals(nodes, children);
+    }
+
+    @Test
+    void onlyChangedChildrenAreUpdated() {
+        List<Object> nodes = nodes(100);
+        List<Object> children = new ArrayList<>(nodes);
+        List<Object> newNodes = new ArrayList<>(nodes);
+        newNodes.remove(10);
+        newNodes.remove(50);
+        newNodes.add(20, new Object());
+        newNodes.add(newNodes.remove(70));
+        newNodes.add(new Object());
+
+        int changes = JavaFXRendererUtils.updateChildren(children, newNodes);
+        assertEquals(newNodes, children);
+        assertTrue(changes <= 6, "Only removed, added and moved nodes are changed, but found " + changes);
+    }
+
+    @Test
+    void bigReordersReplaceAllChildren() {
+        List<Object> nodes = nodes(100);
+        List<Object> children = new ArrayList<>(nodes);
+        List<Object> newNodes = new ArrayList<>();
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            newNodes.add(nodes.get(i));
+        }
+        JavaFXRendererUtils.updateChildren(children, newNodes);
+        assertEquals(newNodes, children);
+    }
+
+    @Test
+    void rendererEffectsKeyDetectsAnyChange() {
+        RendererEffects effects = new RendererEffects();
+        effects.setShadowKernelSize(3).setShadowOffset(1, 2).setShadowColor(JMColor.rgba(0, 0, 0, .5));
+        JavaFXRendererUtils.RendererEffectsKey key = JavaFXRendererUtils.RendererEffectsKey.of(effects);
+        assertTrue(key.matches(effects));
+        assertEquals(key, JavaFXRendererUtils.RendererEffectsKey.of(effects));
+
+        effects.setShadowOffset(2, 1);
+        assertFalse(key.matches(effects));
+        effects.setShadowOffset(1, 2);
+        effects.getShadowColor().setAlpha(.25);
+        assertFalse(key.matches(effects));
+        assertNotEquals(key, JavaFXRendererUtils.RendererEffectsKey.of(effects));
+    }
+}
@@ -0,0 +1,111 @@
+package com.jmathanim.Renderers.MovieEncoders;
+
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncVideoEncoderTest {
+
+    @Test
+    void framesAreEncodedInOrderAndBuffersRecycled() throws Exception {
+        RecordingEncoder recorder = new RecordingEncoder();
+        AsyncVideoEncoder encoder = new AsyncVideoEncoder(recorder, 2);
+        JMathAnimConfig config = JMathAnimConfig.getConfig();
+        encoder.createEncoder(config);
+        int w = config.getMediaWidth();
+        int h = config.getMediaHeight();
+
+        List<BufferedImage> buffersUsed = new ArrayList<>();
+        for (int n = 1; n <= 50; n++) {
+            BufferedImage buffer = encoder.acquireFrameBuffer(w, h);
+            if (!buffersUsed.contains(buffer)) {
+                buffersUsed.add(buffer);
+            }
+            encoder.writeFrame(buffer, n);
+        }
+        encoder.finish();
+
+        assertTrue(recorder.finished, "wrapped encoder not finished");
+        assertEquals(50, recorder.frames.size(), "frames lost");
+        for (int n = 0; n < 50; n++) {
+            assertEquals(n + 1, recorder.frames.get(n), "frames out of order");
+        }
+        assertTrue(buffersUsed.size() <= 3, "frame buffers not recycled");
+    }
+
+    @Test
+    void encodingErrorsAreThrownToTheRenderer() throws Exception {
+        RecordingEncoder recorder = new RecordingEncoder();
+        recorder.failingFrame = 3;
+        AsyncVideoEncoder encoder = new AsyncVideoEncoder(recorder, 2);
+        JMathAnimConfig config = JMathAnimConfig.getConfig();
+        encoder.createEncoder(config);
+        int w = config.getMediaWidth();
+        int h = config.getMediaHeight();
+
+        IllegalStateException error = null;
+        for (int n = 1; (n <= 50) && (error == null); n++) {
+            try {
+                encoder.writeFrame(encoder.acquireFrameBuffer(w, h), n);
+            } catch (IllegalStateException e) {
+                error = e;
+            }
+        }
+        if (error == null) {
+            error = assertThrows(IllegalStateException.class, encoder::finish);
+        } else {
+            encoder.finish();
+        }
+        assertTrue(recorder.finished, "wrapped encoder not finished");
+        assertEquals("Frame 3 failed", error.getCause().getMessage());
+        assertEquals(2, recorder.frames.size());
+    }
+
+    private static class RecordingEncoder extends VideoEncoder {
+
+        final List<Integer> frames = new ArrayList<>();
+        boolean finished;
+        int failingFrame = -1;
+
+        @Override
+        public void createEncoder(JMathAnimConfig config) {
+        }
+
+        @Override
+        public void writeFrame(BufferedImage image, int frameCount) {
+            try {
+                Thread.sleep(1);//Slow encoder, to fill the queue
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (frameCount == failingFrame) {
+                throw new RuntimeException("Frame " + frameCount + " failed");
+            }
+            frames.add(frameCount);
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+
+        @Override
+        public boolean isFramesGenerated() {
+            return !frames.isEmpty();
+        }
+
+        @Override
+        public void addSound(URL soundURL, long miliSeconds) {
+        }
+
+        @Override
+        public void addSound(SoundItem soundItem) {
+        }
+    }
+}
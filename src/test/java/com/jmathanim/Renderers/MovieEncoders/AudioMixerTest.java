@@ -0,0 +1,109 @@
+package com.jmathanim.Renderers.MovieEncoders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioMixerTest {
+
+    @TempDir
+    File dir;
+
+    /**
+     * Writes a mono 16 bit wav file with a constant value
+     */
+    private SoundItem constantSound(String name, float sampleRate, int frames, double value, long timeStamp, double pitch) throws IOException {
+        byte[] bytes = new byte[2 * frames];
+        short sample = (short) Math.round(value * 32768);
+        for (int i = 0; i < frames; i++) {
+            bytes[2 * i] = (byte) sample;
+            bytes[2 * i + 1] = (byte) (sample >> 8);
+        }
+        File file = new File(dir, name);
+        AudioFormat format = new AudioFormat(sampleRate, 16, 1, true, false);
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(bytes), format, frames), AudioFileFormat.Type.WAVE, file);
+        return SoundItem.make(file.toURI().toURL(), timeStamp, pitch);
+    }
+
+    @Test
+    void soundsAreDelayedResampledAndSummed() throws IOException {
+        AudioMixer mixer = new AudioMixer(48000, 2);
+        //100 ms at 24000 Hz, starting at 50 ms
+        assertTrue(mixer.add(constantSound("a.wav", 24000, 2400, .25, 50, 1)));
+        assertEquals(2400 + 4800, mixer.getFrames());
+        //Same length, twice the pitch: lasts 50 ms, starting at 100 ms
+        assertTrue(mixer.add(constantSound("b.wav", 24000, 2400, .25, 100, 2)));
+        assertEquals(2400 + 4800, mixer.getFrames());
+
+        short[] samples = mixer.toPCM16(0, mixer.getFrames(), new short[2 * mixer.getFrames()]);
+        assertEquals(0, samples[2 * 2000]);
+        //Mono sounds are copied to both channels
+        assertEquals(.25, samples[2 * 3000] / 32767d, 1e-3);
+        assertEquals(.25, samples[2 * 3000 + 1] / 32767d, 1e-3);
+        assertEquals(.25, samples[2 * 4000] / 32767d, 1e-3);
+        //Both sounds overlap between 100 ms and 150 ms
+        assertEquals(.5, samples[2 * 6000] / 32767d, 1e-3);
+    }
+
+    @Test
+    void manyOverlappingSoundsAreNormalized() throws Exception {
+        List<SoundItem> clicks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            clicks.add(constantSound("click.wav", 48000, 480, .5, i, 1));
+        }
+        AudioMixer mixer = new AudioMixer(48000, 2);
+        assertTrue(mixer.addAll(clicks));
+        assertTrue(mixer.getPeak() > 1);
+        mixer.normalize();
+        assertEquals(1, mixer.getPeak(), 1e-6);
+
+        File wav = new File(dir, "mix.wav");
+        mixer.writeWav(wav);
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(wav)) {
+            assertEquals(mixer.getFrames(), in.getFrameLength());
+            assertEquals(2, in.getFormat().getChannels());
+        }
+    }
+
+    @Test
+    void mixesLongerThanAChunkAreWrittenWhole() throws Exception {
+        AudioMixer mixer = new AudioMixer(48000, 2);
+        //Crosses the end of the first chunk
+        assertTrue(mixer.add(constantSound("a.wav", 48000, 4800, .5, 950, 1)));
+        assertTrue(mixer.add(constantSound("b.wav", 48000, 4800, .5, 1000, 1)));
+        assertTrue(mixer.getFrames() > AudioMixer.CHUNK_FRAMES);
+        short[] samples = mixer.toPCM16(0, mixer.getFrames(), new short[2 * mixer.getFrames()]);
+        assertEquals(.5, samples[2 * (AudioMixer.CHUNK_FRAMES - 1)] / 32767d, 1e-3);
+        assertEquals(1, samples[2 * (AudioMixer.CHUNK_FRAMES + 1)] / 32767d, 1e-3);
+
+        File wav = new File(dir, "long.wav");
+        mixer.writeWav(wav);
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(wav)) {
+            assertEquals(mixer.getFrames(), in.getFrameLength());
+            byte[] bytes = in.readAllBytes();
+            assertEquals(2 * samples.length, bytes.length);
+            for (int i = 0; i < samples.length; i++) {
+                assertEquals(samples[i], (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8)));
+            }
+        }
+    }
+
+    @Test
+    void unsupportedFilesAreReported() throws IOException {
+        File file = new File(dir, "noise.mp3");
+        java.nio.file.Files.write(file.toPath(), new byte[]{1, 2, 3, 4});
+        AudioMixer mixer = new AudioMixer(48000, 2);
+        assertFalse(mixer.add(SoundItem.make(file.toURI().toURL(), 0)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import io.github.humbleui.skija.Paint;
+import io.github.humbleui.skija.PaintMode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SkijaPaintCacheTest {
+
+    private static SkijaPaintCache.Key colorKey(float red, float strokeWidth) {
+        return new SkijaPaintCache.Key(PaintMode.STROKE, strokeWidth, SkijaPaintCache.ColorKind.COLOR,
+                new float[]{red, 0, 0, 1}, null, null);
+    }
+
+    //Mocked paints, so that no native Skija paint is created
+    private static Paint create(SkijaPaintCache.Key key) {
+        return mock(Paint.class);
+    }
+
+    @Test
+    void equalStylesShareThePaint() {
+        SkijaPaintCache cache = new SkijaPaintCache(SkijaPaintCache.DEFAULT_MAX_PAINTS);
+        Paint paint = cache.get(colorKey(1, 2), SkijaPaintCacheTest::create);
+        assertSame(paint, cache.get(colorKey(1, 2), SkijaPaintCacheTest::create));
+        assertNotSame(paint, cache.get(colorKey(1, 3), SkijaPaintCacheTest::create));
+        assertNotSame(paint, cache.get(colorKey(.5f, 2), SkijaPaintCacheTest::create));
+
+        SkijaPaintCache.Key gradient = new SkijaPaintCache.Key(PaintMode.FILL, 0, SkijaPaintCache.ColorKind.LINEAR_GRADIENT,
+                new float[]{0, 0, 1, 1}, new int[]{0xFF000000, 0xFFFFFFFF}, new float[]{0, 1});
+        SkijaPaintCache.Key sameGradient = new SkijaPaintCache.Key(PaintMode.FILL, 0, SkijaPaintCache.ColorKind.LINEAR_GRADIENT,
+                new float[]{0, 0, 1, 1}, new int[]{0xFF000000, 0xFFFFFFFF}, new float[]{0, 1});
+        assertSame(cache.get(gradient, SkijaPaintCacheTest::create), cache.get(sameGradient, SkijaPaintCacheTest::create));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void evictedAndClearedPaintsAreClosed() {
+        SkijaPaintCache cache = new SkijaPaintCache(2);
+        Paint first = cache.get(colorKey(0, 1), SkijaPaintCacheTest::create);
+        Paint second = cache.get(colorKey(0, 2), SkijaPaintCacheTest::create);
+        cache.get(colorKey(0, 1), SkijaPaintCacheTest::create);
+        Paint third = cache.get(colorKey(0, 3), SkijaPaintCacheTest::create);
+        verify(second).close();
+        verify(first, never()).close();
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        verify(first).close();
+        verify(third).close();
+        assertEquals(0, cache.size());
+    }
+}
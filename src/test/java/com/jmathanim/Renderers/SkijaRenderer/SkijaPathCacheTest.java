@@ -0,0 +1,70 @@
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import com.jmathanim.MathObjects.Shapes.JMPath;
+import com.jmathanim.Utils.Vec;
+import io.github.humbleui.skija.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SkijaPathCacheTest {
+
+    private static JMPath createPath(int numPoints) {
+        JMPath path = new JMPath();
+        for (int i = 0; i < numPoints; i++) {
+            path.addPoint(Vec.to(i, i * i));
+        }
+        return path;
+    }
+
+    //Mocked paths, so that no native Skija path is created
+    private static Path convert(JMPath jmpath) {
+        return mock(Path.class);
+    }
+
+    @Test
+    void pathIsReusedWhileVersionIsUnchanged() {
+        SkijaPathCache cache = new SkijaPathCache(SkijaPathCache.DEFAULT_MAX_POINTS);
+        JMPath jmpath = createPath(3);
+        Path first = cache.get(jmpath, SkijaPathCacheTest::convert);
+        assertSame(first, cache.get(jmpath, SkijaPathCacheTest::convert));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        jmpath.get(1).getV().shift(Vec.to(1, 0));
+        long version = jmpath.getVersion();
+        Path second = cache.get(jmpath, SkijaPathCacheTest::convert);
+        assertNotSame(first, second);
+        assertEquals(version, jmpath.getVersion(), "The path is not updated while drawing");
+        verify(first).close();
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        //Hiding a segment changes the path too
+        jmpath.get(2).setSegmentToThisPointVisible(false);
+        assertNotSame(second, cache.get(jmpath, SkijaPathCacheTest::convert));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedPathsAreEvicted() {
+        SkijaPathCache cache = new SkijaPathCache(10);
+        JMPath a = createPath(4);
+        JMPath b = createPath(4);
+        JMPath c = createPath(4);
+        Path pathA = cache.get(a, SkijaPathCacheTest::convert);
+        Path pathB = cache.get(b, SkijaPathCacheTest::convert);
+        cache.get(a, SkijaPathCacheTest::convert);
+        cache.get(c, SkijaPathCacheTest::convert);
+        //12 points exceed the limit, b was the least recently used
+        verify(pathB).close();
+        verify(pathA, never()).close();
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.evict(a);
+        verify(pathA).close();
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,98 @@
+package com.jmathanim.Renderers.SkijaRenderer;
+
+import com.jmathanim.Cameras.Camera;
+import com.jmathanim.MathObjects.AbstractShape;
+import com.jmathanim.MathObjects.MathObject;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
+import com.jmathanim.jmathanim.DummyScene;
+import com.jmathanim.jmathanim.JMathAnimConfig;
+import io.github.humbleui.skija.Canvas;
+import io.github.humbleui.skija.Picture;
+import io.github.humbleui.skija.PictureRecorder;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SkijaPictureCacheTest {
+
+    @Test
+    void shapesSharedWithOtherSceneObjectsAreDrawnOnce() {
+        //Mocked canvas and pictures, so that nothing native is created
+        try (MockedConstruction<PictureRecorder> recorders = mockConstruction(PictureRecorder.class, (recorder, context) -> {
+            when(recorder.beginRecording(any())).thenReturn(mock(Canvas.class));
+            when(recorder.finishRecordingAsPicture()).thenReturn(mock(Picture.class));
+        })) {
+            new DummyScene() {
+                final List<AbstractShape<?>> drawn = new ArrayList<>();
+                SkijaPictureCache cache;
+
+                @Override
+                public void runSketch() {
+                    SkijaHandler handler = mock(SkijaHandler.class, withSettings().useConstructor(JMathAnimConfig.getConfig()));
+                    handler.canvas = mock(Canvas.class);
+                    handler.renderer = mock(SkijaRenderer.class);
+                    doAnswer(invocation -> {
+                        AbstractShape<?> shape = invocation.getArgument(0);
+                        cache.shapeDrawn(shape, invocation.getArgument(1));
+                        drawn.add(shape);
+                        return null;
+                    }).when(handler.renderer).drawPath(any(AbstractShape.class), any(Camera.class));
+                    cache = new SkijaPictureCache(handler);
+
+                    MultiShapeObject group = MultiShapeObject.make();
+                    for (int i = 0; i < 10; i++) {
+                        group.add(Shape.square().scale(.1).shift(-1 + .2 * i, 0));
+                    }
+                    Shape shared = group.get(0);
+
+                    //Recorded in the second frame and replayed in the third one
+                    drawFrame(group);
+                    drawFrame(group);
+                    assertEquals(1, cache.getRecordedInFrame());
+                    drawFrame(group, shared);
+                    assertEquals(1, cache.getReplayedInFrame());
+                    assertTrue(drawn.isEmpty());
+                    //The replayed group already drew the shared shape
+                    assertTrue(isAlreadydrawn(shared));
+
+                    //The shared shape is drawn first, so the group must skip it and cannot replay its picture
+                    for (int n = 0; n < 3; n++) {
+                        drawFrame(shared, group);
+                        assertEquals(0, cache.getReplayedInFrame());
+                        assertEquals(0, cache.getRecordedInFrame());
+                        assertEquals(1, Collections.frequency(drawn, shared));
+                        assertEquals(10, drawn.size());
+                    }
+
+                    //Once the shared shape is removed, the group is recorded again with it
+                    drawFrame(group);
+                    assertEquals(1, cache.getRecordedInFrame());
+                    assertTrue(drawn.contains(shared));
+                    drawFrame(group);
+                    assertEquals(1, cache.getReplayedInFrame());
+                }
+
+                private void drawFrame(MathObject<?>... objs) {
+                    advanceFrame();
+                    cache.newFrame();
+                    drawn.clear();
+                    for (MathObject<?> obj : objs) {
+                        if (!isAlreadydrawn(obj)) {
+                            cache.draw(obj, this);
+                            markAsAlreadydrawn(obj);
+                        }
+                    }
+                }
+            }.execute();
+            assertEquals(2, recorders.constructed().size());
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.jmathanim.Utils;
 
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
 import org.junit.jupiter.api.Test;
 
 import static com.jmathanim.jmathanim.JMathAnimScene.PI;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AffineJTransformTest {
 
@@ -15,9 +19,32 @@ public class AffineJTransformTest {
 
     }
 
+    @Test
+    public void testPrimitiveOperationsMatchMatrixOperations() {
+        AffineJTransform tr1 = AffineJTransform.create2DRotationTransform(Vec.to(1, 2), .3);
+        AffineJTransform tr2 = AffineJTransform.createScaleTransform(Vec.to(-1, 0), 2, .5, 3);
+        RealMatrix m1 = tr1.getMatrix();
+        RealMatrix m2 = tr2.getMatrix();
+        assertMatrixEquals(m1.multiply(m2), tr1.compose(tr2).getMatrix());
+        assertMatrixEquals(new LUDecomposition(m2).getSolver().getInverse(), tr2.getInverse().getMatrix());
+
+        Vec v = Vec.to(3, -2, 1);
+        RealMatrix expected = new Array2DRowRealMatrix(new double[][]{{1d, v.x, v.y, v.z}}).multiply(m1.multiply(m2));
+        tr1.compose(tr2).transform(v);
+        assertTrue(v.isEquivalentTo(Vec.to(expected.getEntry(0, 1), expected.getEntry(0, 2), expected.getEntry(0, 3)), 1e-12));
+
+        double[] coords = {3, -2, 1, 0, 0, 0};
+        tr1.compose(tr2).transformCoordinates(coords, 3, 1);
+        assertTrue(tr1.compose(tr2).transform(Vec.to(0, 0, 0)).isEquivalentTo(Vec.to(coords[3], coords[4], coords[5]), 1e-12));
+        assertEquals(3, coords[0], "Only the given points are transformed");
+    }
+
+    private static void assertMatrixEquals(RealMatrix expected, RealMatrix actual) {
+        assertTrue(expected.subtract(actual).getNorm() < 1e-12, "Expected " + expected + " but was " + actual);
+    }
 
     public static void assertAffineJTransformEquals(AffineJTransform tr1, AffineJTransform tr2, String errorMessage) {
-        assertEquals(tr1.matrix, tr2.matrix,errorMessage);
+        assertEquals(tr1.getMatrix(), tr2.getMatrix(),errorMessage);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,295 @@
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.MathObjects.Updatable;
+import com.jmathanim.Utils.Vec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+
+    @Test
+    void newNodesAreOrderedAfterTheirDependencies() {
+        DependencyGraph graph = new DependencyGraph();
+        TestNode a = new TestNode("A");
+        TestNode b = new TestNode("B", a);
+        TestNode c = new TestNode("C", a, b);
+        graph.addNode(c);
+        TestNode d = new TestNode("D", c);
+        graph.addNode(d);
+        assertEquals(4, graph.size());
+        assertTopologicalOrder(graph);
+    }
+
+    @Test
+    void addEdgeReordersAffectedNodes() {
+        DependencyGraph graph = new DependencyGraph();
+        TestNode a = new TestNode("A");
+        TestNode b = new TestNode("B", a);
+        TestNode c = new TestNode("C");
+        TestNode d = new TestNode("D", c);
+        graph.addNode(b);
+        graph.addNode(d);
+        //c was added after a and b, now b depends on d too
+        b.dependencies.add(d);
+        graph.refreshDependencies(b);
+        assertTopologicalOrder(graph);
+        assertThrows(IllegalStateException.class, () -> graph.addEdge(c, b));
+    }
+
+    @Test
+    void releaseRemovesUnusedDependencies() {
+        DependencyGraph graph = new DependencyGraph();
+        TestNode a = new TestNode("A");
+        TestNode b = new TestNode("B", a);
+        TestNode c = new TestNode("C", a);
+        graph.addNode(b);
+        graph.addNode(c);
+        graph.releaseNode(b);
+        assertFalse(graph.contains(b));
+        assertTrue(graph.contains(a), "A is still needed by C");
+        graph.releaseNode(c);
+        assertEquals(0, graph.size());
+    }
+
+    @Test
+    void deepChainsDoNotOverflowTheStack() {
+        DependencyGraph graph = new DependencyGraph();
+        TestNode previous = new TestNode("0");
+        for (int i = 1; i < 100000; i++) {
+            previous = new TestNode("" + i, previous);
+        }
+        graph.addNode(previous);
+        assertEquals(100000, graph.size());
+        assertTopologicalOrder(graph);
+    }
+
+    @Test
+    void onlyChangedNodesAndTheirDependentsAreVisited() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.makeCurrent();
+        TestNode a = new TestNode("A");
+        TestNode b = new TestNode("B", a);
+        TestNode c = new TestNode("C", b);
+        TestNode axes = new TestNode("Axes");
+        TestNode title = new TestNode("Title", axes);
+        TestNode polled = new TestNode("Polled");
+        polled.polled = true;
+        graph.addNode(c);
+        graph.addNode(title);
+        graph.addNode(polled);
+        assertEquals(1, graph.getPolledNodesCount());
+        graph.updateAll();
+        assertEquals(6, graph.getVisitedNodesCount(), "New nodes are visited once");
+
+        graph.updateAll();
+        assertEquals(1, graph.getVisitedNodesCount(), "Only the polled node is visited");
+
+        a.changeVersionAndMarkDirty();
+        graph.updateAll();
+        assertEquals(4, graph.getVisitedNodesCount());
+        assertEquals(2, c.updates);
+        assertEquals(1, title.updates, "Static nodes are not updated");
+    }
+
+    @Test
+    void vectorsNotifyOnlyWhileInAGraph() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.makeCurrent();
+        Vec v = Vec.to(1, 2);
+        TestNode node = new TestNode("N", v);
+        graph.addNode(node);
+        graph.updateAll();
+        v.shift(1, 0);
+        graph.updateAll();
+        assertEquals(2, graph.getVisitedNodesCount(), "The vector and its dependent are visited");
+        assertEquals(2, node.updates);
+
+        graph.releaseNode(node);
+        assertFalse(graph.contains(v));
+        graph.addNode(node);
+        graph.updateAll();
+        graph.releaseNode(node);
+        //Not in the graph anymore, so changes are not notified
+        v.shift(1, 0);
+        graph.updateAll();
+        assertEquals(0, graph.getVisitedNodesCount());
+    }
+
+    @Test
+    void parallelUpdatesVisitTheSameNodes() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            DependencyGraph graph = new DependencyGraph();
+            graph.makeCurrent();
+            graph.setParallelUpdates(parallel);
+            TestNode root = new TestNode("Root");
+            TestNode staticRoot = new TestNode("Static");
+            ArrayList<TestNode> last = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                TestNode middle = new TestNode("M" + i, root, staticRoot);
+                TestNode leaf = new TestNode("L" + i, middle);
+                graph.addNode(leaf);
+                last.add(leaf);
+            }
+            graph.updateAll();
+            assertEquals(1002, graph.getVisitedNodesCount());
+            root.changeVersionAndMarkDirty();
+            graph.updateAll();
+            assertEquals(1001, graph.getVisitedNodesCount(), "Parallel: " + parallel);
+            for (TestNode leaf : last) {
+                assertEquals(2, leaf.updates);
+                assertTrue(leaf.version > root.version, "Leaves are updated after the root");
+            }
+            assertTopologicalOrder(graph);
+        }
+    }
+
+    @Test
+    void nodesNotifiedWhileUpdatingAreHandledAsInSequentialMode() {
+        List<List<Integer>> results = new ArrayList<>();
+        for (boolean parallel : new boolean[]{false, true}) {
+            DependencyGraph graph = new DependencyGraph();
+            graph.makeCurrent();
+            graph.setParallelUpdates(parallel);
+            TestNode root = new TestNode("Root");
+            List<TestNode> watched = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                //Placed before the notifying node, so it is updated in the next frame
+                TestNode before = new TestNode("B" + i);
+                graph.addNode(before);
+                NotifyingNode source = new NotifyingNode("S" + i, root);
+                graph.addNode(source);
+                //Placed after the notifying node, in a lower level, so it is updated in the same frame
+                TestNode after = new TestNode("A" + i);
+                TestNode afterDependent = new TestNode("AD" + i, after);
+                graph.addNode(afterDependent);
+                source.targets.add(before);
+                source.targets.add(after);
+                watched.add(before);
+                watched.add(after);
+                watched.add(afterDependent);
+            }
+            List<Integer> result = new ArrayList<>();
+            for (int frame = 0; frame < 4; frame++) {
+                if (frame == 1) {
+                    root.changeVersionAndMarkDirty();
+                }
+                graph.updateAll();
+                result.add(graph.getVisitedNodesCount());
+                for (TestNode node : watched) {
+                    result.add(node.updates);
+                }
+            }
+            TestNode afterDependent = watched.get(2);
+            assertTrue(afterDependent.version > watched.get(1).version, "Parallel: " + parallel);
+            results.add(result);
+        }
+        assertEquals(results.get(0), results.get(1));
+        //In the frame after the change, nodes placed after the sources are updated with their dependents
+        assertEquals(2, (int) results.get(0).get(121 + 2));
+        assertEquals(2, (int) results.get(0).get(121 + 3));
+        //Nodes placed before wait for the next frame
+        assertEquals(1, (int) results.get(0).get(121 + 1));
+        assertEquals(2, (int) results.get(0).get(242 + 1));
+    }
+
+    private static void assertTopologicalOrder(DependencyGraph graph) {
+        List<Dependable> order = graph.getTopologicalOrder();
+        HashMap<Dependable, Integer> position = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i), i);
+        }
+        for (int i = 0; i < order.size(); i++) {
+            for (Dependable dep : order.get(i).getDependencies()) {
+                assertTrue(position.get(dep) < i, dep + " should be before " + order.get(i));
+            }
+        }
+    }
+
+    static class TestNode implements Dependable, Updatable {
+        final String name;
+        final List<Dependable> dependencies = new ArrayList<>();
+        long version;
+        int updates;
+        boolean polled;
+
+        TestNode(String name, Dependable... deps) {
+            this.name = name;
+            for (Dependable dep : deps) {
+                dependencies.add(dep);
+            }
+        }
+
+        @Override
+        public void changeVersionAndMarkDirty() {
+            version = VersionCounter.next();
+            DependencyGraph.notifyChanged(this);
+        }
+
+        @Override
+        public List<Dependable> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void addDependency(Dependable dep) {
+            dependencies.add(dep);
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean requiresPolling() {
+            return polled;
+        }
+
+        @Override
+        public boolean needsUpdate() {
+            for (Dependable dep : dependencies) {
+                if (dep.getVersion() > version) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean update() {
+            updates++;
+            if (needsUpdate()) {
+                version = VersionCounter.next();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class NotifyingNode extends TestNode {
+        final List<TestNode> targets = new ArrayList<>();
+
+        NotifyingNode(String name, Dependable... deps) {
+            super(name, deps);
+        }
+
+        @Override
+        public boolean update() {
+            boolean changed = super.update();
+            if (changed) {
+                for (TestNode target : targets) {
+                    target.changeVersionAndMarkDirty();
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.MathObjects.MathObject;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.Styling.MODrawProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SceneDrawListTest {
+
+    @Test
+    void objectsAreOrderedByLayerThenByInsertion() {
+        SceneDrawList list = new SceneDrawList();
+        Shape a = Shape.square().layer(1);
+        Shape b = Shape.square().layer(0);
+        Shape c = Shape.square().layer(1);
+        Shape d = Shape.square().layer(-3);
+        assertTrue(list.add(a));
+        assertTrue(list.add(b));
+        assertTrue(list.add(c));
+        assertTrue(list.add(d));
+        assertFalse(list.add(a));
+        assertEquals(Arrays.asList(d, b, a, c), drawingOrder(list));
+        assertEquals(Arrays.asList(d, b, a, c), list.asList());
+    }
+
+    @Test
+    void layerChangesKeepInsertionOrder() {
+        SceneDrawList list = new SceneDrawList();
+        Shape a = Shape.square();
+        Shape b = Shape.square();
+        Shape c = Shape.square().layer(2);
+        list.add(a);
+        list.add(b);
+        list.add(c);
+        b.layer(2);
+        list.updateLayer(b);
+        a.layer(2);
+        list.updateLayer(a);
+        list.refresh();
+        //Same order as a stable sort by layer
+        assertEquals(Arrays.asList(a, b, c), drawingOrder(list));
+        c.layer(-1);
+        list.updateLayer(c);
+        assertEquals(Arrays.asList(c, a, b), list.asList());
+    }
+
+    @Test
+    void removedObjectsAreSkipped() {
+        SceneDrawList list = new SceneDrawList();
+        Shape a = Shape.square();
+        Shape b = Shape.square();
+        list.add(a);
+        list.add(b);
+        assertTrue(list.remove(a));
+        assertFalse(list.remove(a));
+        assertFalse(list.contains(a));
+        assertEquals(Arrays.asList(b), drawingOrder(list));
+        //Added again, goes to the end
+        list.add(a);
+        assertEquals(Arrays.asList(b, a), drawingOrder(list));
+        list.refresh();
+        assertEquals(Arrays.asList(b, a), drawingOrder(list));
+        assertEquals(2, list.size());
+    }
+
+    @Test
+    void sceneDrawsEachObjectOncePerFrame() {
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+                Shape sq = Shape.square();
+                add(sq);
+                assertFalse(isAlreadydrawn(sq));
+                advanceFrame();
+                assertTrue(isAlreadydrawn(sq));
+                remove(sq);
+                advanceFrame();
+                assertFalse(isAlreadydrawn(sq));
+                assertFalse(isInScene(sq));
+            }
+        }.execute();
+    }
+
+    @Test
+    void sceneMovesObjectsWhenTheirLayerChanges() {
+        new DummyScene() {
+            @Override
+            public void runSketch() {
+                Shape a = Shape.square();
+                Shape b = Shape.square();
+                add(a, b);
+                assertEquals(Arrays.asList(a, b), getMathObjects());
+                a.layer(1);
+                assertEquals(Arrays.asList(b, a), getMathObjects());
+                MODrawProperties style = MODrawProperties.makeNullValues();
+                style.setLayer(2);
+                b.setMp(style);
+                assertEquals(Arrays.asList(a, b), getMathObjects());
+                //Changes made directly in the drawing style are found before the next frame
+                a.getMp().copyFrom(style);
+                b.getMp().setLayer(0);
+                advanceFrame();
+                assertEquals(Arrays.asList(b, a), getMathObjects());
+            }
+        }.execute();
+    }
+
+    private static List<MathObject<?>> drawingOrder(SceneDrawList list) {
+        List<MathObject<?>> resul = new ArrayList<>();
+        list.forEachInDrawingOrder(resul::add);
+        return resul;
+    }
+}
@@ -0,0 +1,77 @@
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Animations.Commands;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.Renderers.DummyRenderer;
+import com.jmathanim.Renderers.Renderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedRenderingTest {
+
+    @AfterEach
+    void resetShard() {
+        JMathAnimConfig.getConfig().setShard(0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void shardRendersSameFramesAsFullRun() {
+        RecordingScene full = new RecordingScene();
+        full.execute();
+        assertEquals(full.getFrameCount(), full.savedFrames.size());
+        assertTrue(full.getFrameCount() > 40);
+
+        RecordingScene shard = new RecordingScene();
+        shard.getConfig().setShard(15, 40);
+        shard.execute();
+        //The scene stops at the end of the shard
+        assertEquals(40, shard.getFrameCount());
+        assertEquals(25, shard.savedFrames.size());
+        for (Map.Entry<Integer, Double> frame : shard.savedFrames.entrySet()) {
+            assertTrue(frame.getKey() > 15 && frame.getKey() <= 40, "Frame " + frame.getKey() + " out of shard");
+            assertEquals(full.savedFrames.get(frame.getKey()), frame.getValue(), 1e-12);
+        }
+    }
+
+    @Test
+    void emptyShardOnlyCountsFrames() {
+        RecordingScene full = new RecordingScene();
+        full.execute();
+
+        RecordingScene count = new RecordingScene();
+        count.getConfig().setShard(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        count.execute();
+        assertEquals(full.getFrameCount(), count.getFrameCount());
+        assertTrue(count.savedFrames.isEmpty());
+    }
+
+    private static class RecordingScene extends DummyScene {
+
+        final LinkedHashMap<Integer, Double> savedFrames = new LinkedHashMap<>();
+        private Shape square;
+
+        @Override
+        protected Renderer createRenderer() {
+            return new DummyRenderer(this) {
+                @Override
+                public void saveFrame(int frameCount) {
+                    savedFrames.put(frameCount, square.getCenter().x);
+                }
+            };
+        }
+
+        @Override
+        public void runSketch() {
+            square = Shape.square();
+            add(square);
+            waitSeconds(.4);
+            playAnimation(Commands.shift(2, 1, 0, square));
+            waitSeconds(.4);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Utils.Vec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionCounterTest {
+
+    @Test
+    void concurrentMutationsGetUniqueIncreasingVersions() throws Exception {
+        final int threads = 8;
+        final int changes = 50000;
+        long start = VersionCounter.current();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                Vec v = Vec.to(0, 0);
+                long[] versions = new long[changes];
+                ready.await();
+                for (int i = 0; i < changes; i++) {
+                    v.changeVersionAndMarkDirty();
+                    versions[i] = v.getVersion();
+                }
+                return versions;
+            }));
+        }
+        ready.countDown();
+        Set<Long> all = new HashSet<>();
+        for (Future<long[]> result : results) {
+            long[] versions = result.get(60, TimeUnit.SECONDS);
+            for (int i = 0; i < versions.length; i++) {
+                if (i > 0) {
+                    assertTrue(versions[i] > versions[i - 1], "Versions of a thread must increase");
+                }
+                assertTrue(all.add(versions[i]), "Version " + versions[i] + " handed out twice");
+            }
+        }
+        executor.shutdown();
+        assertEquals((long) threads * changes, all.size());
+        assertTrue(VersionCounter.current() >= start + (long) threads * changes, "No increment is lost");
+    }
+}
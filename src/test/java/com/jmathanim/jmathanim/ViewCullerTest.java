@@ -0,0 +1,197 @@
+package com.jmathanim.jmathanim;
+
+import com.jmathanim.Cameras.Camera;
+import com.jmathanim.Cameras.Camera3D;
+import com.jmathanim.Cameras.ViewFrustum;
+import com.jmathanim.Enum.AnchorType;
+import com.jmathanim.MathObjects.AbstractShape;
+import com.jmathanim.MathObjects.Point;
+import com.jmathanim.MathObjects.Shape;
+import com.jmathanim.MathObjects.Shapes.MultiShapeObject;
+import com.jmathanim.Renderers.DummyRenderer;
+import com.jmathanim.Renderers.Renderer;
+import com.jmathanim.Utils.Rect;
+import com.jmathanim.Utils.Vec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewCullerTest {
+
+    @AfterEach
+    void resetViewCulling() {
+        JMathAnimConfig.getConfig().setViewCulling(true);
+    }
+
+    @Test
+    void shapesOutOfViewAreNotDrawn() {
+        RecordingScene scene = new RecordingScene() {
+            @Override
+            public void runSketch() {
+                Shape inView = Shape.square();
+                Shape farAway = Shape.square().shift(100, 0);
+                Shape absolute = Shape.square().shift(100, 0);
+                absolute.setAbsoluteSize(AnchorType.CENTER);
+                add(inView, farAway, absolute);
+                advanceFrame();
+                assertTrue(drawn.contains(inView));
+                assertFalse(drawn.contains(farAway));
+                //Objects with absolute size are never culled
+                assertEquals(1, getViewCuller().getCulledInFrame());
+
+                //Moving the camera shows the far away square
+                drawn.clear();
+                getCamera().shift(100, 0);
+                advanceFrame();
+                assertFalse(drawn.contains(inView));
+                assertTrue(drawn.contains(farAway));
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void cullingCanBeDisabled() {
+        RecordingScene scene = new RecordingScene() {
+            @Override
+            public void runSketch() {
+                config.setViewCulling(false);
+                Shape farAway = Shape.square().shift(100, 0);
+                add(farAway);
+                advanceFrame();
+                assertTrue(drawn.contains(farAway));
+                assertEquals(0, getViewCuller().getCulledInFrame());
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void indexedMultiShapeDrawsOnlyShapesInView() {
+        RecordingScene scene = new RecordingScene() {
+            @Override
+            public void runSketch() {
+                MultiShapeObject msh = MultiShapeObject.make();
+                for (int i = 0; i < 400; i++) {
+                    msh.add(Shape.square().scale(.1).shift(-40 + .2 * i, 0));
+                }
+                add(msh);
+                checkDrawnShapes(msh);
+
+                //Changing shapes invalidates the index
+                msh.get(0).shift(40, 0);
+                msh.get(399).shift(-40, 0);
+                checkDrawnShapes(msh);
+            }
+
+            private void checkDrawnShapes(MultiShapeObject msh) {
+                drawn.clear();
+                advanceFrame();
+                ViewFrustum frustum = ViewFrustum.of(getCamera());
+                List<AbstractShape<?>> expected = new ArrayList<>();
+                for (Shape sh : msh) {
+                    if (frustum.intersects(sh.getBoundingBox(), frustum.getStrokeMargin(sh.getMp()))) {
+                        expected.add(sh);
+                    }
+                }
+                assertTrue(expected.size() > 10 && expected.size() < 100);
+                assertEquals(expected, drawn);
+                assertEquals(msh.size() - expected.size(), getViewCuller().getCulledInFrame());
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void perspectiveFrustumIsACone() {
+        DummyScene scene = new DummyScene() {
+            @Override
+            public void runSketch() {
+                Camera3D cam = new Camera3D(this, 800, 600);
+                cam.lookAt(Point.at(0, 0, 10), Point.at(0, 0, 0));
+                ViewFrustum frustum = ViewFrustum.of(cam);
+                assertTrue(frustum.isPerspective());
+                assertTrue(frustum.intersects(new Rect(-1, -1, -1, 1, 1, 1), 0));
+                //Behind the eye
+                assertFalse(frustum.intersects(new Rect(-1, -1, 20, 1, 1, 22), 0));
+                //Far to the side
+                assertFalse(frustum.intersects(new Rect(50, -1, -1, 52, 1, 1), 0));
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void camera3DWithoutPerspectiveIsNotCulled() {
+        DummyScene scene = new DummyScene() {
+            @Override
+            public void runSketch() {
+                Camera3D cam = new Camera3D(this, 800, 600);
+                cam.perspective = false;
+                cam.lookAt(Point.at(10, 0, 0), Point.at(0, 0, 0));
+                ViewFrustum frustum = ViewFrustum.of(cam);
+                assertFalse(frustum.isCullable());
+                assertTrue(frustum.intersects(new Rect(50, 50, 50, 52, 52, 52), 0));
+                assertTrue(frustum.intersects(50, 50, 52, 52, 0));
+                assertTrue(ViewFrustum.of(getCamera()).isCullable());
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void frustumMarginExtendsTheView() {
+        DummyScene scene = new DummyScene() {
+            @Override
+            public void runSketch() {
+                Camera cam = getCamera();
+                ViewFrustum frustum = ViewFrustum.of(cam);
+                assertFalse(frustum.isPerspective());
+                double xmax = frustum.getXmax();
+                assertFalse(frustum.intersects(xmax + .1, 0, xmax + 1, 1, 0));
+                assertTrue(frustum.intersects(xmax + .1, 0, xmax + 1, 1, .2));
+            }
+        };
+        scene.execute();
+    }
+
+    @Test
+    void strokeMarginCoversZoomedSkijaStrokes() {
+        DummyScene scene = new DummyScene() {
+            @Override
+            public void runSketch() {
+                Camera cam = getCamera();
+                cam.initialize(-.5, .5, 0);
+                ViewFrustum frustum = ViewFrustum.of(cam);
+                //Stroke width of the Skija renderer, in math units
+                double skijaWidth = 4d / 1066 * 4 / cam.getMathView().getWidth();
+                assertTrue(frustum.getStrokeMargin(4, false) >= skijaWidth);
+                double fixedWidth = getFixedCamera().getMathView().getWidth();
+                assertTrue(frustum.getStrokeMargin(4, true) >= 4d / 1066 * 4 / fixedWidth);
+                //A thick stroke whose path is just out of view is drawn
+                double xmax = frustum.getXmax();
+                assertTrue(frustum.intersects(xmax + .5 * skijaWidth, 0, xmax + 1, 1, frustum.getStrokeMargin(4, false)));
+            }
+        };
+        scene.execute();
+    }
+
+    private abstract static class RecordingScene extends DummyScene {
+
+        final List<AbstractShape<?>> drawn = new ArrayList<>();
+
+        @Override
+        protected Renderer createRenderer() {
+            return new DummyRenderer(this) {
+                @Override
+                public void drawPath(AbstractShape<?> mobj, Vec shiftVector, Camera camera) {
+                    drawn.add(mobj);
+                }
+            };
+        }
+    }
+}